@@ -1,12 +1,21 @@
 package com.carizon.admin;
 
 
+import com.carizon.batch.ArchiveReplayService;
 import com.carizon.batch.CrawlJobService;
+import com.carizon.batch.CrawlSource;
+import com.carizon.config.HostLimitInterceptor;
+import com.carizon.crawler.AdaptiveRateLimiter;
+import com.carizon.crawler.HostRateLimiters;
+import com.carizon.crawler.RawArchive;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -17,16 +26,106 @@ import java.util.Map;
 public class CrawlAdminController {
     private final CrawlJobService job;
     private final JdbcTemplate jdbc;
+    private final HostRateLimiters rateLimiters;
+    private final HostLimitInterceptor hostLimit;
+    private final RawArchive archive;
+    private final ArchiveReplayService replay;
 
-    @PostMapping("/runAll")     public Map<String, Object> runNowBoth() { job.runDaily(); return Map.of("ok", true); }
-    @PostMapping("/encar")   public Map<String, Object> runNowEncar() { job.runNowEncar(); return Map.of("ok", true); }
-    @PostMapping("/kcar")    public Map<String, Object> runNowKcar()  { job.runNowKcar(); return Map.of("ok", true); }
-    @PostMapping("/cha")    public Map<String, Object> runNowCha()  { job.runNowCha(); return Map.of("ok", true); }
-    @PostMapping("/chutcha") public Map<String,Object> runChutcha(){ job.runNowChutcha(); return Map.of("ok", true); }
-    @PostMapping("/charancha") public Map<String,Object> runCharancha(){ job.runNowCharancha(); return Map.of("ok", true); }
-    @PostMapping("/tcar") public Map<String,Object> runTcar(){ job.runNowTcar(); return Map.of("ok", true); }
+    // 실행 요청은 모두 대기열 접수 후 바로 응답 (runId = crawl_run.run_id). 진행 상황은 GET /jobs/{runId}
+    @PostMapping("/runAll")     public List<Map<String, Object>> runNowBoth() { return job.submitAll("ADMIN").stream().map(CrawlAdminController::view).toList(); }
+    @PostMapping("/encar")   public Map<String, Object> runNowEncar() { return view(job.submit(CrawlSource.ENCAR, "ADMIN")); }
+    @PostMapping("/kcar")    public Map<String, Object> runNowKcar()  { return view(job.submit(CrawlSource.KCAR, "ADMIN")); }
+    @PostMapping("/cha")    public Map<String, Object> runNowCha()  { return view(job.submit(CrawlSource.CHACHACHA, "ADMIN")); }
+    @PostMapping("/chutcha") public Map<String,Object> runChutcha(){ return view(job.submit(CrawlSource.CHUTCHA, "ADMIN")); }
+    @PostMapping("/charancha") public Map<String,Object> runCharancha(){ return view(job.submit(CrawlSource.CHARANCHA, "ADMIN")); }
+    @PostMapping("/tcar") public Map<String,Object> runTcar(){ return view(job.submit(CrawlSource.TCAR, "ADMIN")); }
 
 
+    /** 중단된 실행을 crawl_checkpoint 의 마지막 저장 페이지 다음부터 같은 run_id 로 이어서 실행 (대기열 접수) */
+    @PostMapping("/resume/{runId}")
+    public Map<String, Object> resume(@PathVariable String runId) {
+        try {
+            return view(job.submitResume(runId));
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("[CRAWL-ADMIN] resume 불가 runId={} {}", runId, e.getMessage());
+            return Map.of("ok", false, "error", e.getMessage());
+        }
+    }
+
+    /** 대기/실행 중/최근 끝난 작업 */
+    @GetMapping("/jobs")
+    public List<Map<String, Object>> jobs() {
+        return job.jobs().stream().map(CrawlAdminController::view).toList();
+    }
+
+    @GetMapping("/jobs/{runId}")
+    public Map<String, Object> jobStatus(@PathVariable String runId) {
+        return job.job(runId).map(CrawlAdminController::view)
+                .orElseGet(() -> Map.of("ok", false, "error", "작업 없음 runId=" + runId));
+    }
+
+    /** 대기 중인 작업만 취소 가능 */
+    @DeleteMapping("/jobs/{runId}")
+    public Map<String, Object> cancelJob(@PathVariable String runId) {
+        return Map.of("ok", job.cancel(runId));
+    }
+
+    /** 호스트별 현재 AIMD 속도(rps) + 누적 정상/제한 응답 수 + 사용 중 동시 슬롯 */
+    @GetMapping("/rate-limits")
+    public Map<String, Object> rateLimits() {
+        List<AdaptiveRateLimiter.Snapshot> hosts = rateLimiters.snapshot();
+        return Map.of("enabled", rateLimiters.enabled(), "hosts", hosts, "inFlight", hostLimit.inUse());
+    }
+
+    /** 날짜별 아카이브 이름 목록 (확장자 제외, replay 의 name 으로 그대로 사용) */
+    @GetMapping("/archive/{source}/{date}")
+    public List<String> archives(@PathVariable CrawlSource source,
+                                 @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) throws Exception {
+        return replay.list(source, date);
+    }
+
+    /** 아카이브 → raw_* 재적재 (name 생략 시 그 날짜 마지막 파일), merge=true 면 date 기준 merge 까지 */
+    @PostMapping("/archive/{source}/{date}/replay")
+    public Map<String, Object> replayArchive(@PathVariable CrawlSource source,
+                                             @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                             @RequestParam(required = false) String name,
+                                             @RequestParam(defaultValue = "false") boolean merge) throws Exception {
+        try {
+            return replay.replay(source, date, name, merge);
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Map.of("ok", false, "error", e.getMessage());
+        }
+    }
+
+    /** 날짜별 사본 테이블(raw_encar_20251004 등)을 아카이브 파일로 이관 — DROP 은 확인 후 직접 */
+    @PostMapping("/archive/{source}/{date}/import")
+    public Map<String, Object> importTable(@PathVariable CrawlSource source,
+                                           @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+                                           @RequestParam String table) throws Exception {
+        try {
+            long rows = archive.importTable(source, table, date);
+            return Map.of("ok", true, "rows", rows, "file", archive.fileOf(source, date, table).toString());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return Map.of("ok", false, "error", e.getMessage());
+        }
+    }
+
+    private static Map<String, Object> view(CrawlJobService.Job j) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("ok", true);
+        m.put("runId", j.getRunId());
+        m.put("source", j.getSource());
+        m.put("status", j.getStatus());
+        m.put("trigger", j.getTrigger());
+        m.put("priority", j.getPriority());
+        m.put("submittedAt", j.getSubmittedAt());
+        m.put("startedAt", j.getStartedAt());
+        m.put("endedAt", j.getEndedAt());
+        m.put("items", j.getItems());
+        m.put("error", j.getError());
+        return m;
+    }
+
     @GetMapping("/runs")
     public List<Map<String,Object>> recentRuns(@RequestParam(defaultValue = "20") int limit) {
         return jdbc.queryForList(
@@ -1,6 +1,7 @@
 package com.carizon.admin;
 
 import com.carizon.merge.MergeService;
+import com.carizon.merge.PlatformCarPayloadStore;
 import lombok.RequiredArgsConstructor;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
@@ -14,6 +15,7 @@ import java.util.Map;
 @RequestMapping("/api/admin/merge")
 public class MergeAdminController {
     private final MergeService mergeService;
+    private final PlatformCarPayloadStore payloads;
 /*
     // 전체 배치: merge(플랫폼->platform_car, master 생성) + snapshot(가격이력) + sold 처리
     @PostMapping("/run")
@@ -74,6 +76,14 @@ public class MergeAdminController {
         return ResponseEntity.ok(Map.of("mergedPlatforms", merged));
     }
 
+    // 개별 단계 호출도 가능
+    @PostMapping("/tcar")
+    public ResponseEntity<?> runMergeTcar(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bizDate) {
+        LocalDate d = bizDate != null ? bizDate : LocalDate.now();
+        int merged = mergeService.mergeTcar(d);
+        return ResponseEntity.ok(Map.of("mergedPlatforms", merged));
+    }
+
     @PostMapping("/snapshot")
     public ResponseEntity<?> runSnapshot(@RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate bizDate) {
         LocalDate d = bizDate != null ? bizDate : LocalDate.now();
@@ -81,4 +91,26 @@ public class MergeAdminController {
         mergeService.closeMissingAds(d);
         return ResponseEntity.ok(Map.of("status","OK"));
     }
+
+    // platform_car 원본 JSON (platform_car_payload 에서 필요할 때만 조회)
+    @GetMapping(value = "/payload/{platformCarId}", produces = "application/json")
+    public ResponseEntity<String> payload(@PathVariable long platformCarId) {
+        return ResponseEntity.of(payloads.find(platformCarId));
+    }
+
+    @GetMapping(value = "/payload/{platform}/{key}", produces = "application/json")
+    public ResponseEntity<String> payload(@PathVariable String platform, @PathVariable String key) {
+        return ResponseEntity.of(payloads.find(platform.toUpperCase(), key));
+    }
+
+    // platform_car.extra → platform_car_payload 복사 검증 후 컬럼 삭제 (미복사 row 있으면 409)
+    @PostMapping("/payload/drop-extra")
+    public ResponseEntity<?> dropExtra() {
+        payloads.ensureReady();
+        try {
+            return ResponseEntity.ok(payloads.dropExtra());
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(409).body(Map.of("error", e.getMessage()));
+        }
+    }
 }
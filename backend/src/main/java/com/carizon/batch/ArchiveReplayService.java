@@ -0,0 +1,94 @@
+package com.carizon.batch;
+
+import com.carizon.crawler.RawArchive;
+import com.carizon.crawler.RawPayloadWriter;
+import com.carizon.merge.MergeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * RawArchive 파일 → raw_* 재적재 (+ 선택적으로 그 날짜 기준 merge 재실행)
+ * - raw_* 는 FULL 로 다시 채움 (TRUNCATE) → 현재 데이터가 아카이브 시점 데이터로 바뀌므로
+ *   다음 정기 크롤 전에 되돌리려면 크롤을 다시 돌리거나 오늘 파일을 replay
+ * - crawl_run 에 별도 run 으로 기록 (message = replay 파일 경로)
+ * - 크롤과 같은 플랫폼 CrawlLock 을 잡고 실행 → 크롤/다른 replay 중이면 거부 (IllegalStateException),
+ *   replay 중 접수된 크롤 작업은 CrawlJobService 에서 락을 못 잡아 끝날 때까지 대기
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ArchiveReplayService {
+
+    private static final int REPLAY_BATCH = 1_000;
+
+    private final RawArchive archive;
+    private final RawPayloadWriter raw;
+    private final CrawlRunRecorder recorder;
+    private final MergeService merge;
+    private final CrawlLock lock;
+
+    /**
+     * @param name   아카이브 파일명(runId 또는 import 한 테이블명). null 이면 그 날짜의 마지막 파일
+     * @param merged true 면 재적재 후 date 를 bizDate 로 해당 플랫폼 merge 실행
+     * @throws IllegalStateException 같은 플랫폼 크롤/replay 가 실행 중 (이 인스턴스 또는 다른 인스턴스)
+     */
+    public Map<String, Object> replay(CrawlSource source, LocalDate date, String name, boolean merged) throws IOException {
+        Path file = pick(source, date, name);
+
+        try (CrawlLock.Handle held = lock.tryAcquire(source)
+                .orElseThrow(() -> new IllegalStateException(source + " 크롤/replay 실행 중 → replay 거부"))) {
+            return replayLocked(source, date, file, merged);
+        }
+    }
+
+    private Map<String, Object> replayLocked(CrawlSource source, LocalDate date, Path file, boolean merged) throws IOException {
+        Instant started = Instant.now();
+        String runId = recorder.recordStart(source.name(), started);
+        long rows;
+        try {
+            RawPayloadWriter.Session session = raw.openReplay(source, runId);
+            rows = archive.read(file, REPLAY_BATCH, batch -> raw.write(session, batch));
+            raw.finish(session, true);
+            recorder.recordSummary(runId, (int) rows, Instant.now(), true, "replay " + file);
+        } catch (RuntimeException e) {
+            recorder.recordFail(runId, 0, Instant.now(), "replay " + file + ": " + e);
+            throw e;
+        }
+        log.info("[REPLAY] {} {} → {} rows={} ({}ms)", source, file, source.rawTable(), rows,
+                Instant.now().toEpochMilli() - started.toEpochMilli());
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("runId", runId);
+        out.put("file", file.toString());
+        out.put("rows", rows);
+        if (merged) out.put("merged", merge.merge(source, date));
+        return out;
+    }
+
+    /** 아카이브 이름 목록 (확장자 제외) — replay 의 name 으로 그대로 사용 */
+    public List<String> list(CrawlSource source, LocalDate date) throws IOException {
+        return archive.files(source, date).stream().map(RawArchive::nameOf).toList();
+    }
+
+    private Path pick(CrawlSource source, LocalDate date, String name) throws IOException {
+        if (name != null && !name.isBlank()) {
+            Path f = archive.fileOf(source, date, name);
+            if (!Files.exists(f)) throw new IllegalArgumentException("archive not found: " + f);
+            return f;
+        }
+        List<Path> files = archive.files(source, date);
+        if (files.isEmpty()) throw new IllegalArgumentException("no archive for " + source + " " + date);
+        return files.get(files.size() - 1);
+    }
+
+}
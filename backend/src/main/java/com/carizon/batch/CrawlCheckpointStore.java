@@ -0,0 +1,94 @@
+package com.carizon.batch;
+
+import com.carizon.common.SchemaCheck;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 크롤 페이지네이션 체크포인트 (crawl_checkpoint, run_id 당 1 row)
+ * - 크롤러는 페이지를 "저장한 뒤" save() → 재개 시 그 다음 페이지부터
+ * - state: 플랫폼별 커서 (page / searchAfter / Encar cursor·offset / Chutcha cp·lp·ts ...)
+ * - 끝까지 정상 도달하면 done=1 → 재개 대상 아님
+ * - 테이블은 db/migration V1 (없으면 IllegalStateException)
+ */
+@Slf4j
+@Component
+public class CrawlCheckpointStore {
+
+    public record Checkpoint(String runId, CrawlSource source, int items, Map<String, Object> state, boolean done) {
+        public int intState(String key, int dflt) {
+            Object v = state.get(key);
+            return v instanceof Number n ? n.intValue() : dflt;
+        }
+
+        public String strState(String key, String dflt) {
+            Object v = state.get(key);
+            return v == null ? dflt : String.valueOf(v);
+        }
+
+        @SuppressWarnings("unchecked")
+        public List<Object> listState(String key) {
+            Object v = state.get(key);
+            return v instanceof List<?> l ? (List<Object>) l : null;
+        }
+    }
+
+    private final JdbcTemplate jdbc;
+    private final SchemaCheck schema;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public CrawlCheckpointStore(JdbcTemplate jdbc, SchemaCheck schema) {
+        this.jdbc = jdbc;
+        this.schema = schema;
+    }
+
+    /** 저장 완료된 페이지까지의 상태 기록 (items = 지금까지 누적 건수) */
+    public void save(String runId, CrawlSource source, int items, Map<String, Object> state) {
+        schema.requireTable("crawl_checkpoint");
+        try {
+            jdbc.update("""
+                INSERT INTO crawl_checkpoint(run_id, source, items, state, done)
+                VALUES (?, ?, ?, ?, 0)
+                ON DUPLICATE KEY UPDATE items=VALUES(items), state=VALUES(state), updated_at=CURRENT_TIMESTAMP
+            """, runId, source.name(), items, mapper.writeValueAsString(state));
+        } catch (Exception e) {
+            // 체크포인트 실패로 크롤 자체를 멈추지는 않음
+            log.warn("[CHECKPOINT] 저장 실패 runId={} err={}", runId, e.toString());
+        }
+    }
+
+    public void markDone(String runId) {
+        schema.requireTable("crawl_checkpoint");
+        jdbc.update("UPDATE crawl_checkpoint SET done=1, updated_at=CURRENT_TIMESTAMP WHERE run_id=?", runId);
+    }
+
+    public Optional<Checkpoint> load(String runId) {
+        schema.requireTable("crawl_checkpoint");
+        List<Checkpoint> rows = jdbc.query(
+                "SELECT run_id, source, items, state, done FROM crawl_checkpoint WHERE run_id=?",
+                (rs, i) -> new Checkpoint(
+                        rs.getString("run_id"),
+                        CrawlSource.valueOf(rs.getString("source")),
+                        rs.getInt("items"),
+                        parse(rs.getString("state")),
+                        rs.getBoolean("done")),
+                runId);
+        return rows.stream().findFirst();
+    }
+
+    private Map<String, Object> parse(String json) {
+        try {
+            return json == null ? Map.of() : mapper.readValue(json, new TypeReference<>() {});
+        } catch (Exception e) {
+            log.warn("[CHECKPOINT] state 파싱 실패: {}", e.toString());
+            return Map.of();
+        }
+    }
+}
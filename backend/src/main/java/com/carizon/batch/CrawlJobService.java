@@ -1,70 +1,282 @@
 package com.carizon.batch;
 
-import com.carizon.crawler.*;
-import lombok.RequiredArgsConstructor;
+import jakarta.annotation.PreDestroy;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 크롤 작업 대기열
+ * - submit 은 바로 run_id 를 돌려주고 실제 실행은 가상 스레드에서 (crawl_run.run_id 와 같은 값)
+ * - 플랫폼 하나는 동시에 하나만: 실행 중이면 대기열에 쌓고 끝나면 이어서 실행
+ *   같은 플랫폼이 이미 대기 중이면 새로 쌓지 않고 그 작업을 돌려줌 (스케줄 + 수동 실행이 겹쳐도 1회)
+ * - 인스턴스 간 중복은 CrawlLock(MySQL GET_LOCK) 으로 막음. 다른 곳에서 실행 중이면 대기하다가
+ *   CrawlScheduler 가 주기적으로 dispatch() 할 때 다시 시도
+ * - 대기열 순서: priority(crawl.schedule.platforms.*.priority) 큰 순 → 접수 순
+ * - submitAll 묶음은 전부 끝나면 crawl_run(source='ALL') 요약 (CrawlOrchestrator.recordBatch)
+ *   플랫폼별 cron 실행은 묶음이 아니므로 ALL 요약 없음
+ */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CrawlJobService {
-    private final ChachachaCrawler chachacha;
-    private final EncarCrawler encar;
-    private final KcarCrawler kcar;         // ✅ 추가
-    private final ChutchaCrawler chutcha;
-
-    private final CharanchaCrawler charancha;
-    private final TcarCrawler tcar;
-
-
-
-    // 매일 새벽 03:15 KST
-    @Scheduled(cron = "0 15 3 * * *", zone = "Asia/Seoul")
-    public void runDaily() {
-        log.info("[CRAWL] daily schedule start");
-        //chachacha.runOnce();
-        //encar.runOnce();
-        //kcar.runOnceFull();                 // ✅ 추가
-        //chutcha.runOnceFull();
-        //charancha.runOnceFull();
-        //tcar.runOnceFull();
-        log.info("[CRAWL] daily schedule end");
+
+    public enum Status { QUEUED, RUNNING, SUCCESS, FAIL, SKIPPED }
+
+    @Getter
+    public static final class Job {
+        private final String runId;
+        private final CrawlSource source;
+        private final String trigger;
+        private final int priority;
+        private final boolean resume;
+        private final Instant submittedAt = Instant.now();
+        private volatile Status status = Status.QUEUED;
+        private volatile Instant startedAt;
+        private volatile Instant endedAt;
+        private volatile int items;
+        private volatile String error;
+
+        Job(String runId, CrawlSource source, String trigger, int priority, boolean resume) {
+            this.runId = runId;
+            this.source = source;
+            this.trigger = trigger;
+            this.priority = priority;
+            this.resume = resume;
+        }
+    }
+
+    /** submitAll 묶음 (runId = crawl_run source='ALL' 행) */
+    private record Batch(String runId, Instant started, List<Job> jobs) {}
+
+    private static final Comparator<Job> ORDER = Comparator.comparingInt(Job::getPriority).reversed()
+            .thenComparing(Job::getSubmittedAt);
+    /** 끝난 작업은 최근 이만큼만 보관 (조회용) */
+    private static final int KEEP_FINISHED = 200;
+
+    private final CrawlOrchestrator orchestrator;
+    private final CrawlRunRecorder recorder;
+    private final CrawlCheckpointStore checkpoints;
+    private final CrawlLock lock;
+    private final CrawlScheduleProperties props;
+
+    private final List<Job> queued = new ArrayList<>();
+    private final Map<CrawlSource, Job> running = new EnumMap<>(CrawlSource.class);
+    private final Set<CrawlSource> claiming = EnumSet.noneOf(CrawlSource.class); // CrawlLock 시도 중
+    private final Deque<Job> finished = new ArrayDeque<>();
+    private final List<Batch> batches = new ArrayList<>();
+    private final ExecutorService runner = Executors.newVirtualThreadPerTaskExecutor();
+
+    public CrawlJobService(CrawlOrchestrator orchestrator, CrawlRunRecorder recorder,
+                           CrawlCheckpointStore checkpoints, CrawlLock lock, CrawlScheduleProperties props) {
+        this.orchestrator = orchestrator;
+        this.recorder = recorder;
+        this.checkpoints = checkpoints;
+        this.lock = lock;
+        this.props = props;
+    }
+
+    /** 플랫폼 1회 실행 접수 */
+    public Job submit(CrawlSource source, String trigger) {
+        Job job;
+        synchronized (this) {
+            Optional<Job> waiting = queued.stream()
+                    .filter(j -> j.source == source && !j.resume).findFirst();
+            if (waiting.isPresent()) {
+                log.info("[CRAWL-JOB] {} 이미 대기 중 runId={} ({} 요청 합침)", source, waiting.get().runId, trigger);
+                return waiting.get();
+            }
+            job = new Job(UUID.randomUUID().toString(), source, trigger, props.priorityOf(source), false);
+            queued.add(job);
+        }
+        log.info("[CRAWL-JOB] {} 접수 runId={} trigger={} priority={}", source, job.runId, trigger, job.priority);
+        dispatch();
+        return job;
     }
 
+    /** 전체 플랫폼 접수. 묶음이 모두 끝나면 crawl_run(source='ALL') 에 wall-clock 요약 기록 */
+    public List<Job> submitAll(String trigger) {
+        Instant started = Instant.now();
+        String batchRunId = recorder.recordStart("ALL", started);
+        List<Job> jobs = Arrays.stream(CrawlSource.values()).map(s -> submit(s, trigger)).toList();
+        synchronized (this) {
+            batches.add(new Batch(batchRunId, started, jobs));
+        }
+        log.info("[CRAWL-JOB] ALL 접수 runId={} jobs={}", batchRunId, jobs.size());
+        closeBatches(); // 그 사이 전부 끝났을 수도 있음
+        return jobs;
+    }
+
+    /** 체크포인트 재개 접수 (없음/이미 완료면 IllegalArgumentException / IllegalStateException) */
+    public Job submitResume(String runId) {
+        CrawlCheckpointStore.Checkpoint cp = checkpoints.load(runId)
+                .orElseThrow(() -> new IllegalArgumentException("checkpoint 없음 runId=" + runId));
+        if (cp.done()) throw new IllegalStateException("이미 끝까지 완료된 실행 runId=" + runId);
+        Job job;
+        synchronized (this) {
+            boolean dup = queued.stream().anyMatch(j -> j.runId.equals(runId))
+                    || running.values().stream().anyMatch(j -> j.runId.equals(runId));
+            if (dup) throw new IllegalStateException("이미 접수된 실행 runId=" + runId);
+            job = new Job(runId, cp.source(), "RESUME", props.priorityOf(cp.source()), true);
+            queued.add(job);
+        }
+        log.info("[CRAWL-JOB] {} 재개 접수 runId={}", cp.source(), runId);
+        dispatch();
+        return job;
+    }
+
+    /** 대기 → 실행 중 → 최근 끝난 순 */
+    public synchronized List<Job> jobs() {
+        List<Job> out = new ArrayList<>(queued);
+        out.sort(ORDER);
+        out.addAll(running.values());
+        out.addAll(finished);
+        return out;
+    }
+
+    public synchronized Optional<Job> job(String runId) {
+        return jobs().stream().filter(j -> j.runId.equals(runId)).findFirst();
+    }
 
-    public void runNowKcar() {
-        log.info("[CRAWL] manual KCAR run start");
-        kcar.runOnceFull();
-        log.info("[CRAWL] manual KCAR run end");
+    /** 대기 중인 작업 취소 (실행 중인 작업은 취소 불가) */
+    public boolean cancel(String runId) {
+        Job job;
+        synchronized (this) {
+            Optional<Job> j = queued.stream().filter(x -> x.runId.equals(runId)).findFirst();
+            if (j.isEmpty()) return false;
+            job = j.get();
+            queued.remove(job);
+            job.status = Status.SKIPPED;
+            job.error = "cancelled";
+            job.endedAt = Instant.now();
+            keep(job);
+        }
+        log.info("[CRAWL-JOB] {} 대기 취소 runId={}", job.source, runId);
+        closeBatches();
+        return true;
     }
 
-    public void runNowEncar() {
-        log.info("[CRAWL] manual runNowEncar run start");
-        encar.runOnce();
-        log.info("[CRAWL] manual runNowEncar run end");
+    /**
+     * 실행 가능한 대기 작업 시작 (접수/종료 시 + CrawlScheduler 주기 호출)
+     * - 후보 선택/상태 변경만 모니터 안에서, CrawlLock(GET_LOCK DB 왕복)은 모니터 밖에서
+     * - 락 시도 중인 플랫폼은 claiming 에 올려 동시 dispatch 가 같은 플랫폼을 또 고르지 않게 함 (실행 수에도 포함)
+     */
+    public void dispatch() {
+        Set<CrawlSource> tried = EnumSet.noneOf(CrawlSource.class); // 이번 호출에서 락 실패한 플랫폼
+        while (true) {
+            Job job;
+            synchronized (this) {
+                if (running.size() + claiming.size() >= Math.max(1, props.getMaxRunning())) return;
+                queued.sort(ORDER);
+                job = queued.stream()
+                        .filter(j -> !running.containsKey(j.source) && !claiming.contains(j.source) && !tried.contains(j.source))
+                        .findFirst().orElse(null);
+                if (job == null) return;
+                claiming.add(job.source);
+            }
+
+            Optional<CrawlLock.Handle> held = lock.tryAcquire(job.source);
+            boolean started = false;
+            synchronized (this) {
+                claiming.remove(job.source);
+                if (held.isPresent() && queued.remove(job)) { // 그 사이 취소됐으면 시작 안 함
+                    running.put(job.source, job);
+                    job.status = Status.RUNNING;
+                    job.startedAt = Instant.now();
+                    started = true;
+                }
+            }
+            if (started) {
+                runner.submit(() -> execute(job, held.get()));
+            } else if (held.isPresent()) {
+                held.get().close();
+            } else {
+                log.debug("[CRAWL-JOB] {} 다른 인스턴스에서 실행 중 → 대기 runId={}", job.source, job.runId);
+                tried.add(job.source);
+            }
+        }
     }
 
-    public void runNowCha() {
-        log.info("[CRAWL] manual chachacha run start");
-        chachacha.runOnce();
-        log.info("[CRAWL] manual chachacha run end");
+    private void execute(Job job, CrawlLock.Handle held) {
+        log.info("[CRAWL-JOB] {} 시작 runId={} trigger={}", job.source, job.runId, job.trigger);
+        try (held) {
+            CrawlOrchestrator.PlatformResult r;
+            if (job.resume) {
+                r = orchestrator.resume(job.runId);
+            } else {
+                recorder.presetRunId(job.runId);
+                try {
+                    r = orchestrator.runSingle(job.source);
+                } finally {
+                    recorder.presetRunId(null);
+                }
+            }
+            job.items = r.items();
+            job.error = r.error();
+            job.status = switch (r.outcome()) {
+                case SUCCESS -> Status.SUCCESS;
+                case FAIL -> Status.FAIL;
+                case SKIPPED -> Status.SKIPPED;
+            };
+        } catch (Exception e) {
+            log.error("[CRAWL-JOB] {} 실패 runId={}", job.source, job.runId, e);
+            job.status = Status.FAIL;
+            job.error = e.toString();
+        } finally {
+            job.endedAt = Instant.now();
+            synchronized (this) {
+                running.remove(job.source);
+                keep(job);
+            }
+            log.info("[CRAWL-JOB] {} 종료 runId={} status={} items={}", job.source, job.runId, job.status, job.items);
+            closeBatches();
+            dispatch();
+        }
     }
 
-    public void runNowChutcha() {
-        log.info("[CRAWL] manual runNowChutcha run start");
-        chutcha.runOnceFull();
-        log.info("[CRAWL] manual runNowChutcha run end");}
+    /** 모든 작업이 끝난 submitAll 묶음 요약 기록 (DB 호출은 모니터 밖에서) */
+    private void closeBatches() {
+        List<Batch> done = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<Batch> it = batches.iterator(); it.hasNext(); ) {
+                Batch b = it.next();
+                if (b.jobs.stream().allMatch(j -> j.endedAt != null)) {
+                    it.remove();
+                    done.add(b);
+                }
+            }
+        }
+        for (Batch b : done) {
+            try {
+                orchestrator.recordBatch(b.runId, b.started, b.jobs.stream().map(CrawlJobService::resultOf).toList());
+            } catch (RuntimeException e) {
+                log.warn("[CRAWL-JOB] ALL 요약 기록 실패 runId={}: {}", b.runId, e.toString());
+            }
+        }
+    }
 
-    public void runNowCharancha() {
-        log.info("[CRAWL] manual runNowChutcha run start");
-        charancha.runOnceFull();
-        log.info("[CRAWL] manual runNowChutcha run end");}
+    private static CrawlOrchestrator.PlatformResult resultOf(Job j) {
+        CrawlOrchestrator.Outcome outcome = switch (j.status) {
+            case SUCCESS -> CrawlOrchestrator.Outcome.SUCCESS;
+            case FAIL -> CrawlOrchestrator.Outcome.FAIL;
+            default -> CrawlOrchestrator.Outcome.SKIPPED;
+        };
+        Duration took = j.startedAt == null ? Duration.ZERO : Duration.between(j.startedAt, j.endedAt);
+        return new CrawlOrchestrator.PlatformResult(j.source, outcome, j.items, took, j.error);
+    }
 
-    public void runNowTcar() {
-        log.info("[CRAWL] manual runNowChutcha run start");
-        tcar.runOnceFull();
-        log.info("[CRAWL] manual runNowChutcha run end");}
+    private void keep(Job job) {
+        finished.addFirst(job);
+        while (finished.size() > KEEP_FINISHED) finished.removeLast();
+    }
 
+    @PreDestroy
+    void shutdown() {
+        runner.shutdownNow();
+    }
 }
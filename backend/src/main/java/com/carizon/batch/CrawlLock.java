@@ -0,0 +1,71 @@
+package com.carizon.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * 플랫폼별 분산 락 (MySQL GET_LOCK)
+ * - 같은 DB 를 보는 인스턴스가 여러 개여도 플랫폼 하나는 한 곳에서만 크롤
+ * - GET_LOCK 은 커넥션 단위 → 실행 동안 풀 커넥션 하나를 잡고 있다가 close() 에서 RELEASE_LOCK 후 반납
+ *   (커넥션이 끊기면 서버가 락을 자동 해제하므로 프로세스가 죽어도 락이 남지 않음)
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CrawlLock {
+
+    private static final String PREFIX = "carizon.crawl.";
+
+    private final DataSource dataSource;
+
+    public final class Handle implements AutoCloseable {
+        private final Connection con;
+        private final String name;
+
+        private Handle(Connection con, String name) {
+            this.con = con;
+            this.name = name;
+        }
+
+        @Override
+        public void close() {
+            try (con; PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                ps.setString(1, name);
+                ps.execute();
+            } catch (SQLException e) {
+                log.warn("[CRAWL-LOCK] {} 해제 실패 (커넥션 종료로 해제됨): {}", name, e.toString());
+            }
+        }
+    }
+
+    /** 바로 못 잡으면 empty (대기하지 않음) */
+    public Optional<Handle> tryAcquire(CrawlSource source) {
+        String name = PREFIX + source.name();
+        Connection con = null;
+        try {
+            con = dataSource.getConnection();
+            try (PreparedStatement ps = con.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+                ps.setString(1, name);
+                try (ResultSet rs = ps.executeQuery()) {
+                    if (rs.next() && rs.getInt(1) == 1) return Optional.of(new Handle(con, name));
+                }
+            }
+            con.close();
+            return Optional.empty();
+        } catch (SQLException e) {
+            log.warn("[CRAWL-LOCK] {} 획득 실패: {}", name, e.toString());
+            if (con != null) {
+                try { con.close(); } catch (SQLException ignore) { }
+            }
+            return Optional.empty();
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.carizon.batch;
+
+import com.carizon.crawler.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.IntSupplier;
+
+/**
+ * 플랫폼별 크롤러 동시 실행기
+ * - 플랫폼 하나 = 가상 스레드 하나 (대부분 네트워크 대기라 플랫폼 스레드 점유 X)
+ * - 전체 동시 실행 수(maxParallel) + 플랫폼별 동시 실행 수(perPlatformLimit) 제한
+ * - 한 플랫폼 예외는 해당 플랫폼만 FAIL 처리하고 나머지는 계속 진행
+ *   (크롤러는 자체 recordFail 후 CrawlFailedException 을 던짐 → 정상 반환 = SUCCESS)
+ * - 전체 실행(CrawlJobService.submitAll)의 wall-clock / 플랫폼별 소요시간은 recordBatch 가 crawl_run(source='ALL') 에 요약 기록,
+ *   플랫폼별은 crawl.run.time 메트릭에도 기록
+ * - resume(runId) : crawl_checkpoint 의 마지막 저장 페이지부터 같은 run_id 로 재개
+ */
+@Slf4j
+@Component
+public class CrawlOrchestrator {
+
+    private final ChachachaCrawler chachacha;
+    private final EncarCrawler encar;
+    private final KcarCrawler kcar;
+    private final ChutchaCrawler chutcha;
+    private final CharanchaCrawler charancha;
+    private final TcarCrawler tcar;
+    private final CrawlRunRecorder recorder;
+    private final CrawlCheckpointStore checkpoints;
+    private final CrawlMetrics metrics;
+
+    private final Semaphore parallel;
+    private final Map<CrawlSource, Semaphore> perPlatform = new EnumMap<>(CrawlSource.class);
+
+    public CrawlOrchestrator(ChachachaCrawler chachacha, EncarCrawler encar, KcarCrawler kcar,
+                             ChutchaCrawler chutcha, CharanchaCrawler charancha, TcarCrawler tcar,
+                             CrawlRunRecorder recorder, CrawlCheckpointStore checkpoints, CrawlMetrics metrics,
+                             @Value("${crawl.orchestrator.max-parallel:6}") int maxParallel,
+                             @Value("${crawl.orchestrator.per-platform-limit:1}") int perPlatformLimit) {
+        this.chachacha = chachacha;
+        this.encar = encar;
+        this.kcar = kcar;
+        this.chutcha = chutcha;
+        this.charancha = charancha;
+        this.tcar = tcar;
+        this.recorder = recorder;
+        this.checkpoints = checkpoints;
+        this.metrics = metrics;
+        this.parallel = new Semaphore(Math.max(1, maxParallel), true);
+        for (CrawlSource s : CrawlSource.values()) {
+            perPlatform.put(s, new Semaphore(Math.max(1, perPlatformLimit)));
+        }
+    }
+
+    public enum Outcome { SUCCESS, FAIL, SKIPPED }
+
+    public record PlatformResult(CrawlSource source, Outcome outcome, int items, Duration elapsed, String error) {}
+
+    public record RunSummary(String runId, Duration elapsed, List<PlatformResult> platforms) {
+        public int totalItems() { return platforms.stream().mapToInt(PlatformResult::items).sum(); }
+        public boolean allOk() { return platforms.stream().allMatch(p -> p.outcome() == Outcome.SUCCESS); }
+    }
+
+    /**
+     * 여러 플랫폼 묶음(CrawlJobService.submitAll) 요약을 crawl_run(source='ALL') 에 기록
+     * - runId 는 묶음 접수 시 recordStart("ALL") 로 받은 값, 플랫폼이 모두 끝난 뒤 호출
+     */
+    public RunSummary recordBatch(String runId, Instant started, List<PlatformResult> results) {
+        RunSummary summary = new RunSummary(runId, Duration.between(started, Instant.now()), results);
+        recorder.recordSummary(runId, summary.totalItems(), Instant.now(), summary.allOk(), describe(summary));
+        log.info("[ORCH] ALL end runId={} wall={}s items={} ok={}", runId, summary.elapsed().toSeconds(),
+                summary.totalItems(), summary.allOk());
+        return summary;
+    }
+
+    /** 단일 플랫폼 실행 (수동 실행용) — 플랫폼별 동시 실행 제한은 동일하게 적용 */
+    public PlatformResult runSingle(CrawlSource source) {
+        return runGuarded(source, () -> crawl(source));
+    }
+
+    /** 중단된 실행 재개 (체크포인트 없음/이미 완료면 IllegalArgumentException / IllegalStateException) */
+    public PlatformResult resume(String runId) {
+        CrawlCheckpointStore.Checkpoint cp = checkpoints.load(runId)
+                .orElseThrow(() -> new IllegalArgumentException("checkpoint 없음 runId=" + runId));
+        if (cp.done()) throw new IllegalStateException("이미 끝까지 완료된 실행 runId=" + runId);
+        log.info("[ORCH] {} resume runId={} items={} state={}", cp.source(), runId, cp.items(), cp.state());
+        return runGuarded(cp.source(), () -> resumeCrawl(cp));
+    }
+
+    private PlatformResult runGuarded(CrawlSource source, IntSupplier work) {
+        PlatformResult r = runLimited(source, work);
+        if (r.outcome() != Outcome.SKIPPED) metrics.run(source, r.outcome().name(), r.elapsed());
+        return r;
+    }
+
+    private PlatformResult runLimited(CrawlSource source, IntSupplier work) {
+        Semaphore slot = perPlatform.get(source);
+        if (!slot.tryAcquire()) {
+            log.warn("[ORCH] {} 이미 실행 중 → skip", source);
+            return new PlatformResult(source, Outcome.SKIPPED, 0, Duration.ZERO, "already running");
+        }
+        Instant t0 = Instant.now();
+        try {
+            parallel.acquire();
+            try {
+                log.info("[ORCH] {} start", source);
+                int items = work.getAsInt();
+                Duration took = Duration.between(t0, Instant.now());
+                log.info("[ORCH] {} done items={} elapsed={}s", source, items, took.toSeconds());
+                return new PlatformResult(source, Outcome.SUCCESS, items, took, null);
+            } finally {
+                parallel.release();
+            }
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            return new PlatformResult(source, Outcome.FAIL, 0, Duration.between(t0, Instant.now()), "interrupted");
+        } catch (CrawlFailedException e) {
+            // 크롤러가 crawl_run 에 실패 기록 후 던진 것 → 적재 건수는 살림
+            log.error("[ORCH] {} 실패 runId={} items={}: {}", source, e.getRunId(), e.getItems(), e.getCause().toString());
+            return new PlatformResult(source, Outcome.FAIL, e.getItems(), Duration.between(t0, Instant.now()),
+                    e.getCause().toString());
+        } catch (Exception e) {
+            log.error("[ORCH] {} 실패", source, e);
+            return new PlatformResult(source, Outcome.FAIL, 0, Duration.between(t0, Instant.now()), e.toString());
+        } finally {
+            slot.release();
+        }
+    }
+
+    private int crawl(CrawlSource source) {
+        return switch (source) {
+            case CHACHACHA -> chachacha.runOnce();
+            case ENCAR     -> encar.runOnce();
+            case KCAR      -> kcar.runOnceFull();
+            case CHUTCHA   -> chutcha.runOnceFull();
+            case CHARANCHA -> charancha.runOnceFull();
+            case TCAR      -> tcar.runOnceFull();
+        };
+    }
+
+    private int resumeCrawl(CrawlCheckpointStore.Checkpoint cp) {
+        return switch (cp.source()) {
+            case CHACHACHA -> chachacha.resume(cp);
+            case ENCAR     -> encar.resume(cp);
+            case KCAR      -> kcar.resume(cp);
+            case CHUTCHA   -> chutcha.resume(cp);
+            case CHARANCHA -> charancha.resume(cp);
+            case TCAR      -> tcar.resume(cp);
+        };
+    }
+
+    /** crawl_run.message 용 요약: "wall=123s | ENCAR SUCCESS 100s 4567 | KCAR FAIL 3s 0 ..." */
+    private static String describe(RunSummary s) {
+        StringBuilder sb = new StringBuilder("wall=").append(s.elapsed().toSeconds()).append('s');
+        for (PlatformResult p : s.platforms()) {
+            sb.append(" | ").append(p.source()).append(' ').append(p.outcome())
+              .append(' ').append(p.elapsed().toSeconds()).append("s ").append(p.items());
+        }
+        return sb.toString();
+    }
+}
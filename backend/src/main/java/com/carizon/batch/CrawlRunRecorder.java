@@ -1,5 +1,6 @@
 package com.carizon.batch;
 
+import com.carizon.common.SchemaCheck;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.jdbc.core.JdbcTemplate;
@@ -15,9 +16,21 @@ import java.util.UUID;
 public class CrawlRunRecorder {
 
     private final JdbcTemplate jdbc;
+    private final SchemaCheck schema;
+
+    /** 다음 recordStart 가 쓸 run_id (CrawlJobService 가 접수 때 돌려준 id 를 crawl_run 에 그대로 쓰기 위함) */
+    private static final ThreadLocal<String> PRESET_RUN_ID = new ThreadLocal<>();
+
+    /** 현재 스레드의 다음 recordStart 에만 적용. null 이면 해제 */
+    public void presetRunId(String runId) {
+        if (runId == null) PRESET_RUN_ID.remove();
+        else PRESET_RUN_ID.set(runId);
+    }
 
     public String recordStart(String source, Instant startedAt) {
-        String runId = UUID.randomUUID().toString();
+        String runId = PRESET_RUN_ID.get();
+        PRESET_RUN_ID.remove();
+        if (runId == null) runId = UUID.randomUUID().toString();
         jdbc.update(
                 "INSERT INTO crawl_run(run_id, source, started_at, status, total_items) VALUES (?,?,?,?,?)",
                 runId, source, Timestamp.from(startedAt), "STARTED", 0
@@ -26,6 +39,16 @@ public class CrawlRunRecorder {
         return runId;
     }
 
+    /** 체크포인트 재개: 같은 run_id 를 다시 STARTED 로 (started_at 은 최초 시작 시각 유지) */
+    public String recordResume(String runId) {
+        jdbc.update(
+                "UPDATE crawl_run SET ended_at=NULL, status='STARTED', message='resumed' WHERE run_id=?",
+                runId
+        );
+        log.info("[CRAWL-RUN] resume runId={}", runId);
+        return runId;
+    }
+
     public void recordEnd(String runId, int totalItems, Instant endedAt) {
         jdbc.update(
                 "UPDATE crawl_run SET ended_at=?, total_items=?, status='SUCCESS' WHERE run_id=?",
@@ -34,13 +57,38 @@ public class CrawlRunRecorder {
         log.info("[CRAWL-RUN] end   runId={} totalItems={} ended={}", runId, totalItems, endedAt);
     }
 
+    /** 여러 플랫폼을 묶은 실행(ALL) 종료 기록: 전체 wall-clock + 플랫폼별 소요시간 요약을 message 에 남김 */
+    public void recordSummary(String runId, int totalItems, Instant endedAt, boolean allOk, String summary) {
+        String safe = cut(summary);
+        jdbc.update(
+                "UPDATE crawl_run SET ended_at=?, total_items=?, status=?, message=? WHERE run_id=?",
+                Timestamp.from(endedAt), totalItems, allOk ? "SUCCESS" : "PARTIAL", safe, runId
+        );
+        log.info("[CRAWL-RUN] end   runId={} totalItems={} ended={} summary={}", runId, totalItems, endedAt, safe);
+    }
+
     public void recordFail(String runId, int totalSoFar, Instant endedAt, String msg) {
-        String safe = msg;
-        if (safe != null && safe.length() > 480) safe = safe.substring(0, 480);
+        String safe = cut(msg);
         jdbc.update(
                 "UPDATE crawl_run SET ended_at=?, total_items=?, status='FAIL', message=? WHERE run_id=?",
                 Timestamp.from(endedAt), totalSoFar, safe, runId
         );
         log.warn("[CRAWL-RUN] fail  runId={} totalSoFar={} msg={}", runId, totalSoFar, safe);
     }
+
+    /** raw 적재 결과: 신규 / 변경 / 동일(no-op) 건수 — 재개된 실행은 이어서 누적 */
+    public void recordRowStats(String runId, int rowsNew, int rowsChanged, int rowsUnchanged) {
+        schema.requireColumns("crawl_run", "rows_new", "rows_changed", "rows_unchanged"); // db/migration V1
+        jdbc.update(
+                "UPDATE crawl_run SET rows_new=COALESCE(rows_new,0)+?, rows_changed=COALESCE(rows_changed,0)+?, " +
+                        "rows_unchanged=COALESCE(rows_unchanged,0)+? WHERE run_id=?",
+                rowsNew, rowsChanged, rowsUnchanged, runId
+        );
+        log.info("[CRAWL-RUN] rows  runId={} new={} changed={} unchanged={}", runId, rowsNew, rowsChanged, rowsUnchanged);
+    }
+
+    private static String cut(String s) {
+        if (s != null && s.length() > 480) return s.substring(0, 480);
+        return s;
+    }
 }
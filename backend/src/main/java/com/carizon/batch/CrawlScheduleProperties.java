@@ -0,0 +1,42 @@
+package com.carizon.batch;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 크롤 스케줄 설정 (crawl.schedule.*)
+ * - platforms.{SOURCE}.cron : Spring cron (초 분 시 일 월 요일), 비우면 자동 실행 안 함 (수동 실행만)
+ * - priority               : 대기열에서 큰 값이 먼저 실행 (동시 실행 수 maxRunning 이 찼을 때만 의미 있음)
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "crawl.schedule")
+public class CrawlScheduleProperties {
+
+    /** 기본 off — application.yaml 의 scheduler 프로필에서 켬 */
+    private boolean enabled = false;
+    private String zone = "Asia/Seoul";
+
+    /** 이 인스턴스에서 동시에 돌리는 플랫폼 수 */
+    private int maxRunning = 3;
+
+    /** 다른 인스턴스가 락을 잡고 있어 대기 중인 작업을 다시 시도하는 간격 */
+    private long dispatchIntervalMs = 30_000;
+
+    private Map<CrawlSource, Platform> platforms = new EnumMap<>(CrawlSource.class);
+
+    @Getter @Setter
+    public static class Platform {
+        private boolean enabled = true;
+        private String cron;
+        private int priority;
+    }
+
+    public int priorityOf(CrawlSource source) {
+        Platform p = platforms.get(source);
+        return p == null ? 0 : p.getPriority();
+    }
+}
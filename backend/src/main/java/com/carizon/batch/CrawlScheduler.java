@@ -0,0 +1,53 @@
+package com.carizon.batch;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronTrigger;
+import org.springframework.stereotype.Component;
+
+import java.time.ZoneId;
+
+/**
+ * 플랫폼별 cron 스케줄 (crawl.schedule.platforms.*)
+ * - 시각이 되면 CrawlJobService 대기열에 넣기만 함 → 겹치면 합쳐지거나 앞 실행이 끝난 뒤 실행
+ * - 기존 runDaily(매일 03:15 전체 실행) 대체
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@EnableConfigurationProperties(CrawlScheduleProperties.class)
+public class CrawlScheduler {
+
+    private final CrawlScheduleProperties props;
+    private final CrawlJobService jobs;
+    private final TaskScheduler scheduler;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void register() {
+        if (!props.isEnabled()) {
+            log.info("[SCHED] crawl.schedule.enabled=false → 자동 실행 없음");
+            return;
+        }
+        ZoneId zone = ZoneId.of(props.getZone());
+        props.getPlatforms().forEach((source, p) -> {
+            if (!p.isEnabled() || p.getCron() == null || p.getCron().isBlank()) {
+                log.info("[SCHED] {} 스케줄 없음", source);
+                return;
+            }
+            scheduler.schedule(() -> jobs.submit(source, "SCHEDULE"), new CronTrigger(p.getCron(), zone));
+            log.info("[SCHED] {} cron='{}' zone={} priority={}", source, p.getCron(), zone, p.getPriority());
+        });
+    }
+
+    /** 다른 인스턴스 락 때문에 밀린 작업 재시도 */
+    @Scheduled(fixedDelayString = "${crawl.schedule.dispatch-interval-ms:30000}",
+               initialDelayString = "${crawl.schedule.dispatch-interval-ms:30000}")
+    public void dispatch() {
+        jobs.dispatch();
+    }
+}
@@ -0,0 +1,36 @@
+package com.carizon.batch;
+
+import java.util.List;
+
+/**
+ * 크롤링 대상 플랫폼.
+ * - name() 은 crawl_run.source 값과 동일하게 유지
+ * - rawTable / keyColumn : 원본 적재 테이블과 플랫폼 고유키 컬럼 (payload 에서 파생된 컬럼)
+ * - payloadKey           : 같은 키를 payload JSON 최상위에서 읽을 때의 필드명
+ * - extraColumns         : payload 외에 크롤러가 직접 채우는 컬럼 (INSERT 순서대로)
+ */
+public enum CrawlSource {
+    CHACHACHA("raw_chachacha", "car_seq",    "carSeq"),
+    ENCAR    ("raw_encar",     "vehicle_id", "vehicleId"),
+    KCAR     ("raw_kcar",      "car_cd",     "carCd"),
+    CHUTCHA  ("raw_chutcha",   "car_id",     "car_id", "share_hash"),
+    CHARANCHA("raw_charancha", "sell_no",    "sellNo"),
+    TCAR     ("raw_tcar",      "car_id",     "carId");
+
+    private final String rawTable;
+    private final String keyColumn;
+    private final String payloadKey;
+    private final List<String> extraColumns;
+
+    CrawlSource(String rawTable, String keyColumn, String payloadKey, String... extraColumns) {
+        this.rawTable = rawTable;
+        this.keyColumn = keyColumn;
+        this.payloadKey = payloadKey;
+        this.extraColumns = List.of(extraColumns);
+    }
+
+    public String rawTable()           { return rawTable; }
+    public String keyColumn()          { return keyColumn; }
+    public String payloadKey()         { return payloadKey; }
+    public List<String> extraColumns() { return extraColumns; }
+}
@@ -0,0 +1,94 @@
+package com.carizon.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * URL 단위 온디스크 응답 캐시 (코드 동기화처럼 자주 안 바뀌는 GET 용)
+ *
+ * 경로 : {dir}/{xxHash64(url)}.json (메타) + .body (본문)
+ * 메타 : url, etag, lastModified, bodyHash(정규화 JSON 해시), subtreeVerifiedAt
+ * - etag/lastModified 는 다음 요청의 If-None-Match / If-Modified-Since 로 사용
+ * - 서버가 조건부 요청을 무시해도 bodyHash 비교로 "변경 없음" 판단
+ * - subtreeVerifiedAt : 이 응답 아래 하위 요청까지 전부 확인 끝난 시각 (호출 측이 기록)
+ */
+@Slf4j
+@Component
+public class HttpResponseCache {
+
+    public record Entry(String url, String etag, String lastModified, String bodyHash, long subtreeVerifiedAt) {
+        Entry withSubtreeVerifiedAt(long at) {
+            return new Entry(url, etag, lastModified, bodyHash, at);
+        }
+    }
+
+    private final Path dir;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public HttpResponseCache(@Value("${code-sync.cache.dir:./cache/code-sync}") String dir) {
+        this.dir = Paths.get(dir);
+    }
+
+    /** 없거나 읽기 실패면 null */
+    public Entry entry(String url) {
+        Path meta = metaOf(url);
+        if (!Files.exists(meta)) return null;
+        try {
+            return mapper.readValue(meta.toFile(), Entry.class);
+        } catch (IOException e) {
+            log.warn("[HTTP-CACHE] 메타 읽기 실패 {}: {}", url, e.toString());
+            return null;
+        }
+    }
+
+    public String body(String url) {
+        try {
+            return Files.readString(bodyOf(url), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    public void put(Entry e, String body) {
+        try {
+            Files.createDirectories(dir);
+            writeAtomic(bodyOf(e.url()), body.getBytes(StandardCharsets.UTF_8));
+            writeAtomic(metaOf(e.url()), mapper.writeValueAsBytes(e));
+        } catch (IOException ex) {
+            log.warn("[HTTP-CACHE] 저장 실패 {}: {}", e.url(), ex.toString());
+        }
+    }
+
+    /** 하위 요청까지 모두 처리한 뒤 호출 */
+    public void markSubtreeVerified(String url, long at) {
+        Entry e = entry(url);
+        if (e == null) return;
+        try {
+            writeAtomic(metaOf(url), mapper.writeValueAsBytes(e.withSubtreeVerifiedAt(at)));
+        } catch (IOException ex) {
+            log.warn("[HTTP-CACHE] 메타 갱신 실패 {}: {}", url, ex.toString());
+        }
+    }
+
+    private Path metaOf(String url) { return dir.resolve(keyOf(url) + ".json"); }
+    private Path bodyOf(String url) { return dir.resolve(keyOf(url) + ".body"); }
+
+    private static String keyOf(String url) {
+        return PayloadHasher.hash(url.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void writeAtomic(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        Files.write(tmp, bytes);
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+}
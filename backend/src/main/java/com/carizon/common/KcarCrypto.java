@@ -3,19 +3,58 @@ package com.carizon.common;
 import javax.crypto.Cipher;
 import javax.crypto.spec.IvParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.Base64;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * KCAR 검색 파라미터 암호화 (AES-128/CBC, 고정 key/iv)
+ * - 키/IV 스펙은 한 번만 만들고, Cipher 는 풀에서 꺼내 재사용 (init 은 생성 시 1회)
+ *   doFinal 후 Cipher 는 마지막 init 상태(같은 key/iv)로 돌아가므로 그대로 다시 쓸 수 있음
+ * - ThreadLocal 대신 풀: 페이지 병렬 수집이 가상 스레드라 스레드마다 Cipher 를 만들면 재사용이 안 됨
+ * - 출력 버퍼도 Cipher 와 같이 묶어 재사용 (부족할 때만 키움)
+ */
 public class KcarCrypto {
     private static final String KEY = "SKFJ2424DasfaJRI";   // 16바이트 (AES-128)
     private static final String IV  = "sfq241sf3dscs321";   // 16바이트
 
+    private static final SecretKeySpec KEY_SPEC = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
+    private static final IvParameterSpec IV_SPEC = new IvParameterSpec(IV.getBytes(StandardCharsets.UTF_8));
+
+    /** 동시에 쓰는 스레드 수 이상은 쌓아두지 않음 */
+    private static final int MAX_POOLED = 16;
+    private static final ConcurrentLinkedQueue<Encryptor> POOL = new ConcurrentLinkedQueue<>();
+
     public static String encrypt(String plainJson) throws Exception {
-        SecretKeySpec keySpec = new SecretKeySpec(KEY.getBytes(StandardCharsets.UTF_8), "AES");
-        IvParameterSpec ivSpec = new IvParameterSpec(IV.getBytes(StandardCharsets.UTF_8));
-        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding"); // PKCS7 ≒ PKCS5Padding
-        cipher.init(Cipher.ENCRYPT_MODE, keySpec, ivSpec);
-        byte[] enc = cipher.doFinal(plainJson.getBytes(StandardCharsets.UTF_8));
-        return Base64.getEncoder().encodeToString(enc);
+        Encryptor e = POOL.poll();
+        if (e == null) e = new Encryptor();
+        try {
+            return e.encrypt(plainJson.getBytes(StandardCharsets.UTF_8));
+        } catch (Exception ex) {
+            e = null;   // 상태를 알 수 없는 Cipher 는 버림
+            throw ex;
+        } finally {
+            if (e != null && POOL.size() < MAX_POOLED) POOL.offer(e);
+        }
+    }
+
+    /** 풀 단위: init 끝난 Cipher + 출력 버퍼 (한 번에 한 스레드만 사용) */
+    private static final class Encryptor {
+        private final Cipher cipher;
+        private byte[] out = new byte[1024];
+
+        Encryptor() throws Exception {
+            cipher = Cipher.getInstance("AES/CBC/PKCS5Padding"); // PKCS7 ≒ PKCS5Padding
+            cipher.init(Cipher.ENCRYPT_MODE, KEY_SPEC, IV_SPEC);
+        }
+
+        String encrypt(byte[] plain) throws Exception {
+            int need = cipher.getOutputSize(plain.length);
+            if (out.length < need) out = new byte[Math.max(need, out.length * 2)];
+            int n = cipher.doFinal(plain, 0, plain.length, out, 0);
+            ByteBuffer b64 = Base64.getEncoder().encode(ByteBuffer.wrap(out, 0, n));
+            return new String(b64.array(), 0, b64.limit(), StandardCharsets.ISO_8859_1);
+        }
     }
 }
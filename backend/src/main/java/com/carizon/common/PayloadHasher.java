@@ -0,0 +1,160 @@
+package com.carizon.common;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * raw payload 내용 해시
+ * - 키 정렬한 정규화 JSON 바이트에 xxHash64 → hex 16자리 (raw_*.payload_hash)
+ * - 같은 매물이면 응답 필드 순서가 바뀌어도 같은 값
+ */
+public final class PayloadHasher {
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private PayloadHasher() {}
+
+    public static String hash(JsonNode payload) {
+        return hash(canonical(payload));
+    }
+
+    /** 정규화 불가(비JSON) 본문용 — 바이트 그대로 해시 */
+    public static String hash(byte[] bytes) {
+        return String.format("%016x", xxHash64(bytes, 0L));
+    }
+
+    /** 객체 키를 사전순으로 정렬해 공백 없이 직렬화 */
+    public static byte[] canonical(JsonNode node) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(512);
+        try (JsonGenerator g = JSON.createGenerator(out)) {
+            write(g, node);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toByteArray();
+    }
+
+    private static void write(JsonGenerator g, JsonNode n) throws IOException {
+        if (n.isObject()) {
+            List<String> names = new ArrayList<>(n.size());
+            n.fieldNames().forEachRemaining(names::add);
+            Collections.sort(names);
+            g.writeStartObject();
+            for (String name : names) {
+                g.writeFieldName(name);
+                write(g, n.get(name));
+            }
+            g.writeEndObject();
+        } else if (n.isArray()) {
+            g.writeStartArray();
+            for (JsonNode c : n) write(g, c);
+            g.writeEndArray();
+        } else if (n.isTextual()) {
+            g.writeString(n.textValue());
+        } else if (n.isNumber()) {
+            g.writeNumber(n.asText());   // 원본 표기 유지 (1.0 / 1 구분)
+        } else if (n.isBoolean()) {
+            g.writeBoolean(n.booleanValue());
+        } else {
+            g.writeNull();
+        }
+    }
+
+    /* ======================= xxHash64 ======================= */
+
+    private static final long P1 = 0x9E3779B185EBCA87L;
+    private static final long P2 = 0xC2B2AE3D27D4EB4FL;
+    private static final long P3 = 0x165667B19E3779F9L;
+    private static final long P4 = 0x85EBCA77C2B2AE63L;
+    private static final long P5 = 0x27D4EB2F165667C5L;
+
+    public static long xxHash64(byte[] b, long seed) {
+        int len = b.length;
+        int i = 0;
+        long h;
+
+        if (len >= 32) {
+            long v1 = seed + P1 + P2;
+            long v2 = seed + P2;
+            long v3 = seed;
+            long v4 = seed - P1;
+            int limit = len - 32;
+            do {
+                v1 = round(v1, getLong(b, i));      i += 8;
+                v2 = round(v2, getLong(b, i));      i += 8;
+                v3 = round(v3, getLong(b, i));      i += 8;
+                v4 = round(v4, getLong(b, i));      i += 8;
+            } while (i <= limit);
+
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) + Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = mergeRound(h, v1);
+            h = mergeRound(h, v2);
+            h = mergeRound(h, v3);
+            h = mergeRound(h, v4);
+        } else {
+            h = seed + P5;
+        }
+
+        h += len;
+
+        while (i + 8 <= len) {
+            h ^= round(0, getLong(b, i));
+            h = Long.rotateLeft(h, 27) * P1 + P4;
+            i += 8;
+        }
+        if (i + 4 <= len) {
+            h ^= (getInt(b, i) & 0xFFFFFFFFL) * P1;
+            h = Long.rotateLeft(h, 23) * P2 + P3;
+            i += 4;
+        }
+        while (i < len) {
+            h ^= (b[i] & 0xFFL) * P5;
+            h = Long.rotateLeft(h, 11) * P1;
+            i++;
+        }
+
+        h ^= h >>> 33;
+        h *= P2;
+        h ^= h >>> 29;
+        h *= P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    private static long round(long acc, long input) {
+        acc += input * P2;
+        acc = Long.rotateLeft(acc, 31);
+        return acc * P1;
+    }
+
+    private static long mergeRound(long acc, long val) {
+        acc ^= round(0, val);
+        return acc * P1 + P4;
+    }
+
+    private static long getLong(byte[] b, int i) {
+        return (b[i] & 0xFFL)
+                | (b[i + 1] & 0xFFL) << 8
+                | (b[i + 2] & 0xFFL) << 16
+                | (b[i + 3] & 0xFFL) << 24
+                | (b[i + 4] & 0xFFL) << 32
+                | (b[i + 5] & 0xFFL) << 40
+                | (b[i + 6] & 0xFFL) << 48
+                | (b[i + 7] & 0xFFL) << 56;
+    }
+
+    private static int getInt(byte[] b, int i) {
+        return (b[i] & 0xFF)
+                | (b[i + 1] & 0xFF) << 8
+                | (b[i + 2] & 0xFF) << 16
+                | (b[i + 3] & 0xFF) << 24;
+    }
+}
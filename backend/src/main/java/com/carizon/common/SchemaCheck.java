@@ -0,0 +1,62 @@
+package com.carizon.common;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 코드가 기대하는 스키마가 있는지만 확인 (변경은 하지 않음)
+ * - 테이블/컬럼/인덱스 추가는 src/main/resources/db/migration (Flyway, 기동 시 적용)
+ * - 없으면 IllegalStateException → 마이그레이션이 안 돌았거나(spring.flyway.enabled=false 등) 실패한 것
+ * - 확인된 항목은 기억해 두고 다시 조회하지 않음 (실행 중 스키마를 되돌리는 경우는 고려 안 함)
+ */
+@Component
+@RequiredArgsConstructor
+public class SchemaCheck {
+
+    private final JdbcTemplate jdbc;
+    private final Set<String> verified = ConcurrentHashMap.newKeySet();
+
+    public void requireTable(String table) {
+        if (verified.contains(table)) return;
+        Integer n = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM information_schema.TABLES
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?
+        """, Integer.class, table);
+        if (n == null || n == 0) throw missing(table);
+        verified.add(table);
+    }
+
+    public void requireColumns(String table, String... columns) {
+        for (String col : columns) {
+            String name = table + "." + col;
+            if (verified.contains(name)) continue;
+            Integer n = jdbc.queryForObject("""
+                SELECT COUNT(*) FROM information_schema.COLUMNS
+                 WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+            """, Integer.class, table, col);
+            if (n == null || n == 0) throw missing(name);
+            verified.add(name);
+        }
+    }
+
+    /** column 이 첫 컬럼인 UNIQUE 인덱스 */
+    public void requireUniqueKey(String table, String column) {
+        String name = table + "(" + column + ") UNIQUE";
+        if (verified.contains(name)) return;
+        Integer n = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM information_schema.STATISTICS
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND COLUMN_NAME = ?
+               AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1
+        """, Integer.class, table, column);
+        if (n == null || n == 0) throw missing(name);
+        verified.add(name);
+    }
+
+    private static IllegalStateException missing(String what) {
+        return new IllegalStateException("[SCHEMA] " + what + " 없음 → db/migration (Flyway) 적용 여부 확인");
+    }
+}
@@ -0,0 +1,60 @@
+package com.carizon.config;
+
+import com.carizon.crawler.AdaptiveRateLimiter;
+import com.carizon.crawler.HostRateLimiters;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 모든 요청 앞에서 호스트별 토큰을 받고, 응답 코드/지연을 AIMD 제한기에 돌려줌 (application interceptor)
+ * - 크롤러별 고정 Thread.sleep 페이싱 대체
+ * - Retry-After(초) 헤더가 있으면 그만큼 해당 호스트 정지
+ */
+public class AdaptiveRateInterceptor implements Interceptor {
+
+    private final HostRateLimiters limiters;
+
+    public AdaptiveRateInterceptor(HostRateLimiters limiters) {
+        this.limiters = limiters;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        if (!limiters.enabled()) return chain.proceed(chain.request());
+
+        AdaptiveRateLimiter limiter = limiters.forHost(chain.request().url().host());
+        try {
+            limiter.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("rate limiter wait interrupted");
+        }
+
+        long t0 = System.nanoTime();
+        Response resp;
+        try {
+            resp = chain.proceed(chain.request());
+        } catch (IOException e) {
+            limiter.onError();
+            throw e;
+        }
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - t0);
+        limiter.onResponse(resp.code(), latencyMs, retryAfterMs(resp.header("Retry-After")));
+        return resp;
+    }
+
+    private static long retryAfterMs(String v) {
+        if (v == null) return 0;
+        try {
+            return Math.min(TimeUnit.SECONDS.toMillis(Long.parseLong(v.trim())), TimeUnit.MINUTES.toMillis(5));
+        } catch (NumberFormatException e) {
+            return 0; // HTTP-date 형식은 무시
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.carizon.config;
+
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.*;
+import okio.Buffer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+
+/**
+ * 녹화/재생 (application interceptor, BrotliInterceptor 바깥쪽 → 항상 해제된 본문 기준)
+ *
+ * RECORD : 실제 응답을 그대로 넘기면서 FixtureStore 에 저장 (2xx 만)
+ * REPLAY : 요청을 로컬 FixtureServer 로 돌림. 원래 URL 은 X-Fixture-Url 헤더로 전달
+ *          → 호스트별 동시성/AIMD 제한은 원래 호스트 기준 그대로 적용됨
+ */
+@Slf4j
+public class FixtureInterceptor implements Interceptor {
+
+    static final String URL_HEADER = "X-Fixture-Url";
+
+    private final HttpClientProperties.Fixtures.Mode mode;
+    private final FixtureStore store;
+    private final HttpUrl server;
+
+    /** server: REPLAY 일 때만 필요 */
+    public FixtureInterceptor(HttpClientProperties.Fixtures.Mode mode, FixtureStore store, HttpUrl server) {
+        this.mode = mode;
+        this.store = store;
+        this.server = server;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        Request req = chain.request();
+        return switch (mode) {
+            case OFF -> chain.proceed(req);
+            case RECORD -> record(chain, req);
+            case REPLAY -> chain.proceed(req.newBuilder()
+                    .url(server.newBuilder().encodedPath(req.url().encodedPath()).build())
+                    .header(URL_HEADER, req.url().toString())
+                    .build());
+        };
+    }
+
+    private Response record(Chain chain, Request req) throws IOException {
+        Response resp = chain.proceed(req);
+        if (!resp.isSuccessful() || resp.body() == null) return resp;
+
+        MediaType type = resp.body().contentType();
+        byte[] body = resp.body().bytes();   // 원 본문은 여기서 소비 → 같은 바이트로 다시 감싸서 반환
+        String key = store.key(req.method(), req.url(), bodyOf(req));
+        try {
+            store.save(req.url().host(), key, new FixtureStore.Fixture(
+                    req.method(), req.url().toString(), resp.code(), type == null ? null : type.toString(), body));
+        } catch (IOException e) {
+            log.warn("[FIXTURE] 저장 실패 {} {}: {}", req.method(), req.url(), e.toString());
+        }
+        return resp.newBuilder().body(ResponseBody.create(body, type)).build();
+    }
+
+    static byte[] bodyOf(Request req) throws IOException {
+        if (req.body() == null) return new byte[0];
+        Buffer buf = new Buffer();
+        req.body().writeTo(buf);
+        return buf.readByteArray();
+    }
+}
@@ -0,0 +1,110 @@
+package com.carizon.config;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 녹화한 응답을 내주는 로컬 mock 서버 (crawl.http.fixtures.mode=REPLAY 일 때만 기동, 127.0.0.1)
+ * - 지연: latency-ms + [0, jitter-ms) 랜덤
+ * - 장애 주입: error-rate 확률로 error-status 응답 (AIMD 감속/재시도 경로 확인용)
+ * - 녹화 없는 요청은 404 + 경고 로그 (크롤러 쪽에서는 실패 페이지로 처리됨)
+ */
+@Slf4j
+public class FixtureServer {
+
+    private final HttpClientProperties.Fixtures cfg;
+    private final FixtureStore store;
+    private final AtomicLong served = new AtomicLong();
+    private final AtomicLong missed = new AtomicLong();
+    private final AtomicLong injected = new AtomicLong();
+    private HttpServer server;
+
+    public FixtureServer(HttpClientProperties.Fixtures cfg, FixtureStore store) {
+        this.cfg = cfg;
+        this.store = store;
+    }
+
+    public void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), cfg.getPort()), 256);
+        server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+        server.createContext("/", this::handle);
+        server.start();
+        log.info("[FIXTURE] replay server {} dir={} latency={}+{}ms errorRate={}",
+                baseUrl(), cfg.getDir(), cfg.getLatencyMs(), cfg.getJitterMs(), cfg.getErrorRate());
+    }
+
+    public void stop() {
+        if (server == null) return;
+        server.stop(0);
+        log.info("[FIXTURE] replay server 종료 served={} missed={} injectedErrors={}", served.get(), missed.get(), injected.get());
+    }
+
+    public HttpUrl baseUrl() {
+        return new HttpUrl.Builder().scheme("http").host("127.0.0.1").port(server.getAddress().getPort()).build();
+    }
+
+    private void handle(HttpExchange ex) throws IOException {
+        try (ex) {
+            byte[] reqBody = ex.getRequestBody().readAllBytes();
+            String original = ex.getRequestHeaders().getFirst(FixtureInterceptor.URL_HEADER);
+            HttpUrl url = original == null ? null : HttpUrl.parse(original);
+            if (url == null) {
+                reply(ex, 400, "missing " + FixtureInterceptor.URL_HEADER);
+                return;
+            }
+
+            sleep();
+            ThreadLocalRandom rnd = ThreadLocalRandom.current();
+            if (cfg.getErrorRate() > 0 && rnd.nextDouble() < cfg.getErrorRate()) {
+                injected.incrementAndGet();
+                reply(ex, cfg.getErrorStatus(), "injected");
+                return;
+            }
+
+            String key = store.key(ex.getRequestMethod(), url, reqBody);
+            FixtureStore.Fixture f = store.load(url.host(), key);
+            if (f == null) {
+                missed.incrementAndGet();
+                log.warn("[FIXTURE] 녹화 없음 {} {} key={}", ex.getRequestMethod(), url, key);
+                reply(ex, 404, "no fixture");
+                return;
+            }
+            served.incrementAndGet();
+            ex.getResponseHeaders().set("Content-Type", f.contentType() == null ? "application/octet-stream" : f.contentType());
+            ex.sendResponseHeaders(f.status(), f.body().length == 0 ? -1 : f.body().length);
+            try (OutputStream out = ex.getResponseBody()) {
+                out.write(f.body());
+            }
+        }
+    }
+
+    private void sleep() {
+        long ms = cfg.getLatencyMs() + (cfg.getJitterMs() > 0 ? ThreadLocalRandom.current().nextLong(cfg.getJitterMs()) : 0);
+        if (ms <= 0) return;
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void reply(HttpExchange ex, int status, String msg) throws IOException {
+        byte[] b = msg.getBytes(StandardCharsets.UTF_8);
+        ex.getResponseHeaders().set("Content-Type", "text/plain");
+        ex.sendResponseHeaders(status, b.length);
+        try (OutputStream out = ex.getResponseBody()) {
+            out.write(b);
+        }
+    }
+}
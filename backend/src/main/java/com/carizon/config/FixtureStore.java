@@ -0,0 +1,111 @@
+package com.carizon.config;
+
+import com.carizon.common.PayloadHasher;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.HttpUrl;
+
+import java.io.IOException;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * 녹화한 HTTP 응답 (crawl.http.fixtures.dir)
+ *
+ * 경로 : {dir}/{host}/{key}.json (메타) + {key}.body (디코딩된 본문)
+ * key  : xxHash64("METHOD url\n" + 요청 본문) — url 에서 ignore-params(캐시 버스터 v= 등)는 제외
+ *        → Kcar 처럼 POST 본문만 다른 요청도 구분됨
+ *        요청 본문에서도 ignore-body-fields(Chutcha ts= 등 매번 바뀌는 값)는 제외
+ *        (JSON 객체면 최상위 필드, 그 외 a=1&b=2 폼이면 같은 이름의 파라미터)
+ */
+@Slf4j
+public class FixtureStore {
+
+    public record Fixture(String method, String url, int status, String contentType, byte[] body) {}
+
+    private final Path dir;
+    private final List<String> ignoreParams;
+    private final Set<String> ignoreBodyFields;
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    public FixtureStore(HttpClientProperties.Fixtures cfg) {
+        this.dir = Paths.get(cfg.getDir());
+        this.ignoreParams = cfg.getIgnoreParams();
+        this.ignoreBodyFields = Set.copyOf(cfg.getIgnoreBodyFields());
+    }
+
+    public String key(String method, HttpUrl url, byte[] body) {
+        HttpUrl.Builder b = url.newBuilder();
+        for (String p : ignoreParams) b.removeAllQueryParameters(p);
+        byte[] head = (method + " " + b.build() + "\n").getBytes(StandardCharsets.UTF_8);
+        body = normalizeBody(body);
+        byte[] all = new byte[head.length + body.length];
+        System.arraycopy(head, 0, all, 0, head.length);
+        System.arraycopy(body, 0, all, head.length, body.length);
+        return PayloadHasher.hash(all);
+    }
+
+    /** ignore-body-fields 제외. 해석 못 하는 본문은 그대로 */
+    byte[] normalizeBody(byte[] body) {
+        if (body.length == 0 || ignoreBodyFields.isEmpty()) return body;
+        String s = new String(body, StandardCharsets.UTF_8).strip();
+        if (s.startsWith("{")) {
+            try {
+                JsonNode root = mapper.readTree(s);
+                if (!(root instanceof ObjectNode obj)) return body;
+                obj.remove(ignoreBodyFields);
+                return mapper.writeValueAsBytes(obj);
+            } catch (IOException e) {
+                return body;
+            }
+        }
+        if (!s.contains("=")) return body;
+        String kept = Arrays.stream(s.split("&"))
+                .filter(kv -> !ignoreBodyFields.contains(URLDecoder.decode(kv.split("=", 2)[0], StandardCharsets.UTF_8)))
+                .collect(Collectors.joining("&"));
+        return kept.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** 같은 key 는 마지막 녹화가 덮어씀 (임시 파일 → rename) */
+    public void save(String host, String key, Fixture f) throws IOException {
+        Path d = dir.resolve(host);
+        Files.createDirectories(d);
+        writeAtomic(d.resolve(key + ".body"), f.body());
+        writeAtomic(d.resolve(key + ".json"), mapper.writeValueAsBytes(Map.of(
+                "method", f.method(), "url", f.url(), "status", f.status(),
+                "contentType", f.contentType() == null ? "" : f.contentType())));
+    }
+
+    /** 없으면 null */
+    public Fixture load(String host, String key) throws IOException {
+        Path meta = dir.resolve(host).resolve(key + ".json");
+        if (!Files.exists(meta)) return null;
+        Map<?, ?> m = mapper.readValue(meta.toFile(), Map.class);
+        byte[] body = Files.readAllBytes(dir.resolve(host).resolve(key + ".body"));
+        String ct = (String) m.get("contentType");
+        return new Fixture((String) m.get("method"), (String) m.get("url"),
+                ((Number) m.get("status")).intValue(), ct == null || ct.isEmpty() ? null : ct, body);
+    }
+
+    /** 같은 키를 동시에 녹화해도 임시 파일이 겹치지 않도록 호출마다 고유 임시 파일 → 원자적 교체 */
+    private static void writeAtomic(Path target, byte[] bytes) throws IOException {
+        Path tmp = Files.createTempFile(target.getParent(), target.getFileName().toString(), ".tmp");
+        try {
+            Files.write(tmp, bytes);
+            Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.carizon.config;
+
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 호스트별 동시 요청 수 제한 + 호스트별 타임아웃 (application interceptor)
+ * - 크롤러는 동기 execute() 를 쓰므로 Dispatcher.maxRequestsPerHost 가 안 먹음 → 세마포어로 직접 제한
+ * - 허가는 응답 본문을 닫을 때 반납 (스트리밍으로 읽는 동안에도 슬롯 점유)
+ */
+public class HostLimitInterceptor implements Interceptor {
+
+    private final HttpClientProperties props;
+    private final Map<String, Semaphore> slots = new ConcurrentHashMap<>();
+
+    public HostLimitInterceptor(HttpClientProperties props) {
+        this.props = props;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        HttpClientProperties.Host cfg = props.getHosts().get(host);
+
+        Chain c = chain;
+        if (cfg != null) {
+            if (cfg.getConnectTimeoutMs() > 0) c = c.withConnectTimeout((int) cfg.getConnectTimeoutMs(), TimeUnit.MILLISECONDS);
+            if (cfg.getReadTimeoutMs() > 0)    c = c.withReadTimeout((int) cfg.getReadTimeoutMs(), TimeUnit.MILLISECONDS);
+            if (cfg.getWriteTimeoutMs() > 0)   c = c.withWriteTimeout((int) cfg.getWriteTimeoutMs(), TimeUnit.MILLISECONDS);
+        }
+
+        Semaphore slot = slots.computeIfAbsent(host, h -> new Semaphore(maxConcurrent(cfg), true));
+        try {
+            slot.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("host slot wait interrupted: " + host);
+        }
+
+        AtomicBoolean released = new AtomicBoolean(false);
+        Runnable release = () -> { if (released.compareAndSet(false, true)) slot.release(); };
+        try {
+            Response resp = c.proceed(c.request());
+            ResponseBody body = resp.body();
+            if (body == null) {
+                release.run();
+                return resp;
+            }
+            return resp.newBuilder().body(new ReleasingBody(body, release)).build();
+        } catch (IOException | RuntimeException e) {
+            release.run();
+            throw e;
+        }
+    }
+
+    /** 현재 호스트별 사용 중 슬롯 (관리/모니터링용) */
+    public Map<String, Integer> inUse() {
+        Map<String, Integer> out = new java.util.TreeMap<>();
+        slots.forEach((h, s) -> out.put(h, maxConcurrent(props.getHosts().get(h)) - s.availablePermits()));
+        return out;
+    }
+
+    private int maxConcurrent(HttpClientProperties.Host cfg) {
+        int n = cfg != null && cfg.getMaxConcurrent() > 0 ? cfg.getMaxConcurrent() : props.getDefaultMaxConcurrent();
+        return Math.max(1, n);
+    }
+
+    /** close() 시(또는 끝까지 읽었을 때) 슬롯 반납 */
+    private static final class ReleasingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final Runnable release;
+        private final BufferedSource source;
+
+        ReleasingBody(ResponseBody delegate, Runnable release) {
+            this.delegate = delegate;
+            this.release = release;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                @Override
+                public long read(@NotNull okio.Buffer sink, long byteCount) throws IOException {
+                    long n = super.read(sink, byteCount);
+                    if (n == -1) release.run();
+                    return n;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    try {
+                        super.close();
+                    } finally {
+                        release.run();
+                    }
+                }
+            });
+        }
+
+        @Override public okhttp3.MediaType contentType() { return delegate.contentType(); }
+        @Override public long contentLength() { return delegate.contentLength(); }
+        @NotNull @Override public BufferedSource source() { return source; }
+    }
+}
@@ -0,0 +1,92 @@
+package com.carizon.config;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import okhttp3.Interceptor;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import okio.BufferedSource;
+import okio.ForwardingSource;
+import okio.Okio;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호스트별 지연/크기 메트릭 (network interceptor → 실제 전송 기준, 압축된 크기)
+ *  - crawl.http.client.requests{host,method,status}  : 응답 헤더까지 걸린 시간
+ *  - crawl.http.client.response.bytes{host}          : 본문 전송 바이트 (본문을 닫을 때 기록)
+ *  - status=IO_ERROR : 연결/읽기 실패
+ */
+public class HostMetricsInterceptor implements Interceptor {
+
+    private final MeterRegistry registry;
+
+    public HostMetricsInterceptor(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @NotNull
+    @Override
+    public Response intercept(@NotNull Chain chain) throws IOException {
+        String host = chain.request().url().host();
+        String method = chain.request().method();
+        long t0 = System.nanoTime();
+        Response resp;
+        try {
+            resp = chain.proceed(chain.request());
+        } catch (IOException e) {
+            timer(host, method, "IO_ERROR").record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+        timer(host, method, String.valueOf(resp.code())).record(System.nanoTime() - t0, TimeUnit.NANOSECONDS);
+
+        ResponseBody body = resp.body();
+        if (body == null) return resp;
+        DistributionSummary size = DistributionSummary.builder("crawl.http.client.response.bytes")
+                .baseUnit("bytes").tag("host", host).register(registry);
+        return resp.newBuilder().body(new CountingBody(body, size)).build();
+    }
+
+    private Timer timer(String host, String method, String status) {
+        return Timer.builder("crawl.http.client.requests")
+                .tags("host", host, "method", method, "status", status)
+                .register(registry);
+    }
+
+    private static final class CountingBody extends ResponseBody {
+        private final ResponseBody delegate;
+        private final BufferedSource source;
+
+        CountingBody(ResponseBody delegate, DistributionSummary size) {
+            this.delegate = delegate;
+            this.source = Okio.buffer(new ForwardingSource(delegate.source()) {
+                private long bytes;
+                private boolean recorded;
+
+                @Override
+                public long read(@NotNull Buffer sink, long byteCount) throws IOException {
+                    long n = super.read(sink, byteCount);
+                    if (n > 0) bytes += n;
+                    return n;
+                }
+
+                @Override
+                public void close() throws IOException {
+                    if (!recorded) {
+                        recorded = true;
+                        size.record(bytes);
+                    }
+                    super.close();
+                }
+            });
+        }
+
+        @Override public okhttp3.MediaType contentType() { return delegate.contentType(); }
+        @Override public long contentLength() { return delegate.contentLength(); }
+        @NotNull @Override public BufferedSource source() { return source; }
+    }
+}
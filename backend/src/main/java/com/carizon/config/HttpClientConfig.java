@@ -0,0 +1,81 @@
+package com.carizon.config;
+
+import com.carizon.crawler.HostRateLimiters;
+import io.micrometer.core.instrument.MeterRegistry;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.brotli.BrotliInterceptor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 크롤러 공용 OkHttpClient
+ * - 커넥션 풀/Dispatcher 하나를 모든 플랫폼·잡이 공유 → TLS 핸드셰이크, 소켓 재사용
+ * - HTTP/2 (ALPN 지원 호스트), gzip + brotli 응답 자동 해제
+ * - 호스트별 동시 요청 수/타임아웃 (HostLimitInterceptor), 호스트별 지연/크기 메트릭 (HostMetricsInterceptor)
+ * - 호스트별 AIMD 속도 제한 (AdaptiveRateInterceptor) — 크롤러의 고정 sleep 대체
+ * - crawl.http.fixtures.mode=RECORD/REPLAY : 응답 녹화 / 로컬 FixtureServer 로 재생 (네트워크 없이 처리량 측정)
+ * - 크롤러별 차이(callTimeout 등)는 http.newBuilder() 로 파생 — 풀/Dispatcher 는 그대로 공유됨
+ */
+@Configuration
+@EnableConfigurationProperties(HttpClientProperties.class)
+public class HttpClientConfig {
+
+    @Bean
+    public HostLimitInterceptor hostLimitInterceptor(HttpClientProperties props) {
+        return new HostLimitInterceptor(props);
+    }
+
+    @Bean
+    public FixtureStore fixtureStore(HttpClientProperties props) {
+        return new FixtureStore(props.getFixtures());
+    }
+
+    @Bean(initMethod = "start", destroyMethod = "stop")
+    @ConditionalOnProperty(prefix = "crawl.http.fixtures", name = "mode", havingValue = "REPLAY")
+    public FixtureServer fixtureServer(HttpClientProperties props, FixtureStore store) {
+        return new FixtureServer(props.getFixtures(), store);
+    }
+
+    @Bean
+    public OkHttpClient crawlHttpClient(HttpClientProperties props, HostLimitInterceptor hostLimit,
+                                        HostRateLimiters rateLimiters, MeterRegistry registry,
+                                        FixtureStore fixtures, ObjectProvider<FixtureServer> fixtureServer) {
+        HttpClientProperties.Fixtures.Mode mode = props.getFixtures().getMode();
+        FixtureServer server = fixtureServer.getIfAvailable();
+        if (mode == HttpClientProperties.Fixtures.Mode.REPLAY && server == null) {
+            throw new IllegalStateException("fixture replay server not started");
+        }
+
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(256);
+        dispatcher.setMaxRequestsPerHost(64); // 비동기 호출용, 동기 호출은 HostLimitInterceptor 가 제한
+
+        OkHttpClient.Builder b = new OkHttpClient.Builder()
+                .connectionPool(new ConnectionPool(props.getMaxIdleConnections(), props.getKeepAliveSeconds(), TimeUnit.SECONDS))
+                .dispatcher(dispatcher)
+                .protocols(List.of(Protocol.HTTP_2, Protocol.HTTP_1_1))
+                .connectTimeout(Duration.ofMillis(props.getConnectTimeoutMs()))
+                .readTimeout(Duration.ofMillis(props.getReadTimeoutMs()))
+                .writeTimeout(Duration.ofMillis(props.getWriteTimeoutMs()))
+                .callTimeout(Duration.ofMillis(props.getCallTimeoutMs()))
+                .retryOnConnectionFailure(true)
+                .addInterceptor(hostLimit)                                  // 슬롯 대기는 지연 측정에서 제외되도록 바깥쪽
+                .addInterceptor(new AdaptiveRateInterceptor(rateLimiters))
+                .addInterceptor(new FixtureInterceptor(mode, fixtures, server == null ? null : server.baseUrl()))
+                .addInterceptor(BrotliInterceptor.INSTANCE)   // Accept-Encoding: br,gzip + 해제
+                .addNetworkInterceptor(new HostMetricsInterceptor(registry));
+        if (props.isNoProxy()) b.proxy(Proxy.NO_PROXY);
+        return b.build();
+    }
+}
@@ -0,0 +1,89 @@
+package com.carizon.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 공용 OkHttpClient 설정 (crawl.http.*)
+ * - 기본값은 전체 호스트 공통, hosts.{호스트명} 으로 호스트별 덮어쓰기
+ * - 0 이하 값은 "기본값 사용"
+ */
+@Getter @Setter
+@ConfigurationProperties(prefix = "crawl.http")
+public class HttpClientProperties {
+
+    private long connectTimeoutMs = 10_000;
+    private long readTimeoutMs = 30_000;
+    private long writeTimeoutMs = 30_000;
+    private long callTimeoutMs = 120_000;
+
+    /** 커넥션 풀: 유휴 커넥션 수 / 유지 시간 */
+    private int maxIdleConnections = 32;
+    private long keepAliveSeconds = 300;
+
+    /** 호스트별 동시 요청 수 기본값 (hosts 에 없는 호스트) */
+    private int defaultMaxConcurrent = 16;
+
+    /** 프록시 강제 미사용 (기존 KCAR/ENCAR 동작) */
+    private boolean noProxy = true;
+
+    /** 호스트별 AIMD 속도 제한 기본값 (HostRateLimiters) */
+    private Rate rate = new Rate();
+
+    private Map<String, Host> hosts = new LinkedHashMap<>();
+
+    /** 응답 녹화/재생 (FixtureInterceptor / FixtureServer) — 오프라인 처리량 측정용 */
+    private Fixtures fixtures = new Fixtures();
+
+    @Getter @Setter
+    public static class Rate {
+        private boolean enabled = true;
+        private double initialRps = 2;
+        private double minRps = 0.2;
+        private double maxRps = 20;
+        /** 이보다 느린 응답은 과부하 신호로 보고 감속 */
+        private long targetLatencyMs = 3_000;
+        private double increaseStep = 0.5;
+        private double decreaseFactor = 0.5;
+        private long coolDownMs = 2_000;
+    }
+
+    @Getter @Setter
+    public static class Fixtures {
+        public enum Mode { OFF, RECORD, REPLAY }
+
+        private Mode mode = Mode.OFF;
+        private String dir = "./fixtures";
+        /** 재생 서버 포트 (0 = 빈 포트) */
+        private int port = 0;
+        /** 재생 응답 지연: latencyMs + [0, jitterMs) */
+        private long latencyMs = 0;
+        private long jitterMs = 0;
+        /** 이 확률로 errorStatus 응답 (0~1) */
+        private double errorRate = 0;
+        private int errorStatus = 503;
+        /** 요청 키 계산에서 뺄 쿼리 파라미터 (캐시 버스터) */
+        private List<String> ignoreParams = new ArrayList<>(List.of("v", "_"));
+        /** 요청 키 계산에서 뺄 본문 필드 (JSON 최상위 필드 / 폼 파라미터, 요청마다 바뀌는 타임스탬프) */
+        private List<String> ignoreBodyFields = new ArrayList<>(List.of("ts"));
+    }
+
+    @Getter @Setter
+    public static class Host {
+        private int maxConcurrent;
+        private long connectTimeoutMs;
+        private long readTimeoutMs;
+        private long writeTimeoutMs;
+        /** 0 이하면 rate.* 기본값 */
+        private double initialRps;
+        private double minRps;
+        private double maxRps;
+        private long targetLatencyMs;
+    }
+}
@@ -1,14 +1,42 @@
 package com.carizon.config;
 
+import io.netty.channel.ChannelOption;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
 
+import java.time.Duration;
+
+/**
+ * 코드 동기화(ChachaCodeSyncService) 용 WebClient
+ * - 크롤러는 공용 OkHttpClient(HttpClientConfig) 사용, 이쪽은 리액티브 체인이 필요해 WebClient 유지
+ * - 고정 커넥션 풀 + keep-alive, gzip, 응답 타임아웃을 HttpClientProperties 와 같은 값으로 맞춤
+ * - builder 는 Spring Boot 자동설정 것을 쓰므로 http.client.requests 메트릭은 그대로 수집됨
+ */
 @Configuration
 public class WebClientConfig {
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider webClientConnectionProvider(HttpClientProperties props) {
+        return ConnectionProvider.builder("carizon-webclient")
+                .maxConnections(props.getDefaultMaxConcurrent())
+                .maxIdleTime(Duration.ofSeconds(props.getKeepAliveSeconds()))
+                .pendingAcquireTimeout(Duration.ofMillis(props.getCallTimeoutMs()))
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder builder) {
-        return builder.build();  // baseUrl 없음 → 어디든지 호출 가능
+    public WebClient webClient(WebClient.Builder builder, ConnectionProvider webClientConnectionProvider,
+                               HttpClientProperties props) {
+        HttpClient http = HttpClient.create(webClientConnectionProvider)
+                .compress(true)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) props.getConnectTimeoutMs())
+                .responseTimeout(Duration.ofMillis(props.getReadTimeoutMs()));
+        return builder
+                .clientConnector(new ReactorClientHttpConnector(http))
+                .build();  // baseUrl 없음 → 어디든지 호출 가능
     }
 }
@@ -0,0 +1,106 @@
+package com.carizon.crawler;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 호스트 하나의 AIMD 속도 제한기 (thread-safe)
+ * - 정상 응답(2xx/3xx/404, 지연 < targetLatency) : rate += increaseStep / rate  (대략 초당 +increaseStep)
+ * - 제한 신호(429/403/503, 지연 과다, IO 오류)    : rate *= decreaseFactor   (coolDown 안에서는 1회만)
+ * - Retry-After 가 오면 그 시간 동안 전체 정지
+ * - 실제 대기는 TokenBucket 이 담당, 여기서는 속도만 조절
+ */
+public final class AdaptiveRateLimiter {
+
+    public record Settings(double initialRps, double minRps, double maxRps,
+                           long targetLatencyMs, double increaseStep, double decreaseFactor, long coolDownMs) {}
+
+    public record Snapshot(String host, double rps, double minRps, double maxRps,
+                           long ok, long throttled, long lastLatencyMs, long pausedForMs) {}
+
+    private final String host;
+    private final Settings cfg;
+    private final TokenBucket bucket;
+
+    private double rate;
+    private long lastDecreaseNanos;
+    private volatile long pausedUntilNanos;
+
+    private final AtomicLong ok = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong acquired = new AtomicLong();
+    private final AtomicLong waitedNanos = new AtomicLong();
+    private volatile long lastLatencyMs;
+
+    public AdaptiveRateLimiter(String host, Settings cfg) {
+        this.host = host;
+        this.cfg = cfg;
+        this.rate = clamp(cfg.initialRps());
+        this.bucket = new TokenBucket(rate, 1);   // burst 1 → 간격 균등
+    }
+
+    /** 요청 직전 호출: 정지 중이면 풀릴 때까지, 그 다음 토큰 하나 */
+    public void acquire() throws InterruptedException {
+        long t0 = System.nanoTime();
+        long wait = pausedUntilNanos - t0;
+        if (wait > 0) TimeUnit.NANOSECONDS.sleep(wait);
+        bucket.acquire();
+        acquired.incrementAndGet();
+        waitedNanos.addAndGet(System.nanoTime() - t0);
+    }
+
+    /** 응답 수신 후 호출 */
+    public void onResponse(int status, long latencyMs, long retryAfterMs) {
+        lastLatencyMs = latencyMs;
+        if (retryAfterMs > 0) {
+            pausedUntilNanos = Math.max(pausedUntilNanos, System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(retryAfterMs));
+        }
+        if (status == 429 || status == 403 || status == 503 || latencyMs > cfg.targetLatencyMs()) {
+            decrease();
+        } else if (status < 500) {
+            increase();
+        }
+    }
+
+    /** 연결 실패/타임아웃 */
+    public void onError() {
+        decrease();
+    }
+
+    public Snapshot snapshot() {
+        double r;
+        synchronized (this) { r = rate; }
+        long paused = Math.max(0, TimeUnit.NANOSECONDS.toMillis(pausedUntilNanos - System.nanoTime()));
+        return new Snapshot(host, Math.round(r * 100) / 100.0, cfg.minRps(), cfg.maxRps(),
+                ok.get(), throttled.get(), lastLatencyMs, paused);
+    }
+
+    /* 메트릭용 (HostRateLimiters 가 호스트별로 등록) */
+    public synchronized double rate() { return rate; }
+    public long throttledCount() { return throttled.get(); }
+    public long acquiredCount() { return acquired.get(); }
+    public double waitedSeconds() { return waitedNanos.get() / 1e9; }
+
+    private synchronized void increase() {
+        ok.incrementAndGet();
+        double next = clamp(rate + cfg.increaseStep() / rate);
+        if (next != rate) {
+            rate = next;
+            bucket.setRate(rate);
+        }
+    }
+
+    private synchronized void decrease() {
+        throttled.incrementAndGet();
+        long now = System.nanoTime();
+        // 동시에 나가 있던 요청들이 한꺼번에 실패해도 한 번만 줄임
+        if (now - lastDecreaseNanos < TimeUnit.MILLISECONDS.toNanos(cfg.coolDownMs())) return;
+        lastDecreaseNanos = now;
+        rate = clamp(rate * cfg.decreaseFactor());
+        bucket.setRate(rate);
+    }
+
+    private double clamp(double r) {
+        return Math.max(cfg.minRps(), Math.min(cfg.maxRps(), r));
+    }
+}
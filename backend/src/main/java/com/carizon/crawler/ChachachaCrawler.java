@@ -1,15 +1,22 @@
 package com.carizon.crawler;
 
+import com.carizon.batch.CrawlCheckpointStore;
 import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
 import java.time.Duration;
 import java.time.Instant;
 import java.util.*;
@@ -28,35 +35,63 @@ public class ChachachaCrawler {
                     "t34SellGbn,t34MonthAmt,t34DiscountAmt,adState,paymentPremiumYn,contractingYn," +
                     "makerCode,classCode,carCode,modelCode,gradeCode,useCodeName,autoGbnName,numCc";
 
-    private final OkHttpClient http = new OkHttpClient();
+    /** 스트리밍 파싱 중 이만큼 모이면 바로 저장 → 페이지(5000건) 전체를 메모리에 들고 있지 않음 */
+    private static final int FLUSH_ROWS = 500;
+
+    private final OkHttpClient http;   // 공용 클라이언트 (HttpClientConfig)
     private final ObjectMapper mapper = new ObjectMapper();
-    private final JdbcTemplate jdbc;
+    private final RawPayloadWriter raw;
 
     private final CrawlRunRecorder recorder;   // ✅ 주입
+    private final CrawlCheckpointStore checkpoints;
+    private final CrawlMetrics metrics;
+
+    public ChachachaCrawler(OkHttpClient http, RawPayloadWriter raw, CrawlRunRecorder recorder,
+                            CrawlCheckpointStore checkpoints, CrawlMetrics metrics) {
+        this.http = http;
+        this.raw = raw;
+        this.recorder = recorder;
+        this.checkpoints = checkpoints;
+        this.metrics = metrics;
+    }
+
+    public int runOnce() {
+        return run(null);
+    }
 
-    public ChachachaCrawler(JdbcTemplate jdbc, CrawlRunRecorder recorder) { this.jdbc = jdbc;     this.recorder = recorder;
+    /**
+     * 체크포인트(page, searchAfter)부터 같은 run_id 로 이어서 실행
+     * 체크포인트는 페이지 단위라 중단된 페이지에서 이미 flush 된 FLUSH_ROWS 묶음도 다시 받음
+     * → 그 row 들은 RawPayloadWriter.resume 이 올려둔 적재 키로 건너뜀
+     */
+    public int resume(CrawlCheckpointStore.Checkpoint cp) {
+        return run(cp);
     }
 
-    @SuppressWarnings("unchecked")
-    public void runOnce() {
+    private int run(CrawlCheckpointStore.Checkpoint cp) {
         Instant started = Instant.now();
-        String runId = recorder.recordStart("CHACHACHA", started);  // ✅ 시작 기록
+        String runId = cp == null
+                ? recorder.recordStart("CHACHACHA", started)  // ✅ 시작 기록
+                : recorder.recordResume(cp.runId());
 
-        List<Object> searchAfter = null;
+        List<Object> searchAfter = cp == null ? null : cp.listState("searchAfter");
         int pageSize = 5000;             // 디버깅 중에는 작게
-        int fetchedTotal = 0;
-        int page = 0;
+        int fetchedTotal = cp == null ? 0 : cp.items();
+        int page = cp == null ? 0 : cp.intState("page", 0);
+        boolean complete = false;   // 끝까지 정상 도달 여부 (DELTA 미노출 정리 조건)
 
 
         try {
-            // ★ 시작 시 한 번만 전체 초기화
+            // ★ 시작 시 한 번만: FULL 이면 전체 초기화, DELTA 면 변경분만 UPSERT, 재개면 그대로 이어서
+        RawPayloadWriter.Session session;
         try {
-            log.warn("[CRAWL] TRUNCATE raw_chachacha 시작");
-            jdbc.execute("TRUNCATE TABLE raw_chachacha");
-            log.warn("[CRAWL] TRUNCATE raw_chachacha 완료");
+            session = cp == null
+                    ? raw.open(CrawlSource.CHACHACHA, runId)
+                    : raw.resume(CrawlSource.CHACHACHA, runId);
+            if (cp != null) log.info("[CRAWL] 재개 runId={} page={} searchAfter={}", runId, page + 1, searchAfter);
         } catch (Exception e) {
-            log.error("[CRAWL] TRUNCATE 실패: {}", e.toString(), e);
-            return; // 초기화 안 되면 적재하지 않음 (원하면 계속 진행하도록 바꿔도 됨)
+            log.error("[CRAWL] raw_chachacha 초기화 실패: {}", e.toString(), e);
+            throw e; // 초기화 안 되면 적재하지 않음 → 아래에서 실패 기록
         }
 
         log.info("[CRAWL] KB차차차 시작 pageSize={}", pageSize);
@@ -91,57 +126,115 @@ public class ChachachaCrawler {
                         break; // 필요시 재시도 로직 추가
                     }
 
-                    byte[] bytes = Objects.requireNonNull(resp.body()).bytes();
-                    Map<String, Object> data = mapper.readValue(bytes, new TypeReference<>() {});
-                    Map<String, Object> result = (Map<String, Object>) data.getOrDefault("result", Map.of());
-                    List<Map<String, Object>> list = (List<Map<String, Object>>) result.getOrDefault("hits", List.of());
-
-                    log.info("hits={}", list);
+                    // 응답 본문을 스트리밍 파싱: hit 하나씩 원문 JSON 으로 떼어 저장 배치에 바로 넣음
+                    PageResult pr;
+                    try (InputStream in = Objects.requireNonNull(resp.body()).byteStream()) {
+                        pr = streamPage(in, session);
+                    }
 
-                    int batchCount = list.size();
+                    int batchCount = pr.hits();
+                    metrics.pages(CrawlSource.CHACHACHA, 1);
                     log.info("[CRAWL] page={} status={} items={}", page, code, batchCount);
 
                     if (batchCount == 0) {
                         log.info("[CRAWL] 빈 결과 → 종료 (page={})", page);
+                        complete = true;
                         break;
                     }
 
-                    // 원본 JSON 저장
-                    String sql = "INSERT INTO raw_chachacha(payload) VALUES (CAST(? AS JSON))";
-                    List<Object[]> params = new ArrayList<>(batchCount);
-                    for (Map<String, Object> item : list) {
-                        params.add(new Object[]{ mapper.writeValueAsString(item) });
-                    }
-                    int[] res = jdbc.batchUpdate(sql, params);
-                    log.debug("[CRAWL] page={} dbInserted={}", page, res.length);
-
                     fetchedTotal += batchCount;
 
-                    Object nextSa = result.get("searchAfter");
-                    if (!(nextSa instanceof List<?> nextList) || nextList.isEmpty()) {
+                    if (pr.searchAfter() == null || pr.searchAfter().isEmpty()) {
                         log.info("[CRAWL] 다음 searchAfter 없음 → 종료 (page={})", page);
+                        complete = true;
                         break;
                     }
-                    searchAfter = (List<Object>) nextList;
+                    searchAfter = pr.searchAfter();
                     log.debug("[CRAWL] next searchAfter={}", searchAfter);
+                    checkpoints.save(runId, CrawlSource.CHACHACHA, fetchedTotal,
+                            Map.of("page", page, "searchAfter", searchAfter));
 
                     if (batchCount < pageSize) {
                         log.info("[CRAWL] 마지막 페이지로 추정(list < pageSize) → 종료 (page={}, items={})", page, batchCount);
+                        complete = true;
                         break;
                     }
-
-                    Thread.sleep(600); // 서버 부하 완화
                 }
             } catch (Exception e) {
                 log.error("[CRAWL] 예외 발생 page={} → 종료: {}", page, e.toString(), e);
                 break;
             }
         }
+            raw.finish(session, complete);
+            if (complete) checkpoints.markDone(runId);
             recorder.recordEnd(runId, fetchedTotal, Instant.now());   // ✅ 성공 기록
         }catch (Exception e) {
             recorder.recordFail(runId, fetchedTotal, Instant.now(), e.toString()); // ✅ 실패 기록
+            throw new CrawlFailedException(CrawlSource.CHACHACHA, runId, fetchedTotal, e);
         }
 
         log.info("[CRAWL] 완료 totalItems={} elapsed={}s", fetchedTotal, Duration.between(started, Instant.now()).toSeconds());
+        return fetchedTotal;
+    }
+
+    private record PageResult(int hits, List<Object> searchAfter) {}
+
+    /**
+     * { "result": { "hits": [ {...}, ... ], "searchAfter": [ ... ] } } 스트리밍 파싱
+     * - hit 는 Map 으로 만들지 않고 토큰 그대로 복사해 JSON 문자열로 → FLUSH_ROWS 단위 저장
+     *   (RawPayloadWriter 도 트리로 다시 파싱하지 않고 문자열 바이트로 해시 — VERBATIM_HASH)
+     * - searchAfter 만 작은 List 로 읽음, 그 밖의 필드는 skip
+     * - crawl.parse.time 에는 중간 저장(raw.write) 시간을 빼고 기록
+     */
+    private PageResult streamPage(InputStream in, RawPayloadWriter.Session session) throws IOException {
+        long t0 = System.nanoTime();
+        long writeNanos = 0;
+        int hits = 0;
+        List<Object> searchAfter = null;
+        List<Object[]> batch = new ArrayList<>(FLUSH_ROWS);
+
+        try (JsonParser p = mapper.getFactory().createParser(in)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return new PageResult(0, null);
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String field = p.currentName();
+                JsonToken t = p.nextToken();
+                if (!"result".equals(field) || t != JsonToken.START_OBJECT) {
+                    p.skipChildren();
+                    continue;
+                }
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String rf = p.currentName();
+                    JsonToken rt = p.nextToken();
+                    if ("hits".equals(rf) && rt == JsonToken.START_ARRAY) {
+                        while (p.nextToken() == JsonToken.START_OBJECT) {
+                            batch.add(new Object[]{ copyHit(p) });
+                            hits++;
+                            if (batch.size() >= FLUSH_ROWS) {
+                                long w0 = System.nanoTime();
+                                raw.write(session, batch);
+                                writeNanos += System.nanoTime() - w0;
+                                batch = new ArrayList<>(FLUSH_ROWS);
+                            }
+                        }
+                    } else if ("searchAfter".equals(rf) && rt == JsonToken.START_ARRAY) {
+                        searchAfter = mapper.readValue(p, new TypeReference<List<Object>>() {});
+                    } else {
+                        p.skipChildren();
+                    }
+                }
+            }
+        }
+        metrics.parsed(CrawlSource.CHACHACHA, System.nanoTime() - t0 - writeNanos);
+        if (!batch.isEmpty()) raw.write(session, batch);
+        return new PageResult(hits, searchAfter);
+    }
+
+    /** 현재 START_OBJECT 부터 짝이 맞는 END_OBJECT 까지 그대로 직렬화 */
+    private String copyHit(JsonParser p) throws IOException {
+        StringWriter sw = new StringWriter(1024);
+        try (JsonGenerator g = mapper.getFactory().createGenerator(sw)) {
+            g.copyCurrentStructure(p);
+        }
+        return sw.toString();
     }
 }
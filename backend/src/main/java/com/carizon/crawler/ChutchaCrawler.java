@@ -1,5 +1,8 @@
 package com.carizon.crawler;
 
+import com.carizon.batch.CrawlCheckpointStore;
+import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -8,12 +11,11 @@ import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.sql.Timestamp;
 import java.time.Instant;
 import java.util.*;
 import java.util.concurrent.*;
@@ -25,47 +27,62 @@ import java.util.regex.Pattern;
 @RequiredArgsConstructor
 public class ChutchaCrawler {
 
-    private final JdbcTemplate jdbc;
+    private final RawPayloadWriter raw;
+    private final CrawlRunRecorder recorder;
+    private final CrawlCheckpointStore checkpoints;
+    private final CrawlMetrics metrics;
     private final ObjectMapper mapper = new ObjectMapper();
 
-    // OkHttp: 커넥션 풀 + 동시성 튜닝
-    private final OkHttpClient http = new OkHttpClient.Builder()
-            .connectionPool(new ConnectionPool(100, 60, TimeUnit.SECONDS))
-            .dispatcher(new Dispatcher(new ThreadPoolExecutor(
-                    0, 64, 60L, TimeUnit.SECONDS, new SynchronousQueue<>())))
-            .retryOnConnectionFailure(true)
-            .build();
+    // 공용 클라이언트 (HttpClientConfig) — 커넥션 풀/호스트별 동시성은 crawl.http 설정
+    private final OkHttpClient http;
 
-    // 상세 병렬 처리 풀 (너무 높이면 차단 위험 — 12~16 추천)
-    private final ExecutorService detailPool = Executors.newFixedThreadPool(12);
+    // 상세 병렬 처리 (너무 높이면 차단 위험 — 동시성 12~16 추천). 풀은 실행마다 만들고 종료 시 정리
+    // 초당 호출 수는 호스트별 AIMD 제한기가 조절 (crawl.http.hosts.[web.chutcha.net])
+    @Value("${crawl.chutcha.detail-concurrency:12}")
+    private int detailConcurrency;
+    @Value("${crawl.chutcha.detail-timeout-ms:10000}")
+    private long detailTimeoutMs;
 
     // --------------------- CONST ---------------------
     private static final String HOST = "https://web.chutcha.net";
     private static final String SEARCH_PAGE = HOST + "/bmc/search?brandGroup=1&modelTree=%7B%7D&priceRange=0,0&mileage=0,0&year=&saleType=&accident=&fuel=&transmission=&region=&color=&option=&cpo=&theme=&sort=1&carType=";
     private static final String LIST_URL = HOST + "/web001/car/getSearchCarList";
     private static final int PAGE_SIZE = 50;
-    private static final int PAGE_DELAY_MS = 200;
 
     // --------------------- ENTRY ---------------------
-    public void runOnceFull() {
+    public int runOnceFull() {
+        return run(null);
+    }
+
+    /** 체크포인트(cp/lp/ts 토큰)부터 같은 run_id 로 이어서 실행 */
+    public int resume(CrawlCheckpointStore.Checkpoint checkpoint) {
+        return run(checkpoint);
+    }
+
+    private int run(CrawlCheckpointStore.Checkpoint checkpoint) {
         final Instant started = Instant.now();
-        final String runId = recordStart("CHUTCHA", started);
+        final String runId = checkpoint == null ? recorder.recordStart("CHUTCHA", started) : recorder.recordResume(checkpoint.runId());
 
-        int total = 0;
+        int total = checkpoint == null ? 0 : checkpoint.items();
+        ExecutorService detailPool = Executors.newFixedThreadPool(Math.max(1, detailConcurrency));
         try {
-            jdbc.update("TRUNCATE TABLE raw_chutcha");
-            log.info("[CHUTCHA] TRUNCATE raw_chutcha 완료");
+            RawPayloadWriter.Session session = checkpoint == null
+                    ? raw.open(CrawlSource.CHUTCHA, runId)
+                    : raw.resume(CrawlSource.CHUTCHA, runId);
 
             String buildId = fetchBuildId();
             log.info("[CHUTCHA] buildId={}", buildId);
 
-            String cp = "";
-            String lp = "";
-            String ts = String.valueOf(Instant.now().getEpochSecond());
+            String cp = checkpoint == null ? "" : checkpoint.strState("cp", "");
+            String lp = checkpoint == null ? "" : checkpoint.strState("lp", "");
+            String ts = checkpoint == null
+                    ? String.valueOf(Instant.now().getEpochSecond())
+                    : checkpoint.strState("ts", String.valueOf(Instant.now().getEpochSecond()));
+            if (checkpoint != null) log.info("[CHUTCHA] 재개 runId={} cp={} lp={} 누적={}", runId, cp, lp, total);
 
             PageResult pr = fetchPage(cp, lp, ts);
             while (pr != null && !pr.items.isEmpty()) {
-                total += persistAndEnrich(buildId, pr.items);
+                total += persistAndEnrich(session, buildId, pr.items, detailPool);
                 log.info("[CHUTCHA] 누적 저장 {}건 (np={}, lp={})", total, pr.nextCp, pr.lastLp);
 
                 if (pr.nextCp == null || pr.nextCp.isBlank()
@@ -76,19 +93,25 @@ public class ChutchaCrawler {
 
                 cp = pr.nextCp;
                 lp = pr.lastLp;
+                checkpoints.save(runId, CrawlSource.CHUTCHA, total,
+                        Map.of("cp", cp, "lp", lp == null ? "" : lp, "ts", ts));
 
-                Thread.sleep(PAGE_DELAY_MS);
                 pr = fetchPage(cp, lp, ts);
             }
 
-            recordSuccess(runId, total);
+            // 목록 오류는 예외로 빠지므로 여기까지 오면 끝까지 정상 도달
+            raw.finish(session, true);
+            checkpoints.markDone(runId);
+            recorder.recordEnd(runId, total, Instant.now());
             log.info("[CHUTCHA] 완료 total={}", total);
         } catch (Exception e) {
-            recordFail(runId, total, e.toString());
+            recorder.recordFail(runId, total, Instant.now(), e.toString());
             log.error("[CHUTCHA] runOnceFull 실패", e);
+            throw new CrawlFailedException(CrawlSource.CHUTCHA, runId, total, e);
         } finally {
-            detailPool.shutdown();
+            shutdown(detailPool);
         }
+        return total;
     }
 
     // --------------------- LIST FETCH ---------------------
@@ -124,6 +147,7 @@ public class ChutchaCrawler {
                 throw new IllegalStateException("HTTP " + code + " LIST");
             }
 
+            long t0 = System.nanoTime();
             Map<String, Object> root = mapper.readValue(bytes, new TypeReference<>() {});
             if (!"200".equals(String.valueOf(root.get("code")))) {
                 throw new IllegalStateException("API code != 200 : " + root.get("code"));
@@ -144,25 +168,50 @@ public class ChutchaCrawler {
                     }
                 }
             }
+            metrics.parsed(CrawlSource.CHUTCHA, System.nanoTime() - t0);
+            metrics.pages(CrawlSource.CHUTCHA, 1);
             return new PageResult(items, np, newLp);
         }
     }
 
     // --------------------- DETAIL + SLIM MERGE SAVE ---------------------
-    private int persistAndEnrich(String buildId, List<Map<String, Object>> items) throws Exception {
-        List<Object[]> batch = new ArrayList<>();
-
+    /**
+     * 목록 1페이지의 상세를 detailPool 로 병렬 호출한 뒤, 목록 순서대로 합쳐 저장.
+     * - 호출 속도는 공용 클라이언트의 호스트별 AIMD 제한기(HostRateLimiters), 건별 HTTP 는 detailTimeoutMs 로 끊음
+     * - 상세 실패/타임아웃 건은 목록 JSON 만 저장 (기존과 동일)
+     */
+    private int persistAndEnrich(RawPayloadWriter.Session session, String buildId, List<Map<String, Object>> items,
+                                 ExecutorService detailPool) throws Exception {
+        // 1) fan-out: 상세 요청을 먼저 모두 던져둔다 (index = 목록 순서)
+        List<String> hashes = new ArrayList<>(items.size());
+        List<Future<DetailSlim>> futures = new ArrayList<>(items.size());
         for (Map<String, Object> car : items) {
             String hash = optStr(car, "detail_link_hash");
             if (hash == null || hash.isBlank()) hash = optStr(car, "detailLinkHash");
+            hashes.add(hash);
+
+            if (hash != null && !hash.isBlank()) {
+                final String h = hash;
+                futures.add(detailPool.submit(() -> fetchDetailSlim(buildId, h)));
+            } else {
+                futures.add(null);
+            }
+        }
+
+        // 2) fan-in: 목록 순서대로 병합
+        List<Object[]> batch = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            String hash = hashes.get(i);
 
             // 목록 JSON
-            ObjectNode merged = mapper.valueToTree(car);
+            ObjectNode merged = mapper.valueToTree(items.get(i));
 
             // 상세 JSON에서 필요한 필드만 뽑아 detail에 슬림 구조로 붙인다
-            if (hash != null && !hash.isBlank()) {
+            Future<DetailSlim> f = futures.get(i);
+            if (f != null) {
                 try {
-                    DetailSlim d = fetchDetailSlim(buildId, hash);
+                    // 대기열 + 호출시간 여유. HTTP 자체는 call timeout 으로 먼저 끊긴다
+                    DetailSlim d = f.get(detailTimeoutMs * 3, TimeUnit.MILLISECONDS);
                     if (d != null) {
                         ObjectNode detail = mapper.createObjectNode();
                         if (d.options != null) detail.set("options", d.options);
@@ -170,8 +219,11 @@ public class ChutchaCrawler {
                         if (d.baseInfo != null) detail.set("base_info", d.baseInfo);
                         merged.set("detail", detail);
                     }
-                } catch (Exception e) {
-                    log.warn("[CHUTCHA] DETAIL fetch/parse fail hash={} {}", hash, e.toString());
+                } catch (TimeoutException te) {
+                    f.cancel(true);
+                    log.warn("[CHUTCHA] DETAIL timeout hash={}", hash);
+                } catch (ExecutionException e) {
+                    log.warn("[CHUTCHA] DETAIL fetch/parse fail hash={} {}", hash, e.getCause().toString());
                 }
             }
 
@@ -179,13 +231,7 @@ public class ChutchaCrawler {
             batch.add(new Object[]{ mergedPayload, hash });
         }
 
-        if (!batch.isEmpty()) {
-            jdbc.batchUpdate(
-                    "INSERT INTO raw_chutcha(payload, share_hash) VALUES (CAST(? AS JSON), ?) " +
-                            "ON DUPLICATE KEY UPDATE payload=VALUES(payload)",
-                    batch
-            );
-        }
+        raw.write(session, batch);
         return items.size();
     }
 
@@ -207,12 +253,17 @@ public class ChutchaCrawler {
                 .header("User-Agent", "Mozilla/5.0")
                 .build();
 
-        try (Response resp = http.newCall(req).execute()) {
+        Call call = http.newCall(req);
+        call.timeout().timeout(detailTimeoutMs, TimeUnit.MILLISECONDS); // 건별 타임아웃
+
+        try (Response resp = call.execute()) {
             int code = resp.code();
             byte[] bytes = resp.body() != null ? resp.body().bytes() : new byte[0];
             if (code != 200) throw new IllegalStateException("HTTP " + code + " DETAIL");
 
+            long t0 = System.nanoTime();
             JsonNode root = mapper.readTree(bytes);
+            metrics.parsed(CrawlSource.CHUTCHA, System.nanoTime() - t0);
 
             // 쿼리 배열 위치 탐색 (빌드에 따라 경로 다를 수 있어 두 경로 모두 시도)
             JsonNode queries = root.at("/pageProps/dehydratedState/queries");
@@ -281,25 +332,21 @@ public class ChutchaCrawler {
         }
     }
 
-    // --------------------- crawl_run helpers ---------------------
-    private String recordStart(String source, Instant startedAt) {
-        String runId = UUID.randomUUID().toString();
-        jdbc.update("INSERT INTO crawl_run(run_id, source, started_at, status, total_items) VALUES (?,?,?,?,?)",
-                runId, source, Timestamp.from(startedAt), "STARTED", 0);
-        return runId;
-    }
-
-    private void recordSuccess(String runId, int total) {
-        jdbc.update("UPDATE crawl_run SET ended_at=?, total_items=?, status=? WHERE run_id=?",
-                Timestamp.from(Instant.now()), total, "SUCCESS", runId);
-    }
-
-    private void recordFail(String runId, int total, String message) {
-        jdbc.update("UPDATE crawl_run SET ended_at=?, total_items=?, status=?, message=? WHERE run_id=?",
-                Timestamp.from(Instant.now()), total, "FAIL", cut(message, 1000), runId);
+    // --------------------- utils ---------------------
+    /** 실행 종료 시 상세 풀 정리: 진행 중 작업은 잠깐 기다렸다가 강제 종료 */
+    private static void shutdown(ExecutorService pool) {
+        pool.shutdown();
+        try {
+            if (!pool.awaitTermination(30, TimeUnit.SECONDS)) {
+                log.warn("[CHUTCHA] detailPool 종료 대기 초과 → shutdownNow");
+                pool.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            pool.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
     }
 
-    // --------------------- utils ---------------------
     private static String optStr(Map<String, ?> m, String key) {
         if (m == null) return null;
         Object v = m.get(key);
@@ -313,11 +360,6 @@ public class ChutchaCrawler {
         }
     }
 
-    private static String cut(String s, int max) {
-        if (s == null) return null;
-        return s.length() <= max ? s : s.substring(0, max);
-    }
-
     // --------------------- record types ---------------------
     private record PageResult(List<Map<String, Object>> items, String nextCp, String lastLp) {}
     private record DetailSlim(ArrayNode options, ArrayNode imgList, ObjectNode baseInfo) {}
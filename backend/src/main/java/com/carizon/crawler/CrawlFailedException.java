@@ -0,0 +1,23 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlSource;
+import lombok.Getter;
+
+/**
+ * 크롤러가 crawl_run 에 실패(recordFail)를 남긴 뒤 던지는 예외
+ * - CrawlOrchestrator 가 받아서 해당 플랫폼만 FAIL 처리 (items = 실패 전까지 적재한 건수)
+ */
+@Getter
+public class CrawlFailedException extends RuntimeException {
+
+    private final CrawlSource source;
+    private final String runId;
+    private final int items;
+
+    public CrawlFailedException(CrawlSource source, String runId, int items, Throwable cause) {
+        super(source + " crawl failed runId=" + runId + ": " + cause, cause);
+        this.source = source;
+        this.runId = runId;
+        this.items = items;
+    }
+}
@@ -0,0 +1,78 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 크롤러 공통 처리량 메트릭 (tag source=CrawlSource 이름) → /actuator/prometheus
+ *
+ *  - crawl.pages{source}                      : 파싱까지 끝난 목록 페이지 수 (rate → pages/sec)
+ *  - crawl.items{source}                      : raw_* 로 넘긴 row 수 (rate → items/sec)
+ *  - crawl.parse.time{source}                 : 응답 JSON 파싱 시간 (CHACHACHA 는 스트리밍 중 DB 적재 시간 제외)
+ *  - crawl.raw.write.time{source,step}        : RawPayloadWriter 단계별 시간 (hash | archive | lookup | upsert)
+ *  - crawl.raw.rows{source,outcome}           : new | changed | unchanged | duplicate(FULL 같은 실행 내 중복 키)
+ *  - crawl.raw.upsert.rows{source,path}       : 실제 INSERT 로 보낸 row 수, path=bulk(LOAD DATA) | batch (rate → rows/sec)
+ *  - crawl.retries{source,reason}             : 크롤러 자체 재시도 (HTTP 계층 AIMD 감속은 crawl.http.rate.*)
+ *  - crawl.run.time{source,outcome}           : 플랫폼 1회 실행 소요 (CrawlOrchestrator)
+ *
+ * HTTP 계층 메트릭은 HostMetricsInterceptor(지연/바이트), HostRateLimiters(rps/감속/대기) 참고.
+ * 히스토그램(percentiles-histogram) 여부는 application.yaml management.metrics.distribution 에서 켬.
+ */
+@Component
+public class CrawlMetrics {
+
+    private final MeterRegistry registry;
+
+    public CrawlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public void pages(CrawlSource source, int n) {
+        counter("crawl.pages", source).increment(n);
+    }
+
+    public void items(CrawlSource source, int n) {
+        counter("crawl.items", source).increment(n);
+    }
+
+    public void parsed(CrawlSource source, long nanos) {
+        Timer.builder("crawl.parse.time").tag("source", source.name())
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rawWrite(CrawlSource source, String step, long nanos) {
+        Timer.builder("crawl.raw.write.time").tags("source", source.name(), "step", step)
+                .register(registry).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rawRows(CrawlSource source, String outcome, int n) {
+        if (n <= 0) return;
+        Counter.builder("crawl.raw.rows").tags("source", source.name(), "outcome", outcome)
+                .register(registry).increment(n);
+    }
+
+    public void rawUpserted(CrawlSource source, String path, int n) {
+        Counter.builder("crawl.raw.upsert.rows").tags("source", source.name(), "path", path)
+                .register(registry).increment(n);
+    }
+
+    public void retry(CrawlSource source, String reason) {
+        Counter.builder("crawl.retries").tags("source", source.name(), "reason", reason)
+                .register(registry).increment();
+    }
+
+    public void run(CrawlSource source, String outcome, Duration took) {
+        Timer.builder("crawl.run.time").tags("source", source.name(), "outcome", outcome)
+                .register(registry).record(took);
+    }
+
+    private Counter counter(String name, CrawlSource source) {
+        return Counter.builder(name).tag("source", source.name()).register(registry);
+    }
+}
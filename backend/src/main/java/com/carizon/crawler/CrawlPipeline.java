@@ -0,0 +1,216 @@
+package com.carizon.crawler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * 페이지 번호 기반 크롤러용 3단 파이프라인
+ *
+ *   [fetch] --(fetched 큐)--> [parse] --(parsed 큐)--> [persist]
+ *
+ * - fetch / parse 는 가상 스레드, persist 는 호출 스레드에서 실행
+ * - 큐는 고정 크기(ArrayBlockingQueue) → DB 가 느리면 fetch 가 자연스럽게 멈춤(backpressure)
+ * - parse 가 마지막 페이지를 판단하면 fetch 중지, 이미 받아둔 다음 페이지들은 버림
+ * - 어느 단계든 예외 → 전체 중단 후 Failure(지금까지 저장된 건수 + 원인) 로 다시 던짐
+ *   (호출 측이 recordFail → CrawlFailedException. fetch 가 null 로 끊긴 경우는 예외 아님)
+ * - completed() : parse 가 마지막 페이지를 확인하고 오류 없이 끝났는지 (fetch 가 null 로 끊긴 경우는 미완료)
+ *
+ * 메트릭 (tag pipeline=이름)
+ *  - crawl.pipeline.queue.depth{queue=fetched|parsed} : 큐 적재량 (실행 중에만 등록)
+ *  - crawl.pipeline.stage.pages{stage=fetch|parse|persist} : 단계별 처리 페이지 수
+ *  - crawl.pipeline.stage.time{stage=...} : 단계별 처리 시간
+ *  - crawl.pipeline.rows : persist 된 row 수
+ */
+@Slf4j
+public final class CrawlPipeline<R> {
+
+    /** page 번호로 응답 본문을 가져옴. null 이면 더 이상 페이지 없음 */
+    @FunctionalInterface
+    public interface Fetcher { byte[] fetch(int page) throws Exception; }
+
+    /** 응답 본문 → 저장할 row 목록. last=true 면 이후 페이지는 요청하지 않음 */
+    @FunctionalInterface
+    public interface Parser<R> { Parsed<R> parse(int page, byte[] body) throws Exception; }
+
+    /** row 목록 저장, 저장 건수 반환 */
+    @FunctionalInterface
+    public interface Writer<R> { int write(int page, List<R> rows) throws Exception; }
+
+    public record Parsed<R>(List<R> rows, boolean last) {}
+
+    /** 단계 실패로 중단된 run() — saved = 실패 전까지 persist 된 건수 */
+    public static final class Failure extends RuntimeException {
+        private final int saved;
+
+        Failure(String name, int saved, Throwable cause) {
+            super("pipeline " + name + " failed after saved=" + saved + ": " + cause, cause);
+            this.saved = saved;
+        }
+
+        public int saved() { return saved; }
+    }
+
+    private record Fetched(int page, byte[] body) {}
+    private record ParsedPage<R>(int page, List<R> rows) {}
+
+    /** 단계 사이 큐 크기 기본값 — 페이지 몇 장 정도만 선반입 */
+    public static final int DEFAULT_QUEUE_DEPTH = 4;
+
+    private static final Object EOS = new Object();
+    private static final long OFFER_WAIT_MS = 200L;
+
+    private final String name;
+    private final MeterRegistry registry;
+    private final int queueDepth;
+    private volatile boolean completed;
+
+    public CrawlPipeline(String name, MeterRegistry registry, int queueDepth) {
+        this.name = name;
+        this.registry = registry;
+        this.queueDepth = Math.max(1, queueDepth);
+    }
+
+    /** @throws Failure 어느 단계든 예외로 중단된 경우 */
+    public int run(int firstPage, Fetcher fetcher, Parser<R> parser, Writer<R> writer) {
+        completed = false;
+        BlockingQueue<Object> fetchedQ = new ArrayBlockingQueue<>(queueDepth);
+        BlockingQueue<Object> parsedQ  = new ArrayBlockingQueue<>(queueDepth);
+        AtomicBoolean lastSeen = new AtomicBoolean(false);   // parse 가 마지막 페이지 판단
+        AtomicBoolean aborted  = new AtomicBoolean(false);   // 어느 단계든 실패
+        AtomicReference<Throwable> error = new AtomicReference<>();
+
+        List<Gauge> gauges = List.of(
+                Gauge.builder("crawl.pipeline.queue.depth", fetchedQ, BlockingQueue::size)
+                        .tags("pipeline", name, "queue", "fetched").register(registry),
+                Gauge.builder("crawl.pipeline.queue.depth", parsedQ, BlockingQueue::size)
+                        .tags("pipeline", name, "queue", "parsed").register(registry));
+
+        Thread fetchThread = Thread.ofVirtual().name(name + "-fetch").start(() -> {
+            try {
+                int page = firstPage;
+                while (!lastSeen.get() && !aborted.get()) {
+                    int p = page;
+                    byte[] body = timed("fetch", () -> fetcher.fetch(p));
+                    if (body == null) break;
+                    pages("fetch").increment();
+                    if (!offer(fetchedQ, new Fetched(page, body), aborted)) break;
+                    page++;
+                }
+            } catch (Throwable t) {
+                fail(error, aborted, t);
+            } finally {
+                offer(fetchedQ, EOS, aborted);
+            }
+        });
+
+        Thread parseThread = Thread.ofVirtual().name(name + "-parse").start(() -> {
+            try {
+                while (!aborted.get()) {
+                    Object o = fetchedQ.poll(OFFER_WAIT_MS, TimeUnit.MILLISECONDS);
+                    if (o == null) continue;
+                    if (o == EOS) break;
+                    if (lastSeen.get()) continue; // 마지막 이후 선반입된 페이지는 버림
+                    Fetched f = (Fetched) o;
+                    Parsed<R> parsed = timed("parse", () -> parser.parse(f.page(), f.body()));
+                    pages("parse").increment();
+                    if (parsed.last()) lastSeen.set(true);
+                    if (!parsed.rows().isEmpty()
+                            && !offer(parsedQ, new ParsedPage<>(f.page(), parsed.rows()), aborted)) break;
+                }
+            } catch (Throwable t) {
+                fail(error, aborted, t);
+            } finally {
+                offer(parsedQ, EOS, aborted);
+            }
+        });
+
+        AtomicInteger total = new AtomicInteger();
+        Counter rows = Counter.builder("crawl.pipeline.rows").tag("pipeline", name).register(registry);
+        try {
+            while (!aborted.get()) {
+                Object o = parsedQ.poll(OFFER_WAIT_MS, TimeUnit.MILLISECONDS);
+                if (o == null) continue;
+                if (o == EOS) break;
+                @SuppressWarnings("unchecked")
+                ParsedPage<R> pp = (ParsedPage<R>) o;
+                int n = timed("persist", () -> writer.write(pp.page(), pp.rows()));
+                pages("persist").increment();
+                rows.increment(n);
+                total.addAndGet(n);
+            }
+        } catch (Throwable t) {
+            fail(error, aborted, t);
+        } finally {
+            join(fetchThread);
+            join(parseThread);
+            gauges.forEach(registry::remove);
+        }
+
+        completed = lastSeen.get() && error.get() == null;
+        if (error.get() != null) {
+            log.error("[PIPELINE:{}] 중단 saved={} err={}", name, total.get(), error.get().toString());
+            throw new Failure(name, total.get(), error.get());
+        }
+        return total.get();
+    }
+
+    /** 직전 run() 이 마지막 페이지까지 정상 도달했는지 */
+    public boolean completed() {
+        return completed;
+    }
+
+    /* ---------------- helpers ---------------- */
+
+    @FunctionalInterface
+    private interface Stage<T> { T call() throws Exception; }
+
+    private <T> T timed(String stage, Stage<T> work) throws Exception {
+        Timer.Sample s = Timer.start(registry);
+        try {
+            return work.call();
+        } finally {
+            s.stop(Timer.builder("crawl.pipeline.stage.time").tags("pipeline", name, "stage", stage).register(registry));
+        }
+    }
+
+    private Counter pages(String stage) {
+        return Counter.builder("crawl.pipeline.stage.pages").tags("pipeline", name, "stage", stage).register(registry);
+    }
+
+    /** 큐가 가득 차면 대기(backpressure). 다른 단계가 실패하면 false */
+    private static boolean offer(BlockingQueue<Object> q, Object item, AtomicBoolean aborted) {
+        try {
+            while (!q.offer(item, OFFER_WAIT_MS, TimeUnit.MILLISECONDS)) {
+                if (aborted.get()) return false;
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void fail(AtomicReference<Throwable> error, AtomicBoolean aborted, Throwable t) {
+        error.compareAndSet(null, t);
+        aborted.set(true);
+    }
+
+    private static void join(Thread t) {
+        try {
+            t.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
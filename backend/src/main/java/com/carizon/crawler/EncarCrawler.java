@@ -1,6 +1,8 @@
 package com.carizon.crawler;
 
+import com.carizon.batch.CrawlCheckpointStore;
 import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -8,13 +10,18 @@ import lombok.extern.slf4j.Slf4j;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.net.Proxy;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
@@ -22,18 +29,33 @@ import java.util.concurrent.atomic.AtomicInteger;
 @RequiredArgsConstructor
 public class EncarCrawler {
 
-    private final JdbcTemplate jdbc;
+    private final RawPayloadWriter raw;
     private final CrawlRunRecorder recorder;
+    private final CrawlCheckpointStore checkpoints;
+    private final CrawlMetrics metrics;
     private final ObjectMapper mapper = new ObjectMapper();
 
-    /** IP 변경은 하지 않음(프록시 NO). */
-    private final OkHttpClient http = new OkHttpClient.Builder()
-            .proxy(Proxy.NO_PROXY)
-            .followRedirects(true)
-            .followSslRedirects(true)
-            .build();
+    /** 공용 클라이언트 (HttpClientConfig). IP 변경은 하지 않음(프록시 NO, crawl.http.no-proxy). */
+    private final OkHttpClient http;
 
     private static final int PAGE_SIZE = 200;
+    private static final int DETAIL_SLICE = 20; // view API 한 번에 넘기는 vehicleIds 수
+
+    private static final String BASE_QUERY = "(And.Hidden.N._.CarType.A.)";
+    /** 가격대 파티션 초기 경계(만원). 구간이 partitionMaxSize 보다 크면 실행 시 반씩 더 쪼갬 */
+    private static final int[] PRICE_EDGES = {500, 1000, 1500, 2000, 3000, 5000, 10000};
+
+    /** 가격대 파티션 병렬 모드 (false 면 기존 단일 커서) */
+    @Value("${crawl.encar.partition.enabled:false}")
+    private boolean partitionEnabled;
+    @Value("${crawl.encar.partition.concurrency:3}")
+    private int partitionConcurrency;
+    @Value("${crawl.encar.partition.max-size:8000}")
+    private int partitionMaxSize;
+
+    /** 상세(view) 동시 호출 수. 초당 호출 수는 호스트별 AIMD 제한기가 조절 (crawl.http.hosts.[api.encar.com]) */
+    @Value("${crawl.encar.detail-concurrency:6}")
+    private int detailConcurrency;
 
     /** 브라우저 UA 후보들(라운드로빈). */
     private static final List<String> USER_AGENTS = List.of(
@@ -70,136 +92,330 @@ public class EncarCrawler {
                 .build();
     }
 
-    public void runOnce() {
+    public int runOnce() {
+        return run(null);
+    }
+
+    /** 체크포인트(cursor, offset 또는 완료 파티션 목록)부터 같은 run_id 로 이어서 실행 */
+    public int resume(CrawlCheckpointStore.Checkpoint cp) {
+        return run(cp);
+    }
+
+    private int run(CrawlCheckpointStore.Checkpoint cp) {
         Instant started = Instant.now();
-        String runId = recorder.recordStart("ENCAR", started);
+        String runId = cp == null ? recorder.recordStart("ENCAR", started) : recorder.recordResume(cp.runId());
 
-        int totalFetched = 0;
-        String cursor = "";
-        int offset = 0;
-        int tryCount = 0;
+        AtomicInteger totalFetched = new AtomicInteger(cp == null ? 0 : cp.items());
+        ExecutorService detailPool = Executors.newFixedThreadPool(Math.max(1, detailConcurrency));
+        Set<String> seen = ConcurrentHashMap.newKeySet(); // 파티션 경계/커서 이동으로 중복 노출된 차량 1회만 상세 조회
+        boolean complete;                                  // 목록 끝까지 정상 도달 여부 (DELTA 미노출 정리 조건)
 
         try {
-            jdbc.update("TRUNCATE TABLE raw_encar");
-            log.info("[ENCAR] TRUNCATE raw_encar 완료");
-
-            while (true) {
-                StringBuilder url = new StringBuilder(
-                        "https://api.encar.com/search/car/list/mobile?count=true" +
-                                "&q=(And.Hidden.N._.CarType.A.)" +
-                                "&sr=%7CMobilePriceAsc%7C" + offset + "%7C" + PAGE_SIZE +
-                                "&inav=%7CMetadata%7CSort"
-                );
-                if (!cursor.isBlank()) {
-                    // 브라우저와 동일하게 ',' 등을 그대로 보냄(인코딩하지 않음)
-                    url.append("&cursor=").append(cursor);
-                }
-
-                log.debug("[ENCAR] 목록 요청: {}", url);
+            RawPayloadWriter.Session session = cp == null
+                    ? raw.open(CrawlSource.ENCAR, runId)
+                    : raw.resume(CrawlSource.ENCAR, runId);
+
+            boolean partitioned = cp == null ? partitionEnabled : "partitioned".equals(cp.strState("mode", ""));
+            if (partitioned) {
+                complete = runPartitioned(runId, cp, session, detailPool, seen, totalFetched);
+            } else {
+                String cursor = cp == null ? "" : cp.strState("cursor", "");
+                int offset = cp == null ? 0 : cp.intState("offset", 0);
+                if (cp != null) log.info("[ENCAR] 재개 runId={} offset={} cursor={}", runId, offset, cursor);
+                complete = crawlList("ENCAR", BASE_QUERY, cursor, offset, session, detailPool, seen, totalFetched,
+                        (c, o) -> checkpoints.save(runId, CrawlSource.ENCAR, totalFetched.get(),
+                                Map.of("cursor", c, "offset", o)));
+            }
 
-                try {
-                    Object any = getJsonAny(url.toString());
-                    if (!(any instanceof Map)) {
-                        log.warn("[ENCAR] 목록 응답이 Map 아님 → 종료");
-                        break;
-                    }
-                    Map<String, Object> obj = (Map<String, Object>) any;
+            raw.finish(session, complete);
+            if (complete) checkpoints.markDone(runId);
+            recorder.recordEnd(runId, totalFetched.get(), Instant.now());
+        } catch (Exception e) {
+            recorder.recordFail(runId, totalFetched.get(), Instant.now(), e.toString());
+            log.error("[ENCAR] runOnce 실패", e);
+            throw new CrawlFailedException(CrawlSource.ENCAR, runId, totalFetched.get(), e);
+        } finally {
+            detailPool.shutdownNow();
+        }
+        return totalFetched.get();
+    }
 
-                    List<Map<String, Object>> list = (List<Map<String, Object>>) Optional
-                            .ofNullable(obj.get("SearchResults"))
-                            .orElse(List.of());
+    /* ======================= 가격대 파티션 병렬 ======================= */
 
-                    Map<String, Object> paging = (Map<String, Object>) Optional
-                            .ofNullable(obj.get("paging"))
-                            .orElse(obj.get("Paging"));
+    /** 가격(만원) 구간 [lo, hi] — hi < 0 이면 상한 없음 */
+    private record PriceBand(int lo, int hi) {
+        String query() {
+            return "(And.Hidden.N._.CarType.A._.Price.range(" + lo + ".." + (hi < 0 ? "" : hi) + ").)";
+        }
+        String label() { return lo + ".." + (hi < 0 ? "" : hi); }
+    }
 
-                    String nextCursor = "";
-                    if (paging != null && paging.get("next") != null) {
-                        nextCursor = String.valueOf(paging.get("next")).trim();
-                    }
+    /** 체크포인트 plan 항목 [lo, hi, count] ↔ (구간, 건수) */
+    private static List<Integer> planEntry(Map.Entry<PriceBand, Integer> e) {
+        return List.of(e.getKey().lo(), e.getKey().hi(), e.getValue());
+    }
 
-                    if (list.isEmpty()) {
-                        log.info("[ENCAR] SearchResults 비어있음 → 종료");
-                        break;
-                    }
+    private static Map.Entry<PriceBand, Integer> planEntry(Object o) {
+        List<?> v = (List<?>) o;
+        return Map.entry(new PriceBand(((Number) v.get(0)).intValue(), ((Number) v.get(1)).intValue()),
+                ((Number) v.get(2)).intValue());
+    }
 
-                    log.info("[ENCAR] 목록 batch={} 누적={} nextCursor={}",
-                            list.size(), totalFetched + list.size(), nextCursor.isBlank() ? "없음" : nextCursor);
+    /**
+     * 가격대별로 목록 커서를 따로 돌려 병렬 수집
+     * 1) 초기 구간마다 Count 만 조회 → partitionMaxSize 보다 큰 구간은 반으로 쪼개 재조회 (리밸런싱)
+     * 2) 큰 구간부터 partitionConcurrency 개 동시 실행 (긴 작업 먼저 → 꼬리 지연 최소화)
+     * 3) 끝난 구간은 체크포인트(done 목록)에 기록 → 재개 시 건너뜀
+     *    구간 계획(plan)도 체크포인트에 남겨 재개 시 다시 나누지 않음 (재분할되면 done 라벨과 어긋나 같은 매물을 또 수집)
+     *    중단 시점에 돌던 구간은 처음부터 다시 돌고, 이미 적재된 키는 RawPayloadWriter.resume 이 건너뜀
+     */
+    private boolean runPartitioned(String runId, CrawlCheckpointStore.Checkpoint cp, RawPayloadWriter.Session session,
+                                   ExecutorService detailPool, Set<String> seen, AtomicInteger totalFetched)
+            throws InterruptedException {
+        Set<String> done = ConcurrentHashMap.newKeySet();
+        if (cp != null && cp.listState("done") != null) cp.listState("done").forEach(d -> done.add(String.valueOf(d)));
+
+        List<Map.Entry<PriceBand, Integer>> bands;
+        if (cp != null && cp.listState("plan") != null) {
+            bands = new ArrayList<>(cp.listState("plan").stream().map(EncarCrawler::planEntry).toList());
+        } else {
+            bands = planBands();
+        }
+        List<List<Integer>> plan = bands.stream().map(EncarCrawler::planEntry).toList();
+        checkpoints.save(runId, CrawlSource.ENCAR, totalFetched.get(),
+                Map.of("mode", "partitioned", "plan", plan, "done", List.copyOf(done)));
 
-                    int inserted = handleDetails(list);
-                    totalFetched += inserted;
+        bands.removeIf(e -> done.contains(e.getKey().label()));
+        bands.sort(Map.Entry.<PriceBand, Integer>comparingByValue().reversed());
+        log.info("[ENCAR] 파티션 {}개 (완료 {}개 제외) sizes={}", bands.size(), done.size(),
+                bands.stream().map(e -> e.getKey().label() + "=" + e.getValue()).toList());
 
-                    // 종료 조건
-                    if (list.size() < PAGE_SIZE || (nextCursor.isBlank() && !cursor.isBlank())) {
-                        log.warn("[ENCAR] 마지막 페이지 추정 → 종료");
-                        break;
-                    }
-                    if (!nextCursor.isBlank() && nextCursor.equals(cursor)) {
-                        log.warn("[ENCAR] nextCursor 동일 → 종료");
-                        break;
+        AtomicBoolean allComplete = new AtomicBoolean(true);
+        ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, partitionConcurrency));
+        try {
+            List<Future<?>> futures = new ArrayList<>(bands.size());
+            for (Map.Entry<PriceBand, Integer> e : bands) {
+                PriceBand band = e.getKey();
+                futures.add(workers.submit(() -> {
+                    boolean ok = crawlList("ENCAR:" + band.label(), band.query(), "", 0,
+                            session, detailPool, seen, totalFetched, (c, o) -> {});
+                    if (!ok) {
+                        allComplete.set(false);
+                        return null;
                     }
-
-                    if (!nextCursor.isBlank()) cursor = nextCursor;
-                    offset += PAGE_SIZE;
-
-                    Thread.sleep(500);
-                    tryCount = 0;
-                } catch (Exception e) {
-                    log.warn("[ENCAR] 목록 오류: {}", e.toString());
-                    if (++tryCount > 5) {
-                        log.warn("[ENCAR] 재시도 한도 초과 → 종료");
-                        break;
+                    synchronized (done) { // 늦게 찍은 스냅샷이 먼저 찍은 것을 덮지 않도록
+                        done.add(band.label());
+                        checkpoints.save(runId, CrawlSource.ENCAR, totalFetched.get(),
+                                Map.of("mode", "partitioned", "plan", plan, "done", List.copyOf(done)));
                     }
-                    Thread.sleep(1000L * tryCount);
+                    return null;
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException ex) {
+                    log.warn("[ENCAR] 파티션 실패: {}", ex.getCause().toString());
+                    allComplete.set(false);
                 }
             }
+        } finally {
+            workers.shutdownNow();
+        }
+        return allComplete.get();
+    }
+
+    /** 초기 구간 Count 조회 후 큰 구간은 반씩 분할. 반환: (구간, 건수) */
+    private List<Map.Entry<PriceBand, Integer>> planBands() throws InterruptedException {
+        Deque<PriceBand> todo = new ArrayDeque<>();
+        int lo = 0;
+        for (int edge : PRICE_EDGES) {
+            todo.add(new PriceBand(lo, edge - 1));
+            lo = edge;
+        }
+        todo.add(new PriceBand(lo, -1));
+
+        List<Map.Entry<PriceBand, Integer>> out = new ArrayList<>();
+        while (!todo.isEmpty()) {
+            PriceBand b = todo.poll();
+            int count = countOf(b.query());
+            boolean splittable = b.hi() < 0 || b.hi() > b.lo();
+            if (count > partitionMaxSize && splittable) {
+                int mid = b.hi() < 0 ? b.lo() * 2 : (b.lo() + b.hi()) / 2;
+                todo.add(new PriceBand(b.lo(), mid));
+                todo.add(new PriceBand(mid + 1, b.hi()));
+                log.debug("[ENCAR] 파티션 분할 {} ({}건) → {}..{} / {}..", b.label(), count, b.lo(), mid, mid + 1);
+            } else if (count > 0) {
+                out.add(Map.entry(b, count));
+            }
+        }
+        return out;
+    }
 
-            recorder.recordEnd(runId, totalFetched, Instant.now());
+    /** count=true 목록 1건 요청으로 구간 전체 건수만 확인 (실패 시 분할 없이 크롤 대상으로 둠) */
+    @SuppressWarnings("unchecked")
+    private int countOf(String query) throws InterruptedException {
+        String url = "https://api.encar.com/search/car/list/mobile?count=true&q=" + query +
+                "&sr=%7CMobilePriceAsc%7C0%7C1";
+        try {
+            Object any = getJsonAny(url);
+            if (any instanceof Map<?, ?> m && m.get("Count") instanceof Number n) return n.intValue();
+        } catch (InterruptedException ie) {
+            throw ie;
         } catch (Exception e) {
-            recorder.recordFail(runId, totalFetched, Instant.now(), e.toString());
-            log.error("[ENCAR] runOnce 실패", e);
+            log.warn("[ENCAR] Count 조회 실패 q={} err={}", query, e.toString());
         }
+        return 1;
     }
 
-    private int handleDetails(List<Map<String, Object>> list) throws Exception {
-        int inserted = 0;
-        for (int i = 0; i < list.size(); i += 20) {
-            List<Map<String, Object>> slice = list.subList(i, Math.min(i + 20, list.size()));
-            List<String> ids = new ArrayList<>();
-            for (Map<String, Object> item : slice) {
-                Object id = item.get("Id");
-                if (id != null) ids.add(String.valueOf(id));
+    /* ======================= 목록 커서 순회 ======================= */
+
+    @FunctionalInterface
+    private interface PageCheckpoint { void saved(String cursor, int offset); }
+
+    /**
+     * 목록 커서 하나를 끝까지 순회하며 페이지마다 상세 조회/저장.
+     * @return 마지막 페이지까지 정상 도달했으면 true
+     */
+    @SuppressWarnings("unchecked")
+    private boolean crawlList(String tag, String query, String cursor, int offset, RawPayloadWriter.Session session,
+                              ExecutorService detailPool, Set<String> seen, AtomicInteger totalFetched,
+                              PageCheckpoint onPage) throws InterruptedException {
+        int tryCount = 0;
+        while (true) {
+            StringBuilder url = new StringBuilder(
+                    "https://api.encar.com/search/car/list/mobile?count=true" +
+                            "&q=" + query +
+                            "&sr=%7CMobilePriceAsc%7C" + offset + "%7C" + PAGE_SIZE +
+                            "&inav=%7CMetadata%7CSort"
+            );
+            if (!cursor.isBlank()) {
+                // 브라우저와 동일하게 ',' 등을 그대로 보냄(인코딩하지 않음)
+                url.append("&cursor=").append(cursor);
             }
-            if (ids.isEmpty()) continue;
 
-            String detailUrl = "https://api.encar.com/v1/readside/vehicles/view?vehicleIds=" + String.join(",", ids);
+            log.debug("[{}] 목록 요청: {}", tag, url);
+
             try {
-                Object any = getJsonAny(detailUrl);
-                List<Map<String, Object>> vehicles;
-                if (any instanceof List) {
-                    vehicles = (List<Map<String, Object>>) any;
-                } else {
-                    Map<String, Object> obj = (Map<String, Object>) any;
-                    Object v = obj.getOrDefault("Vehicles", obj.get("vehicles"));
-                    vehicles = (v instanceof List) ? (List<Map<String, Object>>) v : List.of();
+                Object any = getJsonAny(url.toString());
+                if (!(any instanceof Map)) {
+                    log.warn("[{}] 목록 응답이 Map 아님 → 종료", tag);
+                    return false;
                 }
+                Map<String, Object> obj = (Map<String, Object>) any;
 
-                if (!vehicles.isEmpty()) {
-                    String sql = "INSERT INTO raw_encar(payload) VALUES (CAST(? AS JSON)) " +
-                            "ON DUPLICATE KEY UPDATE payload=VALUES(payload), fetched_at=CURRENT_TIMESTAMP";
-                    List<Object[]> params = new ArrayList<>(vehicles.size());
-                    for (Map<String, Object> v : vehicles) {
-                        params.add(new Object[]{mapper.writeValueAsString(v)});
-                    }
-                    int[] res = jdbc.batchUpdate(sql, params);
-                    inserted += res.length;
+                List<Map<String, Object>> list = (List<Map<String, Object>>) Optional
+                        .ofNullable(obj.get("SearchResults"))
+                        .orElse(List.of());
+
+                Map<String, Object> paging = (Map<String, Object>) Optional
+                        .ofNullable(obj.get("paging"))
+                        .orElse(obj.get("Paging"));
+
+                String nextCursor = "";
+                if (paging != null && paging.get("next") != null) {
+                    nextCursor = String.valueOf(paging.get("next")).trim();
+                }
+
+                if (list.isEmpty()) {
+                    log.info("[{}] SearchResults 비어있음 → 종료", tag);
+                    return true;
+                }
+                metrics.pages(CrawlSource.ENCAR, 1);
+
+                int inserted = handleDetails(session, list, detailPool, seen);
+                int total = totalFetched.addAndGet(inserted);
+                log.info("[{}] 목록 batch={} 저장={} 누적={} nextCursor={}",
+                        tag, list.size(), inserted, total, nextCursor.isBlank() ? "없음" : nextCursor);
+
+                // 종료 조건
+                if (list.size() < PAGE_SIZE || (nextCursor.isBlank() && !cursor.isBlank())) {
+                    log.warn("[{}] 마지막 페이지 추정 → 종료", tag);
+                    return true;
+                }
+                if (!nextCursor.isBlank() && nextCursor.equals(cursor)) {
+                    log.warn("[{}] nextCursor 동일 → 종료", tag);
+                    return false;
+                }
+
+                if (!nextCursor.isBlank()) cursor = nextCursor;
+                offset += PAGE_SIZE;
+                onPage.saved(cursor, offset);
+
+                tryCount = 0;
+            } catch (InterruptedException ie) {
+                throw ie;
+            } catch (Exception e) {
+                log.warn("[{}] 목록 오류: {}", tag, e.toString());
+                if (++tryCount > 5) {
+                    log.warn("[{}] 재시도 한도 초과 → 종료", tag);
+                    return false;
                 }
-            } catch (Exception ex) {
-                log.warn("[ENCAR] 상세 오류 ids={} err={}", ids, ex.toString());
+                metrics.retry(CrawlSource.ENCAR, "list");
+                Thread.sleep(1000L * tryCount);
             }
-            Thread.sleep(250);
         }
-        return inserted;
+    }
+
+    /**
+     * 목록 1페이지(최대 200건) → 20건씩 view API 병렬 호출 → 한 번에 저장.
+     * - 호출 속도는 호스트별 AIMD 제한기(HostRateLimiters), 동시성은 detailPool 크기로 제한
+     * - 403/429 는 getJsonAny 의 UA 교체 + 백오프 그대로 사용
+     * - slice 하나 실패해도 나머지는 저장
+     * - seen 에 이미 있는 Id 는 건너뜀 (파티션 간/커서 이동 중복)
+     *   seen 은 먼저 선점하고, 상세 실패 slice / 저장 실패 시 다시 빼서 같은 커서 재시도 때 다시 처리되게 함
+     *   (안 빼면 재시도가 아무것도 저장 안 하고 DELTA sweepUnseen 이 살아 있는 매물을 지움)
+     */
+    private int handleDetails(RawPayloadWriter.Session session, List<Map<String, Object>> list,
+                              ExecutorService detailPool, Set<String> seen) throws Exception {
+        // 이번 실행에서 이미 처리한 차량은 제외 (vehicle_id 기준 중복 제거)
+        List<String> fresh = new ArrayList<>(list.size());
+        for (Map<String, Object> item : list) {
+            Object id = item.get("Id");
+            if (id != null && seen.add(String.valueOf(id))) fresh.add(String.valueOf(id));
+        }
+        List<List<String>> slices = new ArrayList<>();
+        for (int i = 0; i < fresh.size(); i += DETAIL_SLICE) {
+            slices.add(fresh.subList(i, Math.min(i + DETAIL_SLICE, fresh.size())));
+        }
+
+        List<Future<List<Map<String, Object>>>> futures = new ArrayList<>(slices.size());
+        for (List<String> ids : slices) {
+            futures.add(detailPool.submit(() -> fetchVehicles(ids)));
+        }
+
+        List<Object[]> params = new ArrayList<>(list.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                for (Map<String, Object> v : futures.get(i).get()) {
+                    params.add(new Object[]{mapper.writeValueAsString(v)});
+                }
+            } catch (ExecutionException ex) {
+                log.warn("[ENCAR] 상세 오류 ids={} err={}", slices.get(i), ex.getCause().toString());
+                seen.removeAll(slices.get(i));
+                session.markIncomplete();
+            }
+        }
+        if (params.isEmpty()) return 0;
+
+        try {
+            return raw.write(session, params);
+        } catch (RuntimeException e) {
+            fresh.forEach(seen::remove);
+            throw e;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> fetchVehicles(List<String> ids) throws Exception {
+        String detailUrl = "https://api.encar.com/v1/readside/vehicles/view?vehicleIds=" + String.join(",", ids);
+        Object any = getJsonAny(detailUrl);
+        if (any instanceof List) {
+            return (List<Map<String, Object>>) any;
+        }
+        Map<String, Object> obj = (Map<String, Object>) any;
+        Object v = obj.getOrDefault("Vehicles", obj.get("vehicles"));
+        return (v instanceof List) ? (List<Map<String, Object>>) v : List.of();
     }
 
     /**
@@ -221,14 +437,18 @@ public class EncarCrawler {
                 byte[] body = resp.body() != null ? resp.body().bytes() : new byte[0];
 
                 if (code == 200 && ctype.contains("application/json")) {
+                    long t0 = System.nanoTime();
                     var root = mapper.readTree(body);
+                    Object parsed;
                     if (root.isArray()) {
-                        return mapper.convertValue(root, new TypeReference<List<Map<String, Object>>>() {});
+                        parsed = mapper.convertValue(root, new TypeReference<List<Map<String, Object>>>() {});
                     } else if (root.isObject()) {
-                        return mapper.convertValue(root, new TypeReference<Map<String, Object>>() {});
+                        parsed = mapper.convertValue(root, new TypeReference<Map<String, Object>>() {});
                     } else {
-                        return root; // 안전하게 원형 반환
+                        parsed = root; // 안전하게 원형 반환
                     }
+                    metrics.parsed(CrawlSource.ENCAR, System.nanoTime() - t0);
+                    return parsed;
                 }
 
                 String peek = new String(body, 0, Math.min(body.length, 300), StandardCharsets.UTF_8);
@@ -236,6 +456,7 @@ public class EncarCrawler {
                 if (code == 403 || code == 429) {
                     log.warn("[ENCAR] {} 차단/리밋 attempt={} ua={} peek={}", code, attempt, ua, peek);
                     last = new IllegalStateException("HTTP " + code);
+                    if (attempt < MAX_TRY) metrics.retry(CrawlSource.ENCAR, "http_" + code);
                     Thread.sleep(BACKOFF_MS * attempt); // 지수 백오프
                     continue; // UA 바꿔 재시도
                 }
@@ -246,6 +467,7 @@ public class EncarCrawler {
             } catch (Exception e) {
                 last = e;
                 log.warn("[ENCAR] fetch 오류 attempt={} ua={} err={}", attempt, ua, e.toString());
+                if (attempt < MAX_TRY) metrics.retry(CrawlSource.ENCAR, "error");
                 Thread.sleep(BACKOFF_MS * attempt);
             }
         }
@@ -0,0 +1,79 @@
+package com.carizon.crawler;
+
+import com.carizon.config.HttpClientProperties;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 호스트별 AdaptiveRateLimiter 모음
+ * - 공용 OkHttpClient 의 AdaptiveRateInterceptor 가 모든 요청 앞뒤로 호출 → 크롤러 코드는 속도 조절을 신경 쓰지 않음
+ * - 설정: crawl.http.rate.* (기본), crawl.http.hosts.{host}.initial-rps / min-rps / max-rps / target-latency-ms
+ * - 현재 속도는 GET /admin/crawl/rate-limits
+ * - 메트릭 (tag host)
+ *   crawl.http.rate.rps       : 현재 허용 속도
+ *   crawl.http.rate.throttled : 감속 신호(429/403/503, 지연 초과, IO 오류) 누적
+ *   crawl.http.rate.wait      : 토큰/Retry-After 대기 시간 (요청 수 + 누적 시간)
+ */
+@Slf4j
+@Component
+public class HostRateLimiters {
+
+    private final HttpClientProperties props;
+    private final MeterRegistry registry;
+    private final Map<String, AdaptiveRateLimiter> limiters = new ConcurrentHashMap<>();
+
+    public HostRateLimiters(HttpClientProperties props, MeterRegistry registry) {
+        this.props = props;
+        this.registry = registry;
+    }
+
+    public boolean enabled() {
+        return props.getRate().isEnabled();
+    }
+
+    public AdaptiveRateLimiter forHost(String host) {
+        return limiters.computeIfAbsent(host, this::create);
+    }
+
+    public List<AdaptiveRateLimiter.Snapshot> snapshot() {
+        return limiters.values().stream()
+                .map(AdaptiveRateLimiter::snapshot)
+                .sorted(Comparator.comparing(AdaptiveRateLimiter.Snapshot::host))
+                .toList();
+    }
+
+    private AdaptiveRateLimiter create(String host) {
+        HttpClientProperties.Rate d = props.getRate();
+        HttpClientProperties.Host h = props.getHosts().get(host);
+        AdaptiveRateLimiter.Settings s = new AdaptiveRateLimiter.Settings(
+                h != null && h.getInitialRps() > 0 ? h.getInitialRps() : d.getInitialRps(),
+                h != null && h.getMinRps() > 0 ? h.getMinRps() : d.getMinRps(),
+                h != null && h.getMaxRps() > 0 ? h.getMaxRps() : d.getMaxRps(),
+                h != null && h.getTargetLatencyMs() > 0 ? h.getTargetLatencyMs() : d.getTargetLatencyMs(),
+                d.getIncreaseStep(), d.getDecreaseFactor(), d.getCoolDownMs());
+        log.info("[RATE] {} limiter 생성 {}", host, s);
+        AdaptiveRateLimiter limiter = new AdaptiveRateLimiter(host, s);
+        register(host, limiter);
+        return limiter;
+    }
+
+    private void register(String host, AdaptiveRateLimiter l) {
+        Gauge.builder("crawl.http.rate.rps", l, AdaptiveRateLimiter::rate)
+                .tag("host", host).register(registry);
+        FunctionCounter.builder("crawl.http.rate.throttled", l, AdaptiveRateLimiter::throttledCount)
+                .tag("host", host).register(registry);
+        FunctionTimer.builder("crawl.http.rate.wait", l,
+                        AdaptiveRateLimiter::acquiredCount, AdaptiveRateLimiter::waitedSeconds, TimeUnit.SECONDS)
+                .tag("host", host).register(registry);
+    }
+}
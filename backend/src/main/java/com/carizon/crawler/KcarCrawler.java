@@ -1,137 +1,288 @@
 package com.carizon.crawler;
 
+import com.carizon.batch.CrawlCheckpointStore;
 import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
 import com.carizon.common.KcarCrypto;
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
-import java.net.Proxy;
 import java.nio.charset.StandardCharsets;
 import java.time.Instant;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class KcarCrawler {
 
-    private final JdbcTemplate jdbc;
+    private final RawPayloadWriter raw;
     private final CrawlRunRecorder recorder;
+    private final CrawlCheckpointStore checkpoints;
+    private final MeterRegistry meters;
+    private final CrawlMetrics metrics;
     private final ObjectMapper mapper = new ObjectMapper();
 
-    // 프록시 강제 미사용 (필요 시 교체)
-    private final OkHttpClient http = new OkHttpClient.Builder()
-            .proxy(Proxy.NO_PROXY)
-            .build();
+    // 공용 클라이언트 (HttpClientConfig) — 프록시 미사용/타임아웃/호스트 제한은 crawl.http 설정
+    private final OkHttpClient http;
 
     private static final int LIMIT = 30; // KCar 기본 페이지 크기
     private static final String URL = "https://mapi.kcar.com/bc/search/list/drct";
 
-    public void runOnceFull() {
-        Instant started = Instant.now();
-        String runId = recorder.recordStart("KCAR", started);
-        int totalInserted = 0;
+    /**
+     * 페이지 병렬 수집 워커 수 (1 이면 기존 fetch→parse→persist 파이프라인).
+     * 검색 필터 파라미터 스펙이 공개돼 있지 않아 가격/제조사 대신 pageno 를 워커들이 나눠 가짐(work-stealing)
+     */
+    @Value("${crawl.kcar.workers:1}")
+    private int workers;
 
-        try {
-            // 스냅샷 전략: 싹 비우고 시작 (원하면 upsert-only로 바꿔도 됨)
-            jdbc.update("TRUNCATE TABLE raw_kcar");
-            log.info("[KCAR] TRUNCATE raw_kcar 완료");
-
-            int page = 1;
-            int emptyCount = 0;
-
-            while (true) {
-                String paramJson = String.format(Locale.ROOT,
-                        "{\"pageno\":%d,\"limit\":%d,\"orderFlag\":true," +
-                                "\"orderBy\":\"time_deal_yn:desc|time_deal_end_dt:asc|event_ordr:asc\"," +
-                                "\"wr_in_multi_columns\":\"cntr_rgn_cd|cntr_cd\"}",
-                        page, LIMIT);
-
-                String enc;
-                try {
-                    enc = KcarCrypto.encrypt(paramJson);
-                } catch (Exception e) {
-                    log.warn("[KCAR] 암호화 실패 page={} err={}", page, e.toString());
-                    break;
-                }
-
-                String bodyJson = "{\"enc\":\"" + enc + "\"}";
-                Request req = new Request.Builder()
-                        .url(URL)
-                        .post(RequestBody.create(bodyJson, MediaType.parse("application/json")))
-                        .header("Content-Type", "application/json")
-                        .header("Accept", "application/json, text/plain, */*")
-                        .header("Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7")
-                        .header("Origin", "https://m.kcar.com")
-                        .header("Referer", "https://m.kcar.com/")
-                        .header("User-Agent", "Mozilla/5.0 (Linux; Android 6.0; Nexus 5 Build/MRA58N) " +
-                                "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/140.0.0.0 Mobile Safari/537.36")
-                        .build();
-
-                try (Response resp = http.newCall(req).execute()) {
-                    int code = resp.code();
-                    String ctype = String.valueOf(resp.header("Content-Type"));
-                    byte[] body = resp.body() != null ? resp.body().bytes() : new byte[0];
-
-                    if (code != 200) {
-                        String peek = new String(body, 0, Math.min(body.length, 200), StandardCharsets.ISO_8859_1)
-                                .replaceAll("\\p{Cntrl}", ".");
-                        log.warn("[KCAR] HTTP {} page={} peek={}", code, page, peek);
-                        break;
-                    }
-                    if (!ctype.contains("application/json")) {
-                        String peek = new String(body, 0, Math.min(body.length, 200), StandardCharsets.ISO_8859_1)
-                                .replaceAll("\\p{Cntrl}", ".");
-                        log.warn("[KCAR] NOT_JSON page={} type={} peek={}", page, ctype, peek);
-                        break;
-                    }
+    public int runOnceFull() {
+        return run(null);
+    }
 
-                    Map<String, Object> root = mapper.readValue(body, new TypeReference<>() {});
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> data = (Map<String, Object>) root.getOrDefault("data", Map.of());
-                    @SuppressWarnings("unchecked")
-                    List<Map<String, Object>> rows = (List<Map<String, Object>>) data.getOrDefault("rows", List.of());
+    /** 체크포인트의 마지막 저장 페이지 다음부터 같은 run_id 로 이어서 실행 */
+    public int resume(CrawlCheckpointStore.Checkpoint cp) {
+        return run(cp);
+    }
 
-                    log.info("[KCAR] page={} rows={}", page, rows.size());
+    private int run(CrawlCheckpointStore.Checkpoint cp) {
+        Instant started = Instant.now();
+        String runId = cp == null ? recorder.recordStart("KCAR", started) : recorder.recordResume(cp.runId());
+        int totalInserted = cp == null ? 0 : cp.items();
 
-                    if (rows.isEmpty()) {
-                        emptyCount++;
-                        // 두 페이지 연속으로 비면 종료 (안정 종료)
-                        if (emptyCount >= 2) {
-                            log.info("[KCAR] 연속 빈 페이지 → 종료");
-                            break;
-                        }
-                        page++;
-                        Thread.sleep(500);
-                        continue;
-                    }
-                    emptyCount = 0;
-
-                    // UPSERT (car_cd UNIQUE)
-                    String sql = "INSERT INTO raw_kcar(payload) VALUES (CAST(? AS JSON)) " +
-                            "ON DUPLICATE KEY UPDATE payload=VALUES(payload), fetched_at=CURRENT_TIMESTAMP";
-                    List<Object[]> params = new ArrayList<>(rows.size());
-                    for (Map<String, Object> r : rows) {
-                        params.add(new Object[]{ mapper.writeValueAsString(r) });
-                    }
-                    int[] res = jdbc.batchUpdate(sql, params);
-                    totalInserted += res.length;
+        try {
+            // FULL: 싹 비우고 시작 / DELTA: car_cd + payload_hash 비교로 변경분만 UPSERT / 재개: 그대로 이어서
+            RawPayloadWriter.Session session = cp == null
+                    ? raw.open(CrawlSource.KCAR, runId)
+                    : raw.resume(CrawlSource.KCAR, runId);
+            int firstPage = cp == null ? 1 : cp.intState("page", 0) + 1;
+            if (cp != null) log.info("[KCAR] 재개 runId={} page={} 누적={}", runId, firstPage, totalInserted);
 
-                    // 다음 페이지
-                    page++;
-                    Thread.sleep(350);
-                }
+            if (workers > 1) {
+                AtomicInteger saved = new AtomicInteger(totalInserted);
+                boolean complete = runParallel(runId, firstPage, session, saved);
+                totalInserted = saved.get();
+                raw.finish(session, complete);
+                if (complete) checkpoints.markDone(runId);
+                recorder.recordEnd(runId, totalInserted, Instant.now());
+                return totalInserted;
             }
 
+            // fetch → parse → persist 파이프라인 (네트워크/DB 대기 겹치기)
+            int[] emptyCount = {0}; // parse 단계 전용(단일 스레드)
+            int[] saved = {totalInserted}; // persist 단계 전용 — 체크포인트 누적 건수
+            CrawlPipeline<Object[]> pipeline = new CrawlPipeline<>("KCAR", meters, CrawlPipeline.DEFAULT_QUEUE_DEPTH);
+            totalInserted += pipeline.run(firstPage,
+                    this::fetchPage,
+                    (page, body) -> parsePage(page, body, emptyCount),
+                    (page, rows) -> {
+                        int n = persistPage(session, page, rows);
+                        saved[0] += n;
+                        checkpoints.save(runId, CrawlSource.KCAR, saved[0], Map.of("page", page));
+                        return n;
+                    });
+            raw.finish(session, pipeline.completed());
+            if (pipeline.completed()) checkpoints.markDone(runId);
+
             recorder.recordEnd(runId, totalInserted, Instant.now());
         } catch (Exception e) {
+            // 파이프라인 중단이면 실패 전까지 저장된 건수까지 포함
+            if (e instanceof CrawlPipeline.Failure f) totalInserted += f.saved();
             recorder.recordFail(runId, totalInserted, Instant.now(), e.toString());
             log.error("[KCAR] runOnceFull 실패", e);
+            throw new CrawlFailedException(CrawlSource.KCAR, runId, totalInserted, e);
+        }
+        return totalInserted;
+    }
+
+    /* ---------------- page-parallel (work-stealing) ---------------- */
+
+    /**
+     * workers 개 가상 스레드가 공용 카운터에서 다음 pageno 를 가져가 fetch→parse→저장
+     * - 빠른 워커가 더 많은 페이지를 가져가므로 느린 페이지가 있어도 자동으로 균형
+     * - 연속 두 페이지가 비면 그 앞 페이지부터는 더 가져가지 않음 (기존 종료 조건과 동일)
+     * - 페이지 사이 정렬이 밀려 같은 차량이 두 번 나오면 car_cd 로 한 번만 저장
+     * - 체크포인트는 "빠짐없이 끝난 연속 구간"의 마지막 페이지와 그 구간의 저장 건수 → 재개 시 누락/중복 집계 없음
+     */
+    private boolean runParallel(String runId, int firstPage, RawPayloadWriter.Session session, AtomicInteger saved) {
+        AtomicInteger next = new AtomicInteger(firstPage);
+        AtomicInteger stopAt = new AtomicInteger(Integer.MAX_VALUE);
+        AtomicBoolean failed = new AtomicBoolean(false);
+        Set<Integer> empty = ConcurrentHashMap.newKeySet();
+        Set<String> seen = ConcurrentHashMap.newKeySet();
+        TreeMap<Integer, Integer> finishedAhead = new TreeMap<>(); // 끝났지만 앞 페이지가 남은 page → 저장 건수
+        int[] committed = {firstPage - 1};
+        int[] committedItems = {saved.get()};
+        int[] checkpointed = {firstPage - 1}; // checkpoints.save 순서 보장 (saveLock)
+        Object saveLock = new Object();
+
+        log.info("[KCAR] 병렬 수집 workers={} firstPage={}", workers, firstPage);
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int w = 0; w < workers; w++) {
+                vt.submit(() -> {
+                    while (!failed.get()) {
+                        int page = next.getAndIncrement();
+                        if (page >= stopAt.get()) break;
+                        try {
+                            byte[] body = fetchPage(page);
+                            if (body == null) {
+                                failed.set(true);
+                                break;
+                            }
+                            List<Object[]> rows = rowsOf(page, body);
+                            int n = 0;
+                            if (rows.isEmpty()) {
+                                empty.add(page);
+                                if (empty.contains(page - 1)) stopAt.accumulateAndGet(page - 1, Math::min);
+                                if (empty.contains(page + 1)) stopAt.accumulateAndGet(page, Math::min);
+                            } else {
+                                List<Object[]> fresh = new ArrayList<>(rows.size());
+                                for (Object[] r : rows) {
+                                    String key = keyOf((String) r[0]);
+                                    if (key == null || seen.add(key)) fresh.add(r);
+                                }
+                                if (!fresh.isEmpty()) n = persistPage(session, page, fresh);
+                                saved.addAndGet(n);
+                            }
+                            int page0, items0;
+                            synchronized (finishedAhead) {
+                                finishedAhead.put(page, n);
+                                Integer done;
+                                while ((done = finishedAhead.remove(committed[0] + 1)) != null) {
+                                    committed[0]++;
+                                    committedItems[0] += done;
+                                }
+                                page0 = committed[0];
+                                items0 = committedItems[0];
+                            }
+                            // 체크포인트 건수 = 연속 구간까지만 (앞선 페이지 건수는 재개 시 다시 수집되므로 제외)
+                            synchronized (saveLock) {
+                                if (page0 > checkpointed[0]) {
+                                    checkpoints.save(runId, CrawlSource.KCAR, items0, Map.of("page", page0));
+                                    checkpointed[0] = page0;
+                                }
+                            }
+                        } catch (Exception e) {
+                            log.error("[KCAR] page={} 실패 → 전체 중단: {}", page, e.toString(), e);
+                            failed.set(true);
+                        }
+                    }
+                });
+            }
+        } // close() = 모든 워커 종료까지 대기
+
+        log.info("[KCAR] 병렬 수집 종료 saved={} lastPage={} failed={}", saved.get(), stopAt.get(), failed.get());
+        return !failed.get() && stopAt.get() != Integer.MAX_VALUE;
+    }
+
+    private String keyOf(String payload) {
+        try {
+            JsonNode v = mapper.readTree(payload).get(CrawlSource.KCAR.payloadKey());
+            return v == null ? null : v.asText();
+        } catch (Exception e) {
+            return null;
         }
     }
+
+    /* ---------------- pipeline stages ---------------- */
+
+    /** [fetch] 암호화 파라미터로 page 요청 → 응답 본문. 실패/비JSON 이면 null(종료) */
+    private byte[] fetchPage(int page) throws Exception {
+        String paramJson = String.format(Locale.ROOT,
+                "{\"pageno\":%d,\"limit\":%d,\"orderFlag\":true," +
+                        "\"orderBy\":\"time_deal_yn:desc|time_deal_end_dt:asc|event_ordr:asc\"," +
+                        "\"wr_in_multi_columns\":\"cntr_rgn_cd|cntr_cd\"}",
+                page, LIMIT);
+
+        String enc;
+        try {
+            enc = KcarCrypto.encrypt(paramJson);
+        } catch (Exception e) {
+            log.warn("[KCAR] 암호화 실패 page={} err={}", page, e.toString());
+            return null;
+        }
+
+        String bodyJson = "{\"enc\":\"" + enc + "\"}";
+        Request req = new Request.Builder()
+                .url(URL)
+                .post(RequestBody.create(bodyJson, MediaType.parse("application/json")))
+                .header("Content-Type", "application/json")
+                .header("Accept", "application/json, text/plain, */*")
+                .header("Accept-Language", "ko-KR,ko;q=0.9,en-US;q=0.8,en;q=0.7")
+                .header("Origin", "https://m.kcar.com")
+                .header("Referer", "https://m.kcar.com/")
+                .header("User-Agent", "Mozilla/5.0 (Linux; Android 6.0; Nexus 5 Build/MRA58N) " +
+                        "AppleWebKit/537.36 (KHTML, like Gecko) Chrome/140.0.0.0 Mobile Safari/537.36")
+                .build();
+
+        try (Response resp = http.newCall(req).execute()) {
+            int code = resp.code();
+            String ctype = String.valueOf(resp.header("Content-Type"));
+            byte[] body = resp.body() != null ? resp.body().bytes() : new byte[0];
+
+            if (code != 200) {
+                String peek = new String(body, 0, Math.min(body.length, 200), StandardCharsets.ISO_8859_1)
+                        .replaceAll("\\p{Cntrl}", ".");
+                log.warn("[KCAR] HTTP {} page={} peek={}", code, page, peek);
+                return null;
+            }
+            if (!ctype.contains("application/json")) {
+                String peek = new String(body, 0, Math.min(body.length, 200), StandardCharsets.ISO_8859_1)
+                        .replaceAll("\\p{Cntrl}", ".");
+                log.warn("[KCAR] NOT_JSON page={} type={} peek={}", page, ctype, peek);
+                return null;
+            }
+            return body;
+        }
+    }
+
+    /** [parse] data.rows → 원본 row JSON 목록. 두 페이지 연속으로 비면 종료 (안정 종료) */
+    private CrawlPipeline.Parsed<Object[]> parsePage(int page, byte[] body, int[] emptyCount) throws Exception {
+        List<Object[]> params = rowsOf(page, body);
+
+        if (params.isEmpty()) {
+            emptyCount[0]++;
+            boolean last = emptyCount[0] >= 2;
+            if (last) log.info("[KCAR] 연속 빈 페이지 → 종료");
+            return new CrawlPipeline.Parsed<>(List.of(), last);
+        }
+        emptyCount[0] = 0;
+        return new CrawlPipeline.Parsed<>(params, false);
+    }
+
+    /** 응답 본문 data.rows → row 별 원본 JSON */
+    @SuppressWarnings("unchecked")
+    private List<Object[]> rowsOf(int page, byte[] body) throws Exception {
+        long t0 = System.nanoTime();
+        Map<String, Object> root = mapper.readValue(body, new TypeReference<>() {});
+        Map<String, Object> data = (Map<String, Object>) root.getOrDefault("data", Map.of());
+        List<Map<String, Object>> rows = (List<Map<String, Object>>) data.getOrDefault("rows", List.of());
+
+        log.info("[KCAR] page={} rows={}", page, rows.size());
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        for (Map<String, Object> r : rows) {
+            params.add(new Object[]{ mapper.writeValueAsString(r) });
+        }
+        metrics.parsed(CrawlSource.KCAR, System.nanoTime() - t0);
+        metrics.pages(CrawlSource.KCAR, 1);
+        return params;
+    }
+
+    /** [persist] UPSERT (car_cd UNIQUE) */
+    private int persistPage(RawPayloadWriter.Session session, int page, List<Object[]> params) {
+        return raw.write(session, params);
+    }
 }
@@ -0,0 +1,252 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlSource;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.github.luben.zstd.Zstd;
+import com.github.luben.zstd.ZstdInputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 실행별 raw payload 아카이브 (로컬 파일, 추가 전용)
+ *
+ * 경로 : {crawl.archive.dir}/{source}/{yyyy-MM-dd}/{runId}.jsonl.zst
+ * 형식 : zstd 프레임을 이어 붙인 JSON Lines. RawPayloadWriter.write() 한 번 = 프레임 하나
+ *        한 줄 = {"h":payload_hash, "x":[extraColumns...], "p":원본 payload}
+ *        중간에 죽어도 이미 쓴 프레임은 그대로 읽힘 (잘린 마지막 프레임만 버림)
+ *
+ * - raw_* 에는 "현재 노출 중" 데이터만 두고, 날짜별 사본(raw_encar_20251004 등)은 이 파일로 대체
+ * - 읽기: read() → RawPayloadWriter.write() 와 같은 row 모양(Object[]{payload, extras...})으로 돌려줌
+ *   raw_* 재적재 / merge 재실행은 ArchiveReplayService
+ * - 기본 비활성 (crawl.archive.enabled). 오래된 파일을 지우지 않으므로 켜면 보관 기간 정리는 운영 몫
+ */
+@Slf4j
+@Component
+public class RawArchive {
+
+    private static final String EXT = ".jsonl.zst";
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9_-]+");
+    private static final int IMPORT_CHUNK = 5_000;
+
+    private final JdbcTemplate jdbc;
+    private final JsonFactory json = new JsonFactory();
+    private final boolean enabled;
+    private final Path dir;
+    private final int level;
+
+    public RawArchive(JdbcTemplate jdbc,
+                      @Value("${crawl.archive.enabled:false}") boolean enabled,
+                      @Value("${crawl.archive.dir:./archive}") String dir,
+                      @Value("${crawl.archive.level:3}") int level) {
+        this.jdbc = jdbc;
+        this.enabled = enabled;
+        this.dir = Paths.get(dir);
+        this.level = level;
+    }
+
+    public boolean enabled() { return enabled; }
+
+    /**
+     * 실행 하나의 아카이브 파일 (thread-safe, 프레임 단위 append)
+     * 프레임마다 열고 닫음 → 크롤이 예외로 끝나 close() 를 못 불러도 파일 핸들이 남지 않음
+     */
+    public final class Appender implements Closeable {
+        private final Path file;
+        private long written;
+
+        private Appender(Path file) throws IOException {
+            Files.createDirectories(file.getParent());
+            this.file = file;
+        }
+
+        public Path file() { return file; }
+
+        /** rows: write() 입력 그대로, hashes: 같은 순서의 payload_hash */
+        public synchronized void append(List<Object[]> rows, List<String> hashes) throws IOException {
+            if (rows.isEmpty()) return;
+            ByteArrayOutputStream buf = new ByteArrayOutputStream(rows.size() * 2048);
+            try (JsonGenerator g = json.createGenerator(buf)) {
+                g.setRootValueSeparator(null);
+                for (int i = 0; i < rows.size(); i++) {
+                    Object[] r = rows.get(i);
+                    g.writeStartObject();
+                    g.writeStringField("h", hashes.get(i));
+                    if (r.length > 1) {
+                        g.writeArrayFieldStart("x");
+                        for (int j = 1; j < r.length; j++) {
+                            if (r[j] == null) g.writeNull();
+                            else g.writeString(String.valueOf(r[j]));
+                        }
+                        g.writeEndArray();
+                    }
+                    g.writeFieldName("p");
+                    g.writeRawValue((String) r[0]);
+                    g.writeEndObject();
+                    g.writeRaw('\n');
+                }
+            }
+            ByteBuffer frame = ByteBuffer.wrap(Zstd.compress(buf.toByteArray(), level));
+            try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+                while (frame.hasRemaining()) ch.write(frame);
+            }
+            written += rows.size();
+        }
+
+        /** 통계 로그만 (파일은 append 마다 이미 닫힘) */
+        @Override
+        public synchronized void close() {
+            try {
+                log.info("[ARCHIVE] {} 닫음 rows={} size={}B", file, written, Files.size(file));
+            } catch (IOException e) {
+                log.warn("[ARCHIVE] {} 크기 조회 실패: {}", file, e.toString());
+            }
+        }
+    }
+
+    /** 비활성/생성 실패 시 null → 아카이브 없이 적재만 진행 */
+    public Appender open(CrawlSource source, String runId) {
+        if (!enabled) return null;
+        Path file = fileOf(source, LocalDate.now(), runId);
+        try {
+            log.info("[ARCHIVE] {} run={} → {}", source, runId, file);
+            return new Appender(file);
+        } catch (IOException e) {
+            log.warn("[ARCHIVE] {} 열기 실패 → 아카이브 생략: {}", file, e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * name = runId 또는 import 한 테이블명 (확장자 없이, list 결과 그대로)
+     * 외부 입력(replay ?name=)도 받으므로 [A-Za-z0-9_-] 만 허용 → 아카이브 디렉터리 밖으로 못 나감
+     */
+    public Path fileOf(CrawlSource source, LocalDate date, String name) {
+        if (name == null || !NAME.matcher(name).matches()) throw new IllegalArgumentException("bad archive name: " + name);
+        Path base = dir.toAbsolutePath().normalize();
+        Path file = base.resolve(source.name().toLowerCase()).resolve(date.toString()).resolve(name + EXT).normalize();
+        if (!file.startsWith(base)) throw new IllegalArgumentException("bad archive name: " + name);
+        return file;
+    }
+
+    /** fileOf 의 역 — 파일 경로 → 아카이브 이름 (확장자 제외) */
+    public static String nameOf(Path file) {
+        String f = file.getFileName().toString();
+        return f.endsWith(EXT) ? f.substring(0, f.length() - EXT.length()) : f;
+    }
+
+    /** 해당 날짜 파일 목록 (오래된 것부터) */
+    public List<Path> files(CrawlSource source, LocalDate date) throws IOException {
+        Path d = dir.resolve(source.name().toLowerCase()).resolve(date.toString());
+        if (!Files.isDirectory(d)) return List.of();
+        try (Stream<Path> s = Files.list(d)) {
+            return s.filter(p -> p.getFileName().toString().endsWith(EXT))
+                    .sorted(Comparator.comparing(p -> p.toFile().lastModified()))
+                    .toList();
+        }
+    }
+
+    /**
+     * 아카이브 파일을 batchSize 단위로 읽어 sink 에 전달. 반환값 = 읽은 row 수
+     * 잘린 마지막 프레임/줄은 경고 후 무시
+     */
+    public long read(Path file, int batchSize, Consumer<List<Object[]>> sink) throws IOException {
+        long n = 0;
+        List<Object[]> batch = new ArrayList<>(batchSize);
+        try (InputStream in = new ZstdInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16));
+             JsonParser p = json.createParser(in)) {
+            while (p.nextToken() == JsonToken.START_OBJECT) {
+                batch.add(readRow(p));
+                n++;
+                if (batch.size() >= batchSize) {
+                    sink.accept(batch);
+                    batch = new ArrayList<>(batchSize);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("[ARCHIVE] {} {}행 이후 읽기 중단(잘린 프레임?): {}", file, n, e.toString());
+        }
+        if (!batch.isEmpty()) sink.accept(batch);
+        return n;
+    }
+
+    private Object[] readRow(JsonParser p) throws IOException {
+        String payload = null;
+        List<Object> extras = List.of();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String f = p.currentName();
+            p.nextToken();
+            switch (f) {
+                case "p" -> {
+                    StringWriter w = new StringWriter(2048);
+                    try (JsonGenerator g = json.createGenerator(w)) {
+                        g.copyCurrentStructure(p);
+                    }
+                    payload = w.toString();
+                }
+                case "x" -> {
+                    extras = new ArrayList<>();
+                    while (p.nextToken() != JsonToken.END_ARRAY) {
+                        extras.add(p.currentToken() == JsonToken.VALUE_NULL ? null : p.getText());
+                    }
+                }
+                default -> p.skipChildren();
+            }
+        }
+        Object[] row = new Object[1 + extras.size()];
+        row[0] = payload;
+        for (int i = 0; i < extras.size(); i++) row[i + 1] = extras.get(i);
+        return row;
+    }
+
+    /**
+     * 기존 날짜별 사본 테이블(raw_encar_20251004 등)을 아카이브 파일로 옮김 (테이블 삭제는 직접)
+     * 파일명 = 테이블명. 이미 있으면 덮어쓰지 않고 실패
+     */
+    public long importTable(CrawlSource source, String table, LocalDate date) throws IOException {
+        if (!table.matches("[A-Za-z0-9_]+")) throw new IllegalArgumentException("bad table name: " + table);
+        Path file = fileOf(source, date, table);
+        if (Files.exists(file)) throw new IllegalStateException("already archived: " + file);
+
+        String cols = String.join(", ", source.extraColumns());
+        String sql = "SELECT id, CAST(payload AS CHAR) AS payload" + (cols.isEmpty() ? "" : ", " + cols) +
+                " FROM " + table + " WHERE id > ? ORDER BY id LIMIT " + IMPORT_CHUNK;
+
+        long total = 0;
+        long from = 0;
+        try (Appender a = new Appender(file)) {
+            while (true) {
+                List<Object[]> rows = new ArrayList<>(IMPORT_CHUNK);
+                long[] last = {from};
+                jdbc.query(sql, rs -> {
+                    last[0] = rs.getLong("id");
+                    Object[] r = new Object[1 + source.extraColumns().size()];
+                    r[0] = rs.getString("payload");
+                    for (int i = 0; i < source.extraColumns().size(); i++) r[i + 1] = rs.getString(source.extraColumns().get(i));
+                    rows.add(r);
+                }, from);
+                if (rows.isEmpty()) break;
+                // 사본 테이블엔 해시가 없을 수 있어 비워 둠 (재적재 시 RawPayloadWriter 가 다시 계산)
+                a.append(rows, Collections.nCopies(rows.size(), ""));
+                total += rows.size();
+                from = last[0];
+            }
+        }
+        log.info("[ARCHIVE] {} → {} rows={}", table, file, total);
+        return total;
+    }
+}
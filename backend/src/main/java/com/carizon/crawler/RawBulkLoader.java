@@ -0,0 +1,220 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlSource;
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * raw_* 대량 적재 (LOAD DATA LOCAL INFILE)
+ *
+ * 1) row 를 TSV 로 인코딩해 staging-dir 아래 임시 파일로 → 연결별 임시 테이블 stage_{raw 테이블} 에
+ *    LOAD DATA LOCAL INFILE 로 한 번에 전송 (파일은 적재 후 바로 삭제)
+ *    - payload 는 TEXT 로 받고 CAST(AS JSON) 은 INSERT … SELECT 에서 한 번에 처리
+ * 2) INSERT … SELECT … ORDER BY seq ON DUPLICATE KEY UPDATE (RawPayloadWriter 의 해시 가드 그대로)
+ *    → 같은 배치 안 중복 키도 입력 순서대로 반영되어 batchUpdate 결과와 동일
+ *
+ * 전용 커넥션 풀 (raw-bulk, spring.datasource 접속 정보 + 아래 드라이버 옵션) — 공용 datasource 는 건드리지 않음
+ *  - allowLoadLocalInfileInPath={staging-dir} : 이 디렉터리 파일만 LOCAL INFILE 허용 (allowLoadLocalInfile 은 끔)
+ *  - rewriteBatchedStatements=true : batchUpsert(적은 건수 경로)를 multi-row INSERT 로
+ *    (영향 건수가 SUCCESS_NO_INFO 로 바뀌므로 결과 건수를 쓰지 않는 raw_* 적재에만)
+ * - 서버에서 local_infile 이 꺼져 있으면 첫 실패 때 경고 후 비활성 → 호출 측이 batchUpsert 로 처리
+ */
+@Slf4j
+@Component
+public class RawBulkLoader {
+
+    /** MySQL 3948 (ER_CLIENT_LOCAL_FILES_DISABLED) / 1148 (ER_NOT_ALLOWED_COMMAND) */
+    private static final List<Integer> DISABLED_CODES = List.of(3948, 1148);
+
+    private final HikariDataSource dataSource;
+    private final JdbcTemplate jdbc;
+    private final Path stagingDir;
+    private final boolean enabled;
+    private final int minRows;
+    private volatile boolean available = true;
+
+    public RawBulkLoader(@Value("${spring.datasource.url}") String url,
+                         @Value("${spring.datasource.username}") String username,
+                         @Value("${spring.datasource.password}") String password,
+                         @Value("${crawl.raw.bulk.enabled:true}") boolean enabled,
+                         @Value("${crawl.raw.bulk.min-rows:200}") int minRows,
+                         @Value("${crawl.raw.bulk.staging-dir:./cache/raw-bulk}") String stagingDir,
+                         @Value("${crawl.raw.bulk.pool-size:4}") int poolSize) {
+        try {
+            this.stagingDir = Files.createDirectories(Paths.get(stagingDir)).toRealPath();
+        } catch (IOException e) {
+            throw new UncheckedIOException("raw bulk staging dir " + stagingDir, e);
+        }
+        HikariConfig cfg = new HikariConfig();
+        cfg.setPoolName("raw-bulk");
+        cfg.setJdbcUrl(url + (url.contains("?") ? "&" : "?")
+                + "rewriteBatchedStatements=true&allowLoadLocalInfile=false&allowLoadLocalInfileInPath="
+                + URLEncoder.encode(this.stagingDir.toString(), StandardCharsets.UTF_8));
+        cfg.setUsername(username);
+        cfg.setPassword(password);
+        cfg.setMaximumPoolSize(Math.max(1, poolSize));
+        cfg.setMinimumIdle(0);
+        cfg.setInitializationFailTimeout(-1);   // DB 가 늦게 떠도 기동은 진행
+        this.dataSource = new HikariDataSource(cfg);
+        this.jdbc = new JdbcTemplate(dataSource);
+        this.enabled = enabled;
+        this.minRows = minRows;
+    }
+
+    @PreDestroy
+    void close() {
+        dataSource.close();
+    }
+
+    /** LOAD DATA 를 안 쓰는 경로 (적은 건수 / 사용 불가) — 전용 풀의 rewriteBatchedStatements 로 multi-row INSERT */
+    public void batchUpsert(String sql, List<Object[]> rows) {
+        jdbc.batchUpdate(sql, rows);
+    }
+
+    /** 이 크기면 대량 적재 경로를 탈지 */
+    public boolean accepts(int rows) {
+        return enabled && available && rows >= minRows;
+    }
+
+    /**
+     * cols[0] 은 payload(JSON), 나머지는 그대로 복사. rows 는 cols 순서 값.
+     * onDuplicate : "ON DUPLICATE KEY UPDATE …" 절 (VALUES(col) 참조)
+     * @return false = LOAD DATA 사용 불가 → 호출 측 batchUpdate 로 처리
+     */
+    public boolean upsert(CrawlSource src, List<String> cols, String onDuplicate, List<Object[]> rows) {
+        String stage = "stage_" + src.rawTable();
+        Path tsv = null;
+        try {
+            tsv = Files.createTempFile(stagingDir, stage + "-", ".tsv");
+            try (InputStream in = new TsvStream(rows)) {
+                Files.copy(in, tsv, StandardCopyOption.REPLACE_EXISTING);
+            }
+            String file = tsv.toString().replace("\\", "\\\\").replace("'", "\\'");
+            return Boolean.TRUE.equals(jdbc.execute((ConnectionCallback<Boolean>) con -> {
+                try (Statement st = con.createStatement()) {
+                    st.execute("CREATE TEMPORARY TABLE IF NOT EXISTS " + stage + " (" +
+                            "seq INT AUTO_INCREMENT PRIMARY KEY, " +
+                            cols.stream().map(c -> "s_" + c + (c.equals("payload") ? " LONGTEXT" : " TEXT"))
+                                    .collect(Collectors.joining(", ")) + ")");
+                    st.execute("TRUNCATE TABLE " + stage);
+
+                    int loaded = st.executeUpdate("LOAD DATA LOCAL INFILE '" + file + "' INTO TABLE " + stage +
+                            " CHARACTER SET utf8mb4 FIELDS TERMINATED BY '\\t' ESCAPED BY '\\\\'" +
+                            " LINES TERMINATED BY '\\n' (" +
+                            cols.stream().map(c -> "s_" + c).collect(Collectors.joining(", ")) + ")");
+                    if (loaded != rows.size()) {
+                        log.warn("[RAW-BULK] {} stage 적재 {}건 / 요청 {}건", src, loaded, rows.size());
+                    }
+
+                    String select = cols.stream()
+                            .map(c -> c.equals("payload") ? "CAST(s_payload AS JSON)" : "s_" + c)
+                            .collect(Collectors.joining(", "));
+                    st.executeUpdate("INSERT INTO " + src.rawTable() + "(" + String.join(", ", cols) + ") " +
+                            "SELECT " + select + " FROM " + stage + " ORDER BY seq " + onDuplicate);
+                    st.execute("TRUNCATE TABLE " + stage);
+                }
+                return true;
+            }));
+        } catch (DataAccessException e) {
+            if (!(e.getMostSpecificCause() instanceof SQLException se) || !DISABLED_CODES.contains(se.getErrorCode())) {
+                throw e;
+            }
+            available = false;
+            log.warn("[RAW-BULK] LOAD DATA LOCAL INFILE 사용 불가 → batch INSERT 로 전환: {}", se.getMessage());
+            return false;
+        } catch (IOException e) {
+            log.warn("[RAW-BULK] {} staging 파일 쓰기 실패 → batch INSERT: {}", src, e.toString());
+            return false;
+        } finally {
+            if (tsv != null) {
+                try { Files.deleteIfExists(tsv); } catch (IOException ignore) { }
+            }
+        }
+    }
+
+    /**
+     * row 를 한 줄씩 TSV 로 인코딩해 내주는 스트림.
+     * NULL → \N, 값 안의 \ TAB LF CR NUL 은 이스케이프
+     */
+    static final class TsvStream extends InputStream {
+        private final List<Object[]> rows;
+        private int next;
+        private byte[] buf = new byte[0];
+        private int pos;
+
+        TsvStream(List<Object[]> rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (!fill()) return -1;
+            return buf[pos++] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) return 0;
+            if (!fill()) return -1;
+            int n = Math.min(len, buf.length - pos);
+            System.arraycopy(buf, pos, b, off, n);
+            pos += n;
+            return n;
+        }
+
+        private boolean fill() {
+            while (pos >= buf.length) {
+                if (next >= rows.size()) return false;
+                buf = encode(rows.get(next++));
+                pos = 0;
+            }
+            return true;
+        }
+
+        static byte[] encode(Object[] row) {
+            StringBuilder sb = new StringBuilder(row[0] == null ? 16 : ((String) row[0]).length() + 64);
+            for (int i = 0; i < row.length; i++) {
+                if (i > 0) sb.append('\t');
+                Object v = row[i];
+                if (v == null) {
+                    sb.append("\\N");
+                    continue;
+                }
+                String s = v.toString();
+                for (int k = 0; k < s.length(); k++) {
+                    char c = s.charAt(k);
+                    switch (c) {
+                        case '\\' -> sb.append("\\\\");
+                        case '\t' -> sb.append("\\t");
+                        case '\n' -> sb.append("\\n");
+                        case '\r' -> sb.append("\\r");
+                        case '\0' -> sb.append("\\0");
+                        default -> sb.append(c);
+                    }
+                }
+            }
+            return sb.append('\n').toString().getBytes(StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
+import com.carizon.common.PayloadHasher;
+import com.carizon.common.SchemaCheck;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * raw_* 적재 공통 모듈
+ *
+ * FULL  : 실행 시작 시 TRUNCATE → 전량 INSERT (기존 방식). 같은 실행 안에서 이미 적재한 키는 건너뜀
+ * 공통  : payload_hash = 키 정렬 JSON 의 xxHash64 (PayloadHasher). UPSERT 는 해시가 같으면 no-op
+ *         단 VERBATIM_HASH 플랫폼은 payload 문자열 바이트 그대로 해시 + 키는 토큰 스트림에서 (트리 안 만듦)
+ *         실행별 신규/변경/동일 건수는 crawl_run.rows_new / rows_changed / rows_unchanged 에 기록
+ * DELTA : TRUNCATE 없음. 플랫폼 키 + payload_hash 비교로 신규/변경 row 만 UPSERT,
+ *         정상 완주한 실행에 한해 이번에 안 보인 키를 crawl_unseen 에 남기고 raw_* 에서 제거
+ *         (raw_* 는 항상 "현재 노출 중인 매물" 집합 → merge 의미는 FULL 과 동일, 빈 테이블 구간 없음)
+ *
+ * 아카이브: crawl.archive.enabled 이면 write() 로 받은 row 전부(동일 row 포함)를 RawArchive 파일에도 추가
+ * 적재    : 신규/변경 row 가 crawl.raw.bulk.min-rows 이상이면 RawBulkLoader(LOAD DATA LOCAL INFILE), 아니면 batchUpdate
+ * 메트릭  : crawl.items / crawl.raw.rows / crawl.raw.write.time{step} / crawl.raw.upsert.rows{path} (CrawlMetrics)
+ *
+ * 필요 스키마 (db/migration V1~V3, 없으면 open/resume 에서 IllegalStateException):
+ *  - raw_*.payload_hash CHAR(16)
+ *  - DELTA 시 raw_*.{keyColumn} UNIQUE
+ *  - crawl_unseen
+ */
+@Slf4j
+@Component
+public class RawPayloadWriter {
+
+    public enum Mode { FULL, DELTA }
+
+    private static final int LOOKUP_CHUNK = 1_000;
+    /** 한 번에 이만큼 이상 사라졌다고 나오면 크롤 이상으로 보고 정리하지 않음 */
+    private static final double MAX_UNSEEN_RATIO = 0.5;
+    /**
+     * 응답 토큰을 그대로 복사해 payload 를 만드는 플랫폼 (ChachachaCrawler.streamPage)
+     * → 필드 순서가 응답 순서로 고정이라 키 정렬 없이 바이트 해시. 아카이브 재적재도 같은 규칙
+     */
+    private static final Set<CrawlSource> VERBATIM_HASH = EnumSet.of(CrawlSource.CHACHACHA);
+
+    private final JdbcTemplate jdbc;
+    private final CrawlRunRecorder recorder;
+    private final RawArchive archive;
+    private final CrawlMetrics metrics;
+    private final RawBulkLoader bulk;
+    private final SchemaCheck schema;
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final Mode defaultMode;
+
+    public RawPayloadWriter(JdbcTemplate jdbc, CrawlRunRecorder recorder, RawArchive archive, CrawlMetrics metrics,
+                            RawBulkLoader bulk, SchemaCheck schema, @Value("${crawl.raw.mode:FULL}") Mode defaultMode) {
+        this.jdbc = jdbc;
+        this.recorder = recorder;
+        this.archive = archive;
+        this.metrics = metrics;
+        this.bulk = bulk;
+        this.schema = schema;
+        this.defaultMode = defaultMode;
+    }
+
+    /** 한 번의 크롤 실행 동안 유지되는 적재 상태 */
+    public static final class Session {
+        final CrawlSource source;
+        final String runId;
+        final Mode mode;
+        final Instant startedAt = Instant.now();
+        /** 이번 실행에서 본 플랫폼 키 — DELTA: 미노출 정리 기준, FULL: 같은 키 중복 적재 방지 */
+        final Set<String> seenKeys = ConcurrentHashMap.newKeySet();
+        final AtomicInteger inserted  = new AtomicInteger();
+        final AtomicInteger changed   = new AtomicInteger();
+        final AtomicInteger unchanged = new AtomicInteger();
+        /** 실제 INSERT 로 보낸 row 수 / 소요 시간 (finish 로그의 rows/s) */
+        final AtomicInteger upserted  = new AtomicInteger();
+        final AtomicLong upsertNanos  = new AtomicLong();
+        /** 일부 row 를 못 받아온 실행 (상세 실패 등) → 미노출 정리 대상에서 제외 */
+        volatile boolean incomplete;
+        /** null = 아카이브 안 함 (비활성 / 아카이브 재적재 중) */
+        final RawArchive.Appender archive;
+
+        Session(CrawlSource source, String runId, Mode mode, RawArchive.Appender archive) {
+            this.source = source;
+            this.runId = runId;
+            this.mode = mode;
+            this.archive = archive;
+        }
+
+        public Mode mode() { return mode; }
+        public void markIncomplete() { incomplete = true; }
+    }
+
+    public Session open(CrawlSource source, String runId) {
+        return open(source, runId, defaultMode);
+    }
+
+    public Session open(CrawlSource source, String runId, Mode mode) {
+        return open(source, runId, mode, archive.open(source, runId));
+    }
+
+    /** 아카이브 → raw_* 재적재용: FULL 로 열고 다시 아카이브하지 않음 */
+    public Session openReplay(CrawlSource source, String runId) {
+        return open(source, runId, Mode.FULL, null);
+    }
+
+    private Session open(CrawlSource source, String runId, Mode mode, RawArchive.Appender appender) {
+        requireSchema(source, mode);
+        if (mode == Mode.FULL) {
+            log.warn("[RAW] TRUNCATE {} 시작", source.rawTable());
+            jdbc.execute("TRUNCATE TABLE " + source.rawTable());
+            log.warn("[RAW] TRUNCATE {} 완료", source.rawTable());
+        } else {
+            log.info("[RAW] {} DELTA 모드 (TRUNCATE 생략)", source.rawTable());
+        }
+        return new Session(source, runId, mode, appender);
+    }
+
+    /**
+     * 체크포인트 재개용: TRUNCATE 없이 이어서 적재.
+     * 중단 전 구간에서 본 키는 알 수 없으므로 DELTA 미노출 정리는 하지 않음 (다음 정상 실행에서 정리)
+     * FULL 은 테이블에 이번 실행 row 만 있으므로 이미 적재된 키를 seenKeys 에 올려둠
+     * → 체크포인트 이후 다시 받는 구간(페이지 중간 flush, 재시작한 파티션)은 키 단위로 건너뜀.
+     *   키 없는 row 는 거를 수 없어 at-least-once
+     */
+    public Session resume(CrawlSource source, String runId) {
+        requireSchema(source, defaultMode);
+        Session s = new Session(source, runId, defaultMode, archive.open(source, runId));
+        s.markIncomplete();
+        if (s.mode == Mode.FULL) {
+            jdbc.query("SELECT " + source.keyColumn() + " FROM " + source.rawTable() +
+                            " WHERE " + source.keyColumn() + " IS NOT NULL",
+                    rs -> { s.seenKeys.add(rs.getString(1)); });
+        }
+        log.info("[RAW] {} run={} 재개 (TRUNCATE 생략, 적재된 키 {}건)", source.rawTable(), runId, s.seenKeys.size());
+        return s;
+    }
+
+    /**
+     * row[0] = payload JSON 문자열, row[1..] = source.extraColumns() 순서 값.
+     * 반환값은 처리(수신)한 row 수 — 크롤러 total 집계 의미는 기존과 동일.
+     */
+    public int write(Session s, List<Object[]> rows) {
+        if (rows.isEmpty()) return 0;
+        CrawlSource src = s.source;
+        metrics.items(src, rows.size());
+
+        // 1) payload 1회 파싱 → 플랫폼 키 + 정규화 해시 (VERBATIM_HASH 는 파싱 없이)
+        long t0 = System.nanoTime();
+        List<String> keys = new ArrayList<>(rows.size());
+        List<String> hashes = new ArrayList<>(rows.size());
+        boolean verbatim = VERBATIM_HASH.contains(src);
+        for (Object[] r : rows) {
+            String payload = (String) r[0];
+            if (verbatim) {
+                keys.add(streamKeyOf(payload, src.payloadKey()));
+                hashes.add(PayloadHasher.hash(payload.getBytes(StandardCharsets.UTF_8)));
+                continue;
+            }
+            JsonNode node = parse(payload);
+            keys.add(node == null ? null : keyOf(node, src.payloadKey()));
+            hashes.add(node == null ? PayloadHasher.hash(payload.getBytes(StandardCharsets.UTF_8))
+                                    : PayloadHasher.hash(node));
+        }
+        t0 = lap(src, "hash", t0);
+
+        if (s.archive != null) {
+            try {
+                s.archive.append(rows, hashes);
+            } catch (IOException e) {
+                // 아카이브 실패로 적재를 멈추지는 않음
+                log.warn("[RAW] {} 아카이브 append 실패: {}", s.archive.file(), e.toString());
+            }
+            t0 = lap(src, "archive", t0);
+        }
+
+        List<Object[]> params = new ArrayList<>(rows.size());
+        if (s.mode == Mode.FULL) {
+            // 빈 테이블에서 시작 → 처음 보는 키는 전부 신규. 같은 실행에서 이미 적재한 키(페이지 경계 중복 등)는
+            // UPSERT 전에 seenKeys 로 건너뜀 (처음 받은 row 유지, 보낼 row 자체를 줄임). 키 없는 row 는 그대로 적재
+            int dups = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                String key = keys.get(i);
+                if (key != null && !s.seenKeys.add(key)) {
+                    dups++;
+                    continue;
+                }
+                params.add(withHash(rows.get(i), hashes.get(i)));
+            }
+            s.inserted.addAndGet(params.size());
+            metrics.rawRows(src, "new", params.size());
+            metrics.rawRows(src, "duplicate", dups);
+        } else {
+            // 2) 기존 해시 조회
+            Map<String, String> existing = lookupHashes(src, keys);
+            t0 = lap(src, "lookup", t0);
+            // 3) 신규/변경만 적재
+            int news = 0, changes = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                String key = keys.get(i);
+                String hash = hashes.get(i);
+                if (key != null) s.seenKeys.add(key);
+                boolean known = key != null && existing.containsKey(key);
+                if (known && hash.equals(existing.get(key))) {
+                    s.unchanged.incrementAndGet();
+                    continue;
+                }
+                if (known) changes++;
+                else news++;
+                params.add(withHash(rows.get(i), hash));
+            }
+            s.inserted.addAndGet(news);
+            s.changed.addAndGet(changes);
+            metrics.rawRows(src, "new", news);
+            metrics.rawRows(src, "changed", changes);
+            metrics.rawRows(src, "unchanged", rows.size() - params.size());
+        }
+
+        if (!params.isEmpty()) {
+            List<String> cols = columns(src);
+            boolean loaded = bulk.accepts(params.size()) && bulk.upsert(src, cols, onDuplicate(cols), params);
+            if (!loaded) bulk.batchUpsert(upsertSql(src), params);
+            long took = System.nanoTime() - t0;
+            lap(src, "upsert", t0);
+            s.upserted.addAndGet(params.size());
+            s.upsertNanos.addAndGet(took);
+            metrics.rawUpserted(src, loaded ? "bulk" : "batch", params.size());
+        }
+        return rows.size();
+    }
+
+    /** 단계 시간 기록 후 다음 단계 시작 시각 반환 */
+    private long lap(CrawlSource src, String step, long t0) {
+        long now = System.nanoTime();
+        metrics.rawWrite(src, step, now - t0);
+        return now;
+    }
+
+    /**
+     * 실행 종료 처리. DELTA + 정상 완주(complete) 일 때만 미노출 키 정리.
+     * 중간 실패한 실행에서 정리하면 멀쩡한 매물을 지우게 되므로 건너뜀.
+     */
+    public void finish(Session s, boolean complete) {
+        long upsertMs = TimeUnit.NANOSECONDS.toMillis(s.upsertNanos.get());
+        log.info("[RAW] {} run={} mode={} new={} changed={} unchanged={} upsert={}rows/{}ms ({} rows/s)",
+                s.source, s.runId, s.mode, s.inserted.get(), s.changed.get(), s.unchanged.get(),
+                s.upserted.get(), upsertMs, upsertMs == 0 ? 0 : s.upserted.get() * 1000L / upsertMs);
+        recorder.recordRowStats(s.runId, s.inserted.get(), s.changed.get(), s.unchanged.get());
+        if (s.archive != null) s.archive.close();
+        if (s.mode != Mode.DELTA) return;
+        if (!complete || s.incomplete) {
+            log.warn("[RAW] {} 실행 미완료 → 미노출 정리 생략", s.source);
+            return;
+        }
+        sweepUnseen(s);
+    }
+
+    /* ======================= DELTA: 미노출 정리 ======================= */
+
+    private void sweepUnseen(Session s) {
+        CrawlSource src = s.source;
+        String table = src.rawTable();
+        String key = src.keyColumn();
+
+        // 키 없이 들어온 row 는 매 실행 새로 쌓이므로 이번 실행 이전 것만 제거
+        int keyless = jdbc.update("DELETE FROM " + table + " WHERE " + key + " IS NULL AND fetched_at < ?",
+                Timestamp.from(s.startedAt));
+
+        if (s.seenKeys.isEmpty()) {
+            log.warn("[RAW] {} 이번 실행에서 키를 하나도 못 읽음(payloadKey={}) → 미노출 정리 생략",
+                    src, src.payloadKey());
+            return;
+        }
+
+        List<String> all = jdbc.queryForList(
+                "SELECT " + key + " FROM " + table + " WHERE " + key + " IS NOT NULL", String.class);
+        List<String> unseen = all.stream().filter(k -> !s.seenKeys.contains(k)).toList();
+
+        if (!all.isEmpty() && unseen.size() > all.size() * MAX_UNSEEN_RATIO) {
+            log.warn("[RAW] {} 미노출 {}건 / 전체 {}건 — 비율 과다, 정리 생략", src, unseen.size(), all.size());
+            return;
+        }
+
+        for (int i = 0; i < unseen.size(); i += LOOKUP_CHUNK) {
+            List<String> chunk = unseen.subList(i, Math.min(i + LOOKUP_CHUNK, unseen.size()));
+            String in = chunk.stream().map(x -> "?").collect(Collectors.joining(","));
+
+            List<Object> args = new ArrayList<>(chunk.size() + 2);
+            args.add(s.runId);
+            args.add(src.name());
+            args.addAll(chunk);
+            jdbc.update("INSERT INTO crawl_unseen(run_id, source, platform_key, last_payload_hash) " +
+                    "SELECT ?, ?, " + key + ", payload_hash FROM " + table +
+                    " WHERE " + key + " IN (" + in + ")", args.toArray());
+            jdbc.update("DELETE FROM " + table + " WHERE " + key + " IN (" + in + ")", chunk.toArray());
+        }
+        log.info("[RAW] {} 미노출 {}건 기록/제거 (키없는 row 정리 {}건)", src, unseen.size(), keyless);
+    }
+
+    /* ======================= SQL / 해시 ======================= */
+
+    /** INSERT 컬럼 순서 = write() 의 row 순서 + payload_hash */
+    private static List<String> columns(CrawlSource src) {
+        List<String> cols = new ArrayList<>();
+        cols.add("payload");
+        cols.addAll(src.extraColumns());
+        cols.add("payload_hash");
+        return cols;
+    }
+
+    private String upsertSql(CrawlSource src) {
+        List<String> cols = columns(src);
+        String values = "CAST(? AS JSON)" + ", ?".repeat(cols.size() - 1);
+        return "INSERT INTO " + src.rawTable() + "(" + String.join(", ", cols) + ") VALUES (" + values + ") " +
+                onDuplicate(cols);
+    }
+
+    private static String onDuplicate(List<String> cols) {
+        // 해시가 같으면 모든 컬럼을 자기 값으로 두어 no-op (JSON 재파싱/생성 컬럼 재색인 없음).
+        // ODKU 는 왼쪽부터 평가되므로 payload_hash 는 반드시 마지막에 갱신
+        String same = "payload_hash <=> VALUES(payload_hash)";
+        String updates = cols.subList(0, cols.size() - 1).stream()
+                .map(c -> c + "=IF(" + same + ", " + c + ", VALUES(" + c + "))")
+                .collect(Collectors.joining(", "));
+        return "ON DUPLICATE KEY UPDATE " + updates +
+                ", fetched_at=IF(" + same + ", fetched_at, CURRENT_TIMESTAMP)" +
+                ", payload_hash=VALUES(payload_hash)";
+    }
+
+    private Map<String, String> lookupHashes(CrawlSource src, List<String> keys) {
+        List<String> distinct = keys.stream().filter(Objects::nonNull).distinct().toList();
+        Map<String, String> out = new HashMap<>(distinct.size() * 2);
+        for (int i = 0; i < distinct.size(); i += LOOKUP_CHUNK) {
+            List<String> chunk = distinct.subList(i, Math.min(i + LOOKUP_CHUNK, distinct.size()));
+            String in = chunk.stream().map(x -> "?").collect(Collectors.joining(","));
+            jdbc.query("SELECT " + src.keyColumn() + ", payload_hash FROM " + src.rawTable() +
+                            " WHERE " + src.keyColumn() + " IN (" + in + ")",
+                    rs -> { out.put(rs.getString(1), rs.getString(2)); }, chunk.toArray());
+        }
+        return out;
+    }
+
+    private JsonNode parse(String payload) {
+        try {
+            return mapper.readTree(payload);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    /** 최상위 field 값만 읽고 나머지는 skip (없거나 스칼라가 아니면 null) */
+    private String streamKeyOf(String payload, String field) {
+        try (JsonParser p = mapper.getFactory().createParser(payload)) {
+            if (p.nextToken() != JsonToken.START_OBJECT) return null;
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                JsonToken t = p.nextToken();
+                if (field.equals(name)) return t.isScalarValue() && t != JsonToken.VALUE_NULL ? p.getText() : null;
+                p.skipChildren();
+            }
+            return null;
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private static String keyOf(JsonNode payload, String field) {
+        JsonNode v = payload.get(field);
+        return (v == null || v.isNull()) ? null : v.asText();
+    }
+
+    private static Object[] withHash(Object[] row, String hash) {
+        Object[] p = Arrays.copyOf(row, row.length + 1);
+        p[row.length] = hash;
+        return p;
+    }
+
+    /* ======================= 스키마 확인 ======================= */
+
+    private void requireSchema(CrawlSource src, Mode mode) {
+        schema.requireColumns(src.rawTable(), "payload_hash");
+        if (mode == Mode.DELTA) {
+            schema.requireUniqueKey(src.rawTable(), src.keyColumn());
+            schema.requireTable("crawl_unseen");
+        }
+    }
+}
@@ -1,11 +1,13 @@
 package com.carizon.crawler;
 
+import com.carizon.batch.CrawlCheckpointStore;
 import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import okhttp3.*;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Component;
 
 import java.net.URLEncoder;
@@ -19,7 +21,7 @@ import java.util.*;
  *  - GET: https://mycarsave.lotterentacar.net/cr/search/ajax/list
  *  - QueryString으로 페이징/필터 전달 (perPageNum=15, page=1..N)
  *  - 응답: { result: { data: [ ... ], carTotalCount, recordsFiltered, ... } }
- *  - 저장 테이블: raw_tcar(payload JSON)
+ *  - 저장 테이블: raw_tcar(payload JSON) — RawPayloadWriter (FULL/DELTA)
  */
 @Slf4j
 @Component
@@ -27,97 +29,140 @@ public class TcarCrawler {
 
     private static final String LIST_URL = "https://mycarsave.lotterentacar.net/cr/search/ajax/list";
 
-    private final OkHttpClient http = new OkHttpClient.Builder()
-            .callTimeout(Duration.ofSeconds(30))
-            .readTimeout(Duration.ofSeconds(30))
-            .build();
+    private final OkHttpClient http;
     private final ObjectMapper mapper = new ObjectMapper();
-    private final JdbcTemplate jdbc;
+    private final RawPayloadWriter raw;
     private final CrawlRunRecorder recorder;
-
-    public TcarCrawler(JdbcTemplate jdbc, CrawlRunRecorder recorder) {
-        this.jdbc = jdbc;
+    private final CrawlCheckpointStore checkpoints;
+    private final MeterRegistry meters;
+    private final CrawlMetrics metrics;
+
+    public TcarCrawler(OkHttpClient http, RawPayloadWriter raw, CrawlRunRecorder recorder,
+                            CrawlCheckpointStore checkpoints, MeterRegistry meters, CrawlMetrics metrics) {
+        // 공용 클라이언트에서 파생 (풀 공유), 호출 전체 30초 제한만 유지
+        this.http = http.newBuilder().callTimeout(Duration.ofSeconds(30)).build();
+        this.raw = raw;
         this.recorder = recorder;
+        this.checkpoints = checkpoints;
+        this.meters = meters;
+        this.metrics = metrics;
     }
 
     /** 전체 풀 스캔 1회 실행 */
-    @SuppressWarnings("unchecked")
-    public void runOnceFull() {
+    public int runOnceFull() {
+        return run(null);
+    }
+
+    /** 체크포인트의 마지막 저장 페이지 다음부터 같은 run_id 로 이어서 실행 */
+    public int resume(CrawlCheckpointStore.Checkpoint cp) {
+        return run(cp);
+    }
+
+    private int run(CrawlCheckpointStore.Checkpoint cp) {
         Instant started = Instant.now();
-        String runId = recorder.recordStart("TCAR", started);
+        String runId = cp == null ? recorder.recordStart("TCAR", started) : recorder.recordResume(cp.runId());
 
-        int page = 1;
+        int page = cp == null ? 1 : cp.intState("page", 0) + 1;
         int perPage = 100;                 // 서버가 15만 허용하면 15로 낮춰
-        int fetchedTotal = 0;
+        int fetchedTotal = cp == null ? 0 : cp.items();
 
         try {
             log.info("[TCAR] 시작: perPage={}", perPage);
-
-            while (true) {
-                HttpUrl url = buildUrl(page, perPage);
-                Request req = new Request.Builder()
-                        .url(url)
-                        .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120 Safari/537.36")
-                        .header("Accept", "application/json")
-                        .get()
-                        .build();
-
-                log.info("[TCAR] 요청 page={} url={}", page, url);
-
-                try (Response resp = http.newCall(req).execute()) {
-                    if (!resp.isSuccessful()) {
-                        log.warn("[TCAR] non-200 page={} status={}", page, resp.code());
-                        break;
-                    }
-                    String body = resp.body() != null ? resp.body().string() : "";
-                    if (body.isBlank()) {
-                        log.info("[TCAR] 빈 응답(page={}) → 종료", page);
-                        break;
-                    }
-
-                    Map<String, Object> root = mapper.readValue(
-                            body, new TypeReference<Map<String, Object>>() {});
-                    Map<String, Object> result = (Map<String, Object>) root.getOrDefault("result", Collections.emptyMap());
-                    List<Map<String, Object>> list = (List<Map<String, Object>>) result.get("data");
-
-                    int batchCount = (list == null) ? 0 : list.size();
-                    if (batchCount == 0) {
-                        log.info("[TCAR] 더 이상 데이터 없음(page={}) → 종료", page);
-                        break;
-                    }
-
-                    // 원본 item 그대로 저장 (raw_tcar.payload)
-                    String sql = "INSERT INTO raw_tcar(payload) VALUES (CAST(? AS JSON))";
-                    List<Object[]> params = new ArrayList<>(batchCount);
-                    for (Map<String, Object> item : list) {
-                        params.add(new Object[]{ mapper.writeValueAsString(item) });
-                    }
-                    int[] res = jdbc.batchUpdate(sql, params);
-                    fetchedTotal += res.length;
-
-                    log.info("[TCAR] page={} 저장 {}건 (누적={})", page, res.length, fetchedTotal);
-
-                    // 마지막 페이지 추정: 현재 페이지 데이터 수 < perPage
-                    if (batchCount < perPage) {
-                        log.info("[TCAR] 마지막 페이지 추정(list < perPage) → 종료 (page={}, items={})", page, batchCount);
-                        break;
-                    }
-
-                    page++;
-                    Thread.sleep(600); // 부하 완화
-                } catch (Exception e) {
-                    log.error("[TCAR] 예외 page={} → 종료: {}", page, e.toString(), e);
-                    break;
-                }
-            }
+            RawPayloadWriter.Session session = cp == null
+                    ? raw.open(CrawlSource.TCAR, runId)
+                    : raw.resume(CrawlSource.TCAR, runId);
+            if (cp != null) log.info("[TCAR] 재개 runId={} page={} 누적={}", runId, page, fetchedTotal);
+
+            // fetch → parse → persist 파이프라인 (네트워크/DB 대기 겹치기)
+            CrawlPipeline<Object[]> pipeline = new CrawlPipeline<>("TCAR", meters, CrawlPipeline.DEFAULT_QUEUE_DEPTH);
+            int[] saved = {fetchedTotal}; // persist 단계 전용 — 체크포인트 누적 건수
+            fetchedTotal += pipeline.run(page,
+                    p -> fetchPage(p, perPage),
+                    (p, body) -> parsePage(p, body, perPage),
+                    (p, rows) -> {
+                        int n = persistPage(session, p, rows);
+                        saved[0] += n;
+                        checkpoints.save(runId, CrawlSource.TCAR, saved[0], Map.of("page", p));
+                        return n;
+                    });
+            raw.finish(session, pipeline.completed());
+            if (pipeline.completed()) checkpoints.markDone(runId);
 
             recorder.recordEnd(runId, fetchedTotal, Instant.now());
         } catch (Exception e) {
+            // 파이프라인 중단이면 실패 전까지 저장된 건수까지 포함
+            if (e instanceof CrawlPipeline.Failure f) fetchedTotal += f.saved();
             recorder.recordFail(runId, fetchedTotal, Instant.now(), e.toString());
+            throw new CrawlFailedException(CrawlSource.TCAR, runId, fetchedTotal, e);
         }
 
         log.info("[TCAR] 완료 totalItems={} elapsed={}s",
                 fetchedTotal, Duration.between(started, Instant.now()).toSeconds());
+        return fetchedTotal;
+    }
+
+    /* ---------------- pipeline stages ---------------- */
+
+    /** [fetch] page 요청 → 응답 본문. 비정상 응답/빈 응답이면 null(종료) */
+    private byte[] fetchPage(int page, int perPage) throws Exception {
+        HttpUrl url = buildUrl(page, perPage);
+        Request req = new Request.Builder()
+                .url(url)
+                .header("User-Agent", "Mozilla/5.0 (Windows NT 10.0; Win64; x64) AppleWebKit/537.36 (KHTML, like Gecko) Chrome/120 Safari/537.36")
+                .header("Accept", "application/json")
+                .get()
+                .build();
+
+        log.info("[TCAR] 요청 page={} url={}", page, url);
+
+        try (Response resp = http.newCall(req).execute()) {
+            if (!resp.isSuccessful()) {
+                log.warn("[TCAR] non-200 page={} status={}", page, resp.code());
+                return null;
+            }
+            byte[] body = resp.body() != null ? resp.body().bytes() : new byte[0];
+            if (body.length == 0) {
+                log.info("[TCAR] 빈 응답(page={}) → 종료", page);
+                return null;
+            }
+            return body;
+        }
+    }
+
+    /** [parse] 응답 → 원본 item JSON 목록. list < perPage 면 마지막 페이지 */
+    @SuppressWarnings("unchecked")
+    private CrawlPipeline.Parsed<Object[]> parsePage(int page, byte[] body, int perPage) throws Exception {
+        long t0 = System.nanoTime();
+        Map<String, Object> root = mapper.readValue(body, new TypeReference<Map<String, Object>>() {});
+        Map<String, Object> result = (Map<String, Object>) root.getOrDefault("result", Collections.emptyMap());
+        List<Map<String, Object>> list = (List<Map<String, Object>>) result.get("data");
+
+        int batchCount = (list == null) ? 0 : list.size();
+        if (batchCount == 0) {
+            log.info("[TCAR] 더 이상 데이터 없음(page={}) → 종료", page);
+            return new CrawlPipeline.Parsed<>(List.of(), true);
+        }
+
+        List<Object[]> params = new ArrayList<>(batchCount);
+        for (Map<String, Object> item : list) {
+            params.add(new Object[]{ mapper.writeValueAsString(item) });
+        }
+        metrics.parsed(CrawlSource.TCAR, System.nanoTime() - t0);
+        metrics.pages(CrawlSource.TCAR, 1);
+
+        // 마지막 페이지 추정: 현재 페이지 데이터 수 < perPage
+        boolean last = batchCount < perPage;
+        if (last) {
+            log.info("[TCAR] 마지막 페이지 추정(list < perPage) → 종료 (page={}, items={})", page, batchCount);
+        }
+        return new CrawlPipeline.Parsed<>(params, last);
+    }
+
+    /** [persist] 원본 item 그대로 저장 (raw_tcar.payload) */
+    private int persistPage(RawPayloadWriter.Session session, int page, List<Object[]> params) {
+        int n = raw.write(session, params);
+        log.info("[TCAR] page={} 저장 {}건", page, n);
+        return n;
     }
 
     /** 캡처 기준 기본 파라미터로 URL 빌드 */
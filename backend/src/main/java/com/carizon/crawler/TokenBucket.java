@@ -0,0 +1,53 @@
+package com.carizon.crawler;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 단순 토큰 버킷 (thread-safe)
+ * - ratePerSec 속도로 토큰 충전, 최대 burst 개까지 적립
+ * - acquire() 는 토큰을 "예약"하고 부족분만큼 잠든다 → 여러 스레드가 동시에 불러도 전체 속도는 rate 이하
+ * - setRate() 로 실행 중 속도 변경 가능 (AdaptiveRateLimiter)
+ */
+public final class TokenBucket {
+
+    private double ratePerSec;
+    private final double burst;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    public TokenBucket(double ratePerSec, int burst) {
+        if (ratePerSec <= 0) throw new IllegalArgumentException("ratePerSec must be > 0");
+        this.ratePerSec = ratePerSec;
+        this.burst = Math.max(1, burst);
+        this.tokens = this.burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException {
+        long waitNanos;
+        synchronized (this) {
+            refill();
+            tokens -= 1.0;                        // 음수 허용 = 예약
+            waitNanos = tokens >= 0 ? 0 : (long) (-tokens / ratePerSec * 1_000_000_000L);
+        }
+        if (waitNanos > 0) TimeUnit.NANOSECONDS.sleep(waitNanos);
+    }
+
+    public synchronized double ratePerSec() {
+        return ratePerSec;
+    }
+
+    /** 지금까지 쌓인 토큰은 이전 속도로 정산한 뒤 새 속도 적용 */
+    public synchronized void setRate(double ratePerSec) {
+        if (ratePerSec <= 0) throw new IllegalArgumentException("ratePerSec must be > 0");
+        refill();
+        this.ratePerSec = ratePerSec;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(burst, tokens + (now - lastRefillNanos) / 1_000_000_000.0 * ratePerSec);
+        lastRefillNanos = now;
+    }
+}
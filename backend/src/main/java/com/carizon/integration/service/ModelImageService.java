@@ -6,16 +6,14 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
-import java.net.URI;
-import java.net.http.HttpClient;
-import java.net.http.HttpRequest;
-import java.net.http.HttpResponse;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +23,7 @@ import java.util.List;
 public class ModelImageService {
 
     private final CarizonMapper mapper;
+    private final OkHttpClient http;   // 공용 클라이언트 (HttpClientConfig) — 호출마다 새로 만들지 않음
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     private static final String IMG_BASE = "https://img.kbchachacha.com/IMG/carimg/l/";
@@ -42,8 +41,6 @@ public class ModelImageService {
         List<CarPick> picks = mapper.selectRepresentativeCars(limit);
         log.info("대표 건수: {}", picks.size());
 
-        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
-
         int ok = 0, fail = 0;
         for (CarPick pick : picks) {
             List<String> names = firstTwoFilenames(pick.getPayload());
@@ -58,7 +55,7 @@ public class ModelImageService {
             if (names.size() >= 1) {
                 String url1 = buildUrl(folderTwo, firstFour, pick.getCarSeq(), names.get(0));
                 Path out1 = targetDir.resolve(pick.getCarCode() + "_first.jpg");
-                boolean b1 = download(http, url1, out1);
+                boolean b1 = download(url1, out1);
                 log.info("{} {} <- {}", b1 ? "[OK ]" : "[ERR]", out1, url1);
                 ok += b1 ? 1 : 0;
                 fail += b1 ? 0 : 1;
@@ -66,7 +63,7 @@ public class ModelImageService {
             if (names.size() >= 2) {
                 String url2 = buildUrl(folderTwo, firstFour, pick.getCarSeq(), names.get(1));
                 Path out2 = targetDir.resolve(pick.getCarCode() + "_second.jpg");
-                boolean b2 = download(http, url2, out2);
+                boolean b2 = download(url2, out2);
                 log.info("{} {} <- {}", b2 ? "[OK ]" : "[ERR]", out2, url2);
                 ok += b2 ? 1 : 0;
                 fail += b2 ? 0 : 1;
@@ -122,15 +119,15 @@ public class ModelImageService {
         return IMG_BASE + "img" + folderTwoDigits + "/img" + firstFour + "/" + fileName + "?width=720";
     }
 
-    private boolean download(HttpClient http, String url, Path out) {
-        try {
-            HttpRequest req = HttpRequest.newBuilder().uri(URI.create(url)).timeout(Duration.ofSeconds(20)).GET().build();
-            HttpResponse<byte[]> resp = http.send(req, HttpResponse.BodyHandlers.ofByteArray());
-            if (resp.statusCode() == 200 && resp.body() != null && resp.body().length > 0) {
-                Files.write(out, resp.body());
+    private boolean download(String url, Path out) {
+        Request req = new Request.Builder().url(url).get().build();
+        try (Response resp = http.newCall(req).execute()) {
+            byte[] body = resp.body() != null ? resp.body().bytes() : null;
+            if (resp.code() == 200 && body != null && body.length > 0) {
+                Files.write(out, body);
                 return true;
             } else {
-                log.warn("[HTTP {}] {}", resp.statusCode(), url);
+                log.warn("[HTTP {}] {}", resp.code(), url);
                 return false;
             }
         } catch (Exception e) {
@@ -9,21 +9,36 @@ import org.springframework.web.bind.annotation.*;
 public class ChachaCodeSyncController {
 
     private final ChachaCodeSyncService svc;
+    private final CodeMappingService mapping;
 
-    /** 전체 메이커부터 전레벨 풀 동기화 */
+    /** 전체 메이커부터 전레벨 풀 동기화 (force=true: 응답 캐시 무시) */
     @PostMapping("/sync-all")
-    public String syncAll() {
-        svc.syncAll();
+    public String syncAll(@RequestParam(defaultValue = "false") boolean force) {
+        svc.syncAll(force);
         return "CHACHACHA code sync (ALL) done";
     }
 
-/** 특정 메이커만 전레벨 동기화 */
-    /*
-
+    /** 특정 메이커만 전레벨 동기화 (기본 캐시 무시) */
     @PostMapping("/sync-maker/{makerCode}")
-    public String syncMaker(@PathVariable String makerCode) {
-        svc.syncOneMaker(makerCode);
+    public String syncMaker(@PathVariable String makerCode,
+                            @RequestParam(defaultValue = "true") boolean force) {
+        svc.syncMaker(makerCode, force);
         return "CHACHACHA code sync (maker=" + makerCode + ") done";
     }
-    */
+
+    /** 특정 모델그룹만 모델 이하 동기화 (기본 캐시 무시) */
+    @PostMapping("/sync-group/{makerCode}/{groupCode}")
+    public String syncGroup(@PathVariable String makerCode, @PathVariable String groupCode,
+                            @RequestParam(defaultValue = "true") boolean force) {
+        svc.syncModelGroup(makerCode, groupCode, force);
+        return "CHACHACHA code sync (maker=" + makerCode + ", group=" + groupCode + ") done";
+    }
+
+    /** 플랫폼 미매핑 코드가 걸린 하위 트리만 동기화 */
+    @PostMapping("/sync-unmapped/{platform}")
+    public String syncUnmapped(@PathVariable String platform,
+                               @RequestParam(defaultValue = "TODAY") CodeMappingService.Scope scope) {
+        int n = mapping.syncUnmapped(platform, scope);
+        return "CHACHACHA code sync (unmapped " + platform + ") targets=" + n;
+    }
 }
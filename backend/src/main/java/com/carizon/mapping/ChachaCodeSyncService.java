@@ -1,19 +1,28 @@
 package com.carizon.mapping;
 
+import com.carizon.common.HttpResponseCache;
+import com.carizon.common.PayloadHasher;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.annotation.Bean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 import java.sql.PreparedStatement;
 import java.sql.SQLException;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -23,6 +32,18 @@ import java.util.stream.Collectors;
  * - cz_model(=car)   : /public/search/carName.json?makerCode=...&classCode=...
  * - cz_trim          : /public/search/carModel.json?makerCode=...&classCode=...&carCode=...  → codeModel[].modelCode
  * - cz_grade         : /public/search/carModel.json?makerCode=...&classCode=...&carCode=...  → codeGrade[].gradeCode (model별)
+ *
+ * 순회: 레벨 단위(메이커 → 모델그룹 → 모델 → 트림/등급), 레벨 안에서는 WebClient 비동기 요청을
+ *       flatMap(code-sync.concurrency) 으로 동시에. block() 은 레벨마다 한 번
+ *       upsert 는 같은 레벨의 형제 노드를 모아 테이블별 batchUpdate (UPSERT_BATCH 단위)
+ *
+ * 캐시 (HttpResponseCache, code-sync.cache.dir):
+ * - 노드마다 조건부 GET, 304 이거나 본문 해시가 같으면 그 노드 upsert 생략
+ * - 캐시 기록은 upsert 가 끝난 뒤 (중간에 upsert 가 실패하면 기록 안 함 → 다음 실행에서 다시 upsert)
+ * - 응답이 그대로이고 subtree-ttl-hours 안에 하위까지 확인했으면 하위 요청 전체 생략
+ * - POST /admin/chacha/sync-all?force=true 로 캐시 무시 전체 동기화
+ *
+ * 부분 동기화: syncMaker / syncModelGroup / syncMissingCodes·syncParents (매핑 전 자동 실행, CodeMappingService)
  */
 @Slf4j
 @Service
@@ -33,45 +54,347 @@ public class ChachaCodeSyncService {
     private final ObjectMapper om = new ObjectMapper();
 
     private final WebClient webClient;
+    private final HttpResponseCache cache;
     private static final String HOST = "https://www.kbchachacha.com";
+    private static final int UPSERT_BATCH = 1_000;
+    private static final String MAKERS_URL = "/public/search/carMaker.json";
+
+    /** 응답이 그대로인 노드라도 이 시간이 지나면 하위까지 다시 확인 */
+    @Value("${code-sync.subtree-ttl-hours:24}")
+    private long subtreeTtlHours;
+
+    /** 레벨별 동시 요청 수 (WebClient 커넥션 풀 크기 이하로) */
+    @Value("${code-sync.concurrency:8}")
+    private int concurrency;
+
+    /** 미매핑 부분 동기화 한 번에 동기화할 최대 대상 노드 수 */
+    @Value("${code-sync.targeted.max-targets:50}")
+    private int maxTargets;
 
 
 
     /* ======================= PUBLIC ENTRY ======================= */
 
     public void syncAll() {
-        List<Maker> makers = fetchMakers();
-        upsertMakers(makers);
+        syncAll(false);
+    }
 
-        for (Maker mk : makers) {
-            List<ModelGroup> groups = fetchGroups(mk.code);
-            upsertGroups(mk.code, groups);
+    /**
+     * @param force true 면 캐시 무시하고 전 노드 재요청 + 전부 upsert (기존 동작)
+     */
+    public void syncAll(boolean force) {
+        long t0 = System.nanoTime();
+        SyncStats st = new SyncStats();
+
+        // 1) 메이커
+        Node<String> top = new Node<>("ALL", null, fetch(MAKERS_URL, force, st).block());
+        List<Maker> makers = parseMakers(top.f.root());
+        if (top.f.unchanged()) st.skippedUpserts.incrementAndGet();
+        else upsertMakers(makers);
+
+        // 2~4) 메이커 전체 하위
+        traverse(force, st, expand(List.of(top), force, st, n -> makers), List.of(), List.of());
+
+        // 5) 하위까지 모두 성공한 노드 → subtree 확인 시각 기록
+        markVerified(top);
+        logDone("full", force, t0, st);
+    }
 
-            for (ModelGroup mg : groups) {
-                List<CarModel> cars = fetchCars(mk.code, mg.code);
-                upsertModels(mk.code, mg.code, cars);
+    /* ======================= TARGETED SYNC ======================= */
 
-                for (CarModel car : cars) {
-                    // === 중요: TRIM = codeModel, GRADE = codeGrade ===
-                    CodeModelGrade cmg = fetchCodeModelGrade(mk.code, mg.code, car.code);
+    /** 메이커 하나 (모델그룹 이하 전체) */
+    public void syncMaker(String makerCode, boolean force) {
+        syncTargets(new Targets(Set.of(makerCode), Set.of(), Set.of()), force, "maker=" + makerCode);
+    }
 
-                    // 1) TRIM: codeModel 기준
-                    List<Trim> trims = cmg.trims();
-                    upsertTrims(mk.code, mg.code, car.code, trims);
+    /** 모델그룹 하나 (모델 이하 전체) */
+    public void syncModelGroup(String makerCode, String groupCode, boolean force) {
+        syncTargets(new Targets(Set.of(), Set.of(List.of(makerCode, groupCode)), Set.of()), force,
+                "maker=" + makerCode + ",group=" + groupCode);
+    }
 
-                    // 2) GRADE: codeGrade 기준
-                    List<Grade> grades = cmg.grades();
-                    upsertGrades(mk.code, mg.code, car.code, grades);
-                }
+    /**
+     * CHACHACHA platform_car 에 새로 나타났지만 사전(cz_*)에 없는 코드가 걸린 하위 트리만 동기화
+     * (플랫폼 코드 = 사전 코드 → 없는 코드의 상위 노드를 캐시 무시하고 재요청)
+     * 다른 플랫폼은 CodeMappingService.syncUnmapped (이번 입력 로우 기준으로 대상 계산 → syncParents)
+     * @return 동기화한 대상 노드 수
+     */
+    public int syncMissingCodes(CodeMappingService.Scope scope) {
+        return syncLimited(missingCodeTargets(scope), true, "CHACHACHA");
+    }
+
+    /**
+     * 다른 플랫폼: 부모까지는 사전에 매칭되고 자식 이름은 못 찾은 부모 노드 아래를 캐시 기준으로 확인
+     * (사전에 자식이 새로 생겼을 가능성)
+     */
+    int syncParents(String platform, Targets t) {
+        return syncLimited(t, false, platform);
+    }
+
+    /** 대상이 code-sync.targeted.max-targets 를 넘으면 앞에서부터 그만큼만 */
+    private int syncLimited(Targets t, boolean force, String platform) {
+        t = t.normalized();
+        if (t.size() == 0) {
+            log.info("[CHACHA] targeted sync platform={} 대상 없음", platform);
+            return 0;
+        }
+        if (t.size() > maxTargets) {
+            log.warn("[CHACHA] targeted sync platform={} 대상 {}개 → {}개만 (나머지는 다음 실행/전체 동기화)",
+                    platform, t.size(), maxTargets);
+            t = t.limit(maxTargets);
+        }
+        syncTargets(t, force, "unmapped " + platform);
+        return t.size();
+    }
+
+    /**
+     * 대상 노드만 하위까지 동기화. 대상의 이름/상위 목록은 경로상의 부모 목록 응답에서 얻고 같이 upsert
+     * (대상마다 따로 돌리지 않고 레벨별로 묶어 한 번에 traverse)
+     */
+    private void syncTargets(Targets t, boolean force, String label) {
+        long t0 = System.nanoTime();
+        SyncStats st = new SyncStats();
+        // 가상 루트: 요청 없음 (subtree 기록 대상 아님)
+        Node<String> root = new Node<>("TARGET", null, new Fetched(null, om.createObjectNode(), false, true, 0, null, null));
+
+        List<Pending<Maker>> makerSeeds = new ArrayList<>();
+        if (!t.makers().isEmpty()) {
+            Fetched f = fetch(MAKERS_URL, force, st).block();
+            List<Maker> all = parseMakers(f.root());
+            if (!f.unchanged()) upsertMakers(all);
+            commitCache(f);
+            for (Maker mk : all) if (t.makers().contains(mk.code)) makerSeeds.add(new Pending<>(mk, root));
+        }
+
+        // 대상 그룹의 부모 메이커 목록(carClass) → 그룹 이름 확보
+        List<Pending<String>> groupParents = t.groups().stream().map(g -> g.get(0)).distinct()
+                .map(mk -> new Pending<>(mk, root)).toList();
+        List<Node<String>> groupLists = fetchLevel(groupParents,
+                mk -> "/public/search/carClass.json?makerCode=" + mk, force, st);
+        List<Pending<ModelGroup>> groupSeeds = new ArrayList<>();
+        for (Node<String> n : groupLists) {
+            List<ModelGroup> all = parseGroups(n.key, n.f.root());
+            if (!n.f.unchanged()) upsertGroups(all);
+            for (ModelGroup g : all) if (t.groups().contains(List.of(g.makerCode, g.code))) groupSeeds.add(new Pending<>(g, root));
+        }
+
+        // 대상 모델의 부모 그룹 목록(carName) → 모델 이름 확보
+        List<Pending<List<String>>> carParents = t.cars().stream().map(c -> c.subList(0, 2)).distinct()
+                .map(mg -> new Pending<>(mg, root)).toList();
+        List<Node<List<String>>> carLists = fetchLevel(carParents,
+                mg -> "/public/search/carName.json?makerCode=" + mg.get(0) + "&classCode=" + mg.get(1), force, st);
+        List<Pending<CarModel>> carSeeds = new ArrayList<>();
+        for (Node<List<String>> n : carLists) {
+            List<CarModel> all = parseCars(n.key.get(0), n.key.get(1), n.f.root());
+            if (!n.f.unchanged()) upsertModels(all);
+            for (CarModel c : all) if (t.cars().contains(List.of(c.makerCode, c.classCode, c.code))) carSeeds.add(new Pending<>(c, root));
+        }
+
+        int found = makerSeeds.size() + groupSeeds.size() + carSeeds.size();
+        if (found < t.size()) {
+            log.warn("[CHACHA] targeted sync {}: 대상 {}개 중 {}개만 차차차 목록에 존재", label, t.size(), found);
+        }
+        traverse(force, st, makerSeeds, groupSeeds, carSeeds);
+        markVerified(root);
+        logDone("targeted " + label, force, t0, st);
+    }
+
+    /** CHACHACHA platform_car 코드 중 cz_* 에 없는 것 → 그 코드의 부모 노드 */
+    private Targets missingCodeTargets(CodeMappingService.Scope scope) {
+        String recent = scope == CodeMappingService.Scope.TODAY ? " AND pc.last_seen_date >= CURRENT_DATE" : "";
+        Set<String> makers = new LinkedHashSet<>(jdbc.queryForList("""
+            SELECT DISTINCT pc.MAKER_CODE
+              FROM platform_car pc
+              LEFT JOIN cz_maker m ON m.maker_code = pc.MAKER_CODE
+             WHERE pc.PLATFORM_NAME = 'CHACHACHA' AND pc.MAKER_CODE IS NOT NULL AND m.maker_code IS NULL
+        """ + recent, String.class));
+        Set<List<String>> groups = new LinkedHashSet<>(jdbc.query("""
+            SELECT DISTINCT pc.MAKER_CODE, pc.MODEL_GROUP_CODE
+              FROM platform_car pc
+              LEFT JOIN cz_model_group g ON g.maker_code = pc.MAKER_CODE AND g.model_group_code = pc.MODEL_GROUP_CODE
+             WHERE pc.PLATFORM_NAME = 'CHACHACHA' AND pc.MODEL_GROUP_CODE IS NOT NULL AND g.maker_code IS NULL
+        """ + recent, (rs, i) -> List.of(rs.getString(1), rs.getString(2))));
+        // 모델/트림/등급이 없으면 모두 모델(carModel.json) 단위로 재요청
+        Set<List<String>> cars = new LinkedHashSet<>(jdbc.query("""
+            SELECT DISTINCT pc.MAKER_CODE, pc.MODEL_GROUP_CODE, pc.MODEL_CODE
+              FROM platform_car pc
+              LEFT JOIN cz_model md ON md.maker_code = pc.MAKER_CODE AND md.model_group_code = pc.MODEL_GROUP_CODE
+                                   AND md.model_code = pc.MODEL_CODE
+              LEFT JOIN cz_trim t   ON t.maker_code = pc.MAKER_CODE AND t.model_group_code = pc.MODEL_GROUP_CODE
+                                   AND t.model_code = pc.MODEL_CODE AND t.trim_code = pc.TRIM_CODE
+              LEFT JOIN cz_grade gr ON gr.maker_code = pc.MAKER_CODE AND gr.model_group_code = pc.MODEL_GROUP_CODE
+                                   AND gr.model_code = pc.MODEL_CODE AND gr.trim_code = pc.TRIM_CODE
+                                   AND gr.grade_code = pc.GRADE_CODE
+             WHERE pc.PLATFORM_NAME = 'CHACHACHA'
+               AND pc.MAKER_CODE IS NOT NULL AND pc.MODEL_GROUP_CODE IS NOT NULL AND pc.MODEL_CODE IS NOT NULL
+               AND (md.model_code IS NULL
+                    OR (pc.TRIM_CODE IS NOT NULL AND t.trim_code IS NULL)
+                    OR (pc.GRADE_CODE IS NOT NULL AND gr.grade_code IS NULL))
+        """ + recent, (rs, i) -> List.of(rs.getString(1), rs.getString(2), rs.getString(3))));
+        return new Targets(makers, groups, cars);
+    }
+
+    /** 동기화 대상: makers / groups(mk,mg) / cars(mk,mg,car) */
+    record Targets(Set<String> makers, Set<List<String>> groups, Set<List<String>> cars) {
+        int size() { return makers.size() + groups.size() + cars.size(); }
+
+        /** 상위 대상에 포함되는 하위 대상 제거 */
+        Targets normalized() {
+            Set<List<String>> g = new LinkedHashSet<>();
+            for (List<String> x : groups) if (!makers.contains(x.get(0))) g.add(x);
+            Set<List<String>> c = new LinkedHashSet<>();
+            for (List<String> x : cars) if (!makers.contains(x.get(0)) && !g.contains(x.subList(0, 2))) c.add(x);
+            return new Targets(makers, g, c);
+        }
+
+        /** 상위 레벨부터 n 개 */
+        Targets limit(int n) {
+            Set<String> m = new LinkedHashSet<>(makers.stream().limit(n).toList());
+            Set<List<String>> g = new LinkedHashSet<>(groups.stream().limit(Math.max(0, n - m.size())).toList());
+            Set<List<String>> c = new LinkedHashSet<>(cars.stream().limit(Math.max(0, n - m.size() - g.size())).toList());
+            return new Targets(m, g, c);
+        }
+    }
+
+    /* ======================= LEVELS ======================= */
+
+    /**
+     * 모델그룹 → 모델 → 트림/등급 레벨 순회
+     * 각 레벨 = 상위 레벨에서 내려온 노드 + 직접 지정한 seed 노드
+     */
+    private void traverse(boolean force, SyncStats st, List<Pending<Maker>> makerPending,
+                          List<Pending<ModelGroup>> groupSeeds, List<Pending<CarModel>> carSeeds) {
+        // 2) 모델그룹 (메이커 전체 동시)
+        List<Node<Maker>> makerNodes = fetchLevel(makerPending,
+                mk -> "/public/search/carClass.json?makerCode=" + mk.code, force, st);
+        Map<Node<Maker>, List<ModelGroup>> groups = parseAll(makerNodes, n -> parseGroups(n.key.code, n.f.root()));
+        upsertGroups(flatten(changedOnly(groups, st)));
+
+        // 3) 모델(car)
+        List<Pending<ModelGroup>> groupPending = new ArrayList<>(expand(makerNodes, force, st, groups::get));
+        groupPending.addAll(groupSeeds);
+        List<Node<ModelGroup>> groupNodes = fetchLevel(groupPending,
+                mg -> "/public/search/carName.json?makerCode=" + mg.makerCode + "&classCode=" + mg.code, force, st);
+        Map<Node<ModelGroup>, List<CarModel>> cars = parseAll(groupNodes, n -> parseCars(n.key.makerCode, n.key.code, n.f.root()));
+        upsertModels(flatten(changedOnly(cars, st)));
+
+        // 4) 트림/등급 (말단)
+        List<Pending<CarModel>> carPending = new ArrayList<>(expand(groupNodes, force, st, cars::get));
+        carPending.addAll(carSeeds);
+        List<Node<CarModel>> carNodes = fetchLevel(carPending,
+                c -> "/public/search/carModel.json?makerCode=" + c.makerCode + "&classCode=" + c.classCode + "&carCode=" + c.code,
+                force, st);
+        // 말단은 응답이 바뀐 것만 파싱
+        List<CodeModelGrade> cmg = new ArrayList<>();
+        for (Node<CarModel> n : carNodes) {
+            if (n.f.unchanged()) st.skippedUpserts.incrementAndGet();
+            else cmg.add(parseCodeModelGrade(n.key.makerCode, n.key.classCode, n.key.code, n.f.root()));
+        }
+        upsertTrims(cmg.stream().flatMap(x -> x.trims().stream()).toList());
+        upsertGrades(cmg.stream().flatMap(x -> x.grades().stream()).toList());
+    }
+
+    private void logDone(String what, boolean force, long t0, SyncStats st) {
+        log.info("[CHACHA] {} sync done. force={} elapsed={}s requests={} notModified={} sameBody={} skippedUpserts={} skippedSubtrees={} failed={}",
+                what, force, Duration.ofNanos(System.nanoTime() - t0).toSeconds(),
+                st.requests.get(), st.notModified.get(), st.sameBody.get(),
+                st.skippedUpserts.get(), st.skippedSubtrees.get(), st.failed.get());
+    }
+
+    /* ======================= TRAVERSAL ======================= */
+
+    /** 트리 노드: 요청 하나의 결과 + 상위/하위 연결 (ok 판정, subtree 확인 기록용) */
+    private static final class Node<K> {
+        final K key;
+        final Node<?> parent;
+        final Fetched f;
+        final List<Node<?>> children = new ArrayList<>();
+        boolean skippedSubtree;
+
+        Node(K key, Node<?> parent, Fetched f) {
+            this.key = key;
+            this.parent = parent;
+            this.f = f;
+        }
+    }
+
+    private record Pending<K>(K key, Node<?> parent) {}
+
+    /** 상위 노드들 중 하위로 내려갈 노드만 골라 (자식 키, 상위) 목록 생성 */
+    private <P, K> List<Pending<K>> expand(List<Node<P>> parents, boolean force, SyncStats st,
+                                          Function<Node<P>, List<K>> childrenOf) {
+        List<Pending<K>> out = new ArrayList<>();
+        for (Node<P> p : parents) {
+            if (canSkipSubtree(p.f, force)) {
+                p.skippedSubtree = true;
+                st.skippedSubtrees.incrementAndGet();
+                continue;
             }
+            for (K k : childrenOf.apply(p)) out.add(new Pending<>(k, p));
+        }
+        return out;
+    }
+
+    /** 한 레벨 전체를 동시에 요청 (최대 concurrency 개), 끝나면 상위 노드에 연결 */
+    private <K> List<Node<K>> fetchLevel(List<Pending<K>> pending, Function<K, String> urlOf,
+                                         boolean force, SyncStats st) {
+        List<Node<K>> nodes = Flux.fromIterable(pending)
+                .flatMap(p -> fetch(urlOf.apply(p.key()), force, st)
+                        .map(f -> new Node<K>(p.key(), p.parent(), f)), concurrency)
+                .collectList()
+                .block();
+        if (nodes == null) return List.of();
+        for (Node<K> n : nodes) n.parent.children.add(n);
+        return nodes;
+    }
+
+    /** 노드별 파싱 결과 (하위 키 목록은 응답이 그대로여도 필요) */
+    private <K, V> Map<Node<K>, V> parseAll(List<Node<K>> nodes, Function<Node<K>, V> parser) {
+        Map<Node<K>, V> out = new IdentityHashMap<>();
+        for (Node<K> n : nodes) out.put(n, parser.apply(n));
+        return out;
+    }
+
+    /** upsert 대상: 응답이 바뀐 노드만 (그대로인 노드는 생략 건수로 집계) */
+    private <K, V> List<V> changedOnly(Map<Node<K>, V> parsed, SyncStats st) {
+        List<V> out = new ArrayList<>();
+        parsed.forEach((n, v) -> {
+            if (n.f.unchanged()) st.skippedUpserts.incrementAndGet();
+            else out.add(v);
+        });
+        return out;
+    }
+
+    private static <V> List<V> flatten(List<List<V>> lists) {
+        return lists.stream().flatMap(List::stream).toList();
+    }
+
+    /**
+     * 후위 순회: 자기 요청 성공 + (하위 생략 또는 하위 전부 ok) 이면 ok. 하위가 있는 노드만 기록
+     * traverse 의 upsert 가 모두 끝난 뒤에만 호출됨 → 여기서 노드별 캐시 응답도 기록 (commitCache)
+     */
+    private boolean markVerified(Node<?> n) {
+        boolean ok = n.f.ok();
+        for (Node<?> c : n.children) ok &= markVerified(c);
+        commitCache(n.f);
+        if (ok && n.f.url() != null && !n.skippedSubtree && !n.children.isEmpty()) {
+            cache.markSubtreeVerified(n.f.url(), System.currentTimeMillis());
         }
-        log.info("[CHACHA] full sync done.");
+        return ok;
+    }
+
+    /**
+     * 응답이 그대로이고, 그 아래를 마지막으로 끝까지 확인한 지 subtreeTtlHours 이내면 하위 요청 생략.
+     * (부모 목록이 같아도 하위 트림이 바뀔 수 있어 TTL 마다 한 번은 내려가 확인 — 대부분 304/동일 본문)
+     */
+    private boolean canSkipSubtree(Fetched f, boolean force) {
+        if (force || !f.unchanged() || f.subtreeVerifiedAt() <= 0) return false;
+        return System.currentTimeMillis() - f.subtreeVerifiedAt() < Duration.ofHours(subtreeTtlHours).toMillis();
     }
 
-    /* ======================= FETCHERS ======================= */
+    /* ======================= PARSERS ======================= */
 
-    private List<Maker> fetchMakers() {
-        JsonNode root = get("/public/search/carMaker.json");
+    private List<Maker> parseMakers(JsonNode root) {
         List<Maker> out = new ArrayList<>();
         for (String key : List.of("국산", "수입")) {
             JsonNode arr = root.path("result").path(key);
@@ -87,8 +410,7 @@ public class ChachaCodeSyncService {
         return out;
     }
 
-    private List<ModelGroup> fetchGroups(String makerCode) {
-        JsonNode root = get("/public/search/carClass.json?makerCode=" + makerCode);
+    private List<ModelGroup> parseGroups(String makerCode, JsonNode root) {
         JsonNode code = root.path("result").path("code");
         List<ModelGroup> out = new ArrayList<>();
         if (code.isArray()) {
@@ -96,15 +418,14 @@ public class ChachaCodeSyncService {
                 String classCode = n.path("classCode").asText(null);
                 String className = n.path("className").asText(null);
                 if (classCode != null && className != null) {
-                    out.add(new ModelGroup(classCode, className));
+                    out.add(new ModelGroup(makerCode, classCode, className));
                 }
             }
         }
         return out;
     }
 
-    private List<CarModel> fetchCars(String makerCode, String classCode) {
-        JsonNode root = get("/public/search/carName.json?makerCode=" + makerCode + "&classCode=" + classCode);
+    private List<CarModel> parseCars(String makerCode, String classCode, JsonNode root) {
         JsonNode code = root.path("result").path("code");
         List<CarModel> out = new ArrayList<>();
         if (code.isArray()) {
@@ -112,7 +433,7 @@ public class ChachaCodeSyncService {
                 String carCode = n.path("carCode").asText(null);
                 String carName = n.path("carName").asText(null);
                 if (carCode != null && carName != null) {
-                    out.add(new CarModel(carCode, carName));
+                    out.add(new CarModel(makerCode, classCode, carCode, carName));
                 }
             }
         }
@@ -120,10 +441,7 @@ public class ChachaCodeSyncService {
     }
 
     /** carModel.json 파싱: TRIM=codeModel, GRADE=codeGrade (없을 경우 안전 폴백) */
-    private CodeModelGrade fetchCodeModelGrade(String makerCode, String classCode, String carCode) {
-        String url = "/public/search/carModel.json?makerCode=" + makerCode + "&classCode=" + classCode + "&carCode=" + carCode;
-        JsonNode root = get(url);
-
+    private CodeModelGrade parseCodeModelGrade(String makerCode, String classCode, String carCode, JsonNode root) {
         // 1) TRIM: codeModel 배열 사용 (modelCode/modelName)
         List<Trim> trims = new ArrayList<>();
         JsonNode codeModel = root.path("result").path("codeModel");
@@ -132,7 +450,7 @@ public class ChachaCodeSyncService {
                 String modelCode = n.path("modelCode").asText(null);
                 String modelName = n.path("modelName").asText(null);
                 if (modelCode != null && modelName != null) {
-                    trims.add(new Trim(modelCode, modelName));
+                    trims.add(new Trim(makerCode, classCode, carCode, modelCode, modelName));
                 }
             }
         }
@@ -149,7 +467,9 @@ public class ChachaCodeSyncService {
                         tmp.putIfAbsent(modelCode, modelName);
                     }
                 }
-                trims = tmp.entrySet().stream().map(e -> new Trim(e.getKey(), e.getValue())).collect(Collectors.toList());
+                trims = tmp.entrySet().stream()
+                        .map(e -> new Trim(makerCode, classCode, carCode, e.getKey(), e.getValue()))
+                        .collect(Collectors.toList());
             }
         }
 
@@ -162,7 +482,7 @@ public class ChachaCodeSyncService {
                 String gradeCode = n.path("gradeCode").asText(null);
                 String gradeName = n.path("gradeName").asText(null);
                 if (modelCode != null && gradeCode != null && gradeName != null) {
-                    grades.add(new Grade(modelCode, gradeCode, gradeName));
+                    grades.add(new Grade(makerCode, classCode, carCode, modelCode, gradeCode, gradeName));
                 }
             }
         }
@@ -170,27 +490,67 @@ public class ChachaCodeSyncService {
         return new CodeModelGrade(trims, grades);
     }
 
-    private JsonNode get(String urlOrPath) {
+    /**
+     * 조건부 GET (HttpResponseCache), 블로킹 없음 — 응답 후처리(캐시 파일 IO)는 boundedElastic
+     * - 캐시에 ETag/Last-Modified 있으면 If-None-Match / If-Modified-Since → 304 면 캐시 본문
+     * - 200 이어도 정규화 JSON 해시가 캐시와 같으면 unchanged
+     * - 실패 시 빈 노드 + ok=false (기존처럼 로그만 남기고 진행)
+     */
+    private Mono<Fetched> fetch(String urlOrPath, boolean force, SyncStats st) {
+        // 절대경로 보정: "http"로 시작하지 않으면 HOST 붙임
+        String url = urlOrPath.startsWith("http") ? urlOrPath : HOST + urlOrPath;
+        return Mono.defer(() -> {
+                    HttpResponseCache.Entry cached = force ? null : cache.entry(url);
+                    st.requests.incrementAndGet();
+                    return webClient.get()
+                            .uri(url)
+                            .header("Referer", HOST) // 일부 사이트가 Referer 체크
+                            .headers(h -> {
+                                if (cached == null) return;
+                                if (cached.etag() != null) h.setIfNoneMatch(cached.etag());
+                                if (cached.lastModified() != null) h.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+                            })
+                            .exchangeToMono(r -> r.toEntity(String.class))
+                            .timeout(Duration.ofSeconds(15))
+                            .publishOn(Schedulers.boundedElastic())
+                            .map(resp -> toFetched(url, cached, resp, st));
+                })
+                .onErrorResume(e -> {
+                    st.failed.incrementAndGet();
+                    log.error("[CHACHA] GET {} failed: {}", urlOrPath, e.toString());
+                    return Mono.just(new Fetched(url, om.createObjectNode(), false, false, 0, null, null));
+                });
+    }
+
+    private Fetched toFetched(String url, HttpResponseCache.Entry cached, ResponseEntity<String> resp, SyncStats st) {
         try {
-            // 절대경로 보정: "http"로 시작하지 않으면 HOST 붙임
-            String url = urlOrPath.startsWith("http") ? urlOrPath : HOST + urlOrPath;
-
-            String json = webClient.get()
-                    .uri(url)
-                    .header("Referer", HOST) // 일부 사이트가 Referer 체크
-                    .retrieve()
-                    .bodyToMono(String.class)
-                    .timeout(Duration.ofSeconds(15))
-                    .block();
-
-            return om.readTree(json);
+            if (resp.getStatusCode().value() == 304 && cached != null) {
+                String body = cache.body(url);
+                if (body != null) {
+                    st.notModified.incrementAndGet();
+                    return new Fetched(url, om.readTree(body), true, true, cached.subtreeVerifiedAt(), null, null);
+                }
+            }
+            if (!resp.getStatusCode().is2xxSuccessful() || resp.getBody() == null) {
+                throw new IllegalStateException("status=" + resp.getStatusCode().value());
+            }
+
+            JsonNode root = om.readTree(resp.getBody());
+            String hash = PayloadHasher.hash(root);
+            boolean same = cached != null && hash.equals(cached.bodyHash());
+            if (same) st.sameBody.incrementAndGet();
+            long verifiedAt = same ? cached.subtreeVerifiedAt() : 0;  // 본문이 바뀌면 하위 확인 기록도 무효
+            // 캐시 기록은 이 노드 upsert 성공 후 (commitCache) — upsert 실패 시 다음 실행에서 다시 upsert
+            HttpResponseCache.Entry pending = new HttpResponseCache.Entry(url,
+                    resp.getHeaders().getETag(), resp.getHeaders().getFirst(HttpHeaders.LAST_MODIFIED),
+                    hash, verifiedAt);
+            return new Fetched(url, root, same, true, verifiedAt, pending, resp.getBody());
         } catch (Exception e) {
-            log.error("[CHACHA] GET {} failed: {}", urlOrPath, e.toString());
-            return om.createObjectNode();
+            throw new IllegalStateException(e.getMessage(), e);
         }
     }
 
-    /* ======================= UPSERTS ======================= */
+    /* ======================= UPSERTS (레벨 단위 일괄) ======================= */
 
     private void upsertMakers(List<Maker> list) {
         if (list.isEmpty()) return;
@@ -199,101 +559,121 @@ public class ChachaCodeSyncService {
             VALUES (?,?)
             ON DUPLICATE KEY UPDATE maker_name=VALUES(maker_name)
         """;
-        batch(list.size(), sql, (ps, i) -> {
-            Maker m = list.get(i);
+        batch(list, sql, (ps, m) -> {
             ps.setString(1, m.code); ps.setString(2, m.name);
         });
         log.info("[CHACHA] makers upsert={}", list.size());
     }
 
-    private void upsertGroups(String makerCode, List<ModelGroup> list) {
+    private void upsertGroups(List<ModelGroup> list) {
         if (list.isEmpty()) return;
         String sql = """
             INSERT INTO cz_model_group (maker_code, model_group_code, model_group_name)
             VALUES (?,?,?)
             ON DUPLICATE KEY UPDATE model_group_name=VALUES(model_group_name)
         """;
-        batch(list.size(), sql, (ps, i) -> {
-            ModelGroup g = list.get(i);
-            ps.setString(1, makerCode);
+        batch(list, sql, (ps, g) -> {
+            ps.setString(1, g.makerCode);
             ps.setString(2, g.code);
             ps.setString(3, g.name);
         });
-        log.info("[CHACHA] groups upsert mk={} n={}", makerCode, list.size());
+        log.info("[CHACHA] groups upsert n={}", list.size());
     }
 
-    private void upsertModels(String makerCode, String groupCode, List<CarModel> list) {
+    private void upsertModels(List<CarModel> list) {
         if (list.isEmpty()) return;
         String sql = """
             INSERT INTO cz_model (maker_code, model_group_code, model_code, model_name)
             VALUES (?,?,?,?)
             ON DUPLICATE KEY UPDATE model_name=VALUES(model_name)
         """;
-        batch(list.size(), sql, (ps, i) -> {
-            CarModel m = list.get(i);
-            ps.setString(1, makerCode);
-            ps.setString(2, groupCode);
+        batch(list, sql, (ps, m) -> {
+            ps.setString(1, m.makerCode);
+            ps.setString(2, m.classCode);
             ps.setString(3, m.code);
             ps.setString(4, m.name);
         });
-        log.info("[CHACHA] models(car) upsert mk={},mg={} n={}", makerCode, groupCode, list.size());
+        log.info("[CHACHA] models(car) upsert n={}", list.size());
     }
 
     /** ✅ TRIM: carModel.json의 codeModel 기반 */
-    private void upsertTrims(String makerCode, String groupCode, String modelCode, List<Trim> list) {
+    private void upsertTrims(List<Trim> list) {
         if (list.isEmpty()) return;
         String sql = """
             INSERT INTO cz_trim (maker_code, model_group_code, model_code, trim_code, trim_name)
             VALUES (?,?,?,?,?)
             ON DUPLICATE KEY UPDATE trim_name=VALUES(trim_name)
         """;
-        batch(list.size(), sql, (ps, i) -> {
-            Trim t = list.get(i);
-            ps.setString(1, makerCode);
-            ps.setString(2, groupCode);
-            ps.setString(3, modelCode);
+        batch(list, sql, (ps, t) -> {
+            ps.setString(1, t.makerCode);
+            ps.setString(2, t.classCode);
+            ps.setString(3, t.carCode);
             ps.setString(4, t.code); // ← modelCode 가 trim_code 로 들어간다
             ps.setString(5, t.name);
         });
-        log.info("[CHACHA] trims upsert mk={},mg={},model={} n={}", makerCode, groupCode, modelCode, list.size());
+        log.info("[CHACHA] trims upsert n={}", list.size());
     }
 
     /** ✅ GRADE: carModel.json의 codeGrade 기반 */
-    private void upsertGrades(String makerCode, String groupCode, String modelCode, List<Grade> list) {
+    private void upsertGrades(List<Grade> list) {
         if (list.isEmpty()) return;
         String sql = """
             INSERT INTO cz_grade (maker_code, model_group_code, model_code, trim_code, grade_code, grade_name)
             VALUES (?,?,?,?,?,?)
             ON DUPLICATE KEY UPDATE grade_name=VALUES(grade_name)
         """;
-        batch(list.size(), sql, (ps, i) -> {
-            Grade g = list.get(i);
-            ps.setString(1, makerCode);
-            ps.setString(2, groupCode);
-            ps.setString(3, modelCode);
+        batch(list, sql, (ps, g) -> {
+            ps.setString(1, g.makerCode);
+            ps.setString(2, g.classCode);
+            ps.setString(3, g.carCode);
             ps.setString(4, g.modelCode); // grade는 model(=trim) 하위
             ps.setString(5, g.gradeCode);
             ps.setString(6, g.gradeName);
         });
-        log.info("[CHACHA] grades upsert mk={},mg={},model={} n={}", makerCode, groupCode, modelCode, list.size());
+        log.info("[CHACHA] grades upsert n={}", list.size());
     }
 
     /* ======================= UTIL ======================= */
 
-    private interface PSS { void set(PreparedStatement ps, int i) throws SQLException; }
-    private void batch(int size, String sql, PSS setter) {
-        jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
-            @Override public void setValues(PreparedStatement ps, int i) throws SQLException { setter.set(ps, i); }
-            @Override public int getBatchSize() { return size; }
-        });
+    private interface PSS<T> { void set(PreparedStatement ps, T row) throws SQLException; }
+
+    /** UPSERT_BATCH 건씩 잘라 batchUpdate */
+    private <T> void batch(List<T> rows, String sql, PSS<T> setter) {
+        for (int from = 0; from < rows.size(); from += UPSERT_BATCH) {
+            List<T> chunk = rows.subList(from, Math.min(from + UPSERT_BATCH, rows.size()));
+            jdbc.batchUpdate(sql, new BatchPreparedStatementSetter() {
+                @Override public void setValues(PreparedStatement ps, int i) throws SQLException { setter.set(ps, chunk.get(i)); }
+                @Override public int getBatchSize() { return chunk.size(); }
+            });
+        }
+    }
+
+    /** 응답 캐시 기록 — 해당 노드 upsert 성공 후에만 (304 는 기존 캐시 그대로라 기록 없음) */
+    private void commitCache(Fetched f) {
+        if (f.pending() != null) cache.put(f.pending(), f.body());
     }
 
     /* ======================= DTO ======================= */
 
     private record Maker(String code, String name, String country, Integer order){}
-    private record ModelGroup(String code, String name){}
-    private record CarModel(String code, String name){}
-    private record Trim(String code, String name){}
-    private record Grade(String modelCode, String gradeCode, String gradeName){}
+    private record ModelGroup(String makerCode, String code, String name){}
+    private record CarModel(String makerCode, String classCode, String code, String name){}
+    private record Trim(String makerCode, String classCode, String carCode, String code, String name){}
+    private record Grade(String makerCode, String classCode, String carCode, String modelCode, String gradeCode, String gradeName){}
     private record CodeModelGrade(List<Trim> trims, List<Grade> grades){}
+    /**
+     * unchanged = 304 또는 본문 해시 동일 → 해당 노드 upsert 생략
+     * pending/body = upsert 성공 후 기록할 캐시 (304·실패면 null)
+     */
+    private record Fetched(String url, JsonNode root, boolean unchanged, boolean ok, long subtreeVerifiedAt,
+                           HttpResponseCache.Entry pending, String body){}
+
+    private static final class SyncStats {
+        final AtomicInteger requests = new AtomicInteger();
+        final AtomicInteger notModified = new AtomicInteger();
+        final AtomicInteger sameBody = new AtomicInteger();
+        final AtomicInteger skippedUpserts = new AtomicInteger();
+        final AtomicInteger skippedSubtrees = new AtomicInteger();
+        final AtomicInteger failed = new AtomicInteger();
+    }
 }
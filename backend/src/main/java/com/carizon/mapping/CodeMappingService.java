@@ -2,6 +2,7 @@ package com.carizon.mapping;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.BatchPreparedStatementSetter;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
@@ -20,6 +21,11 @@ import static com.carizon.mapping.StringNormalizer.Level;
 public class CodeMappingService {
 
     private final JdbcTemplate jdbc;
+    private final ChachaCodeSyncService codeSync;
+
+    /** 매핑 전에 미매핑 코드가 걸린 사전 하위 트리만 먼저 동기화 */
+    @Value("${code-sync.before-mapping:true}")
+    private boolean syncBeforeMapping;
 
     public enum Scope { TODAY, FULL }
 
@@ -44,12 +50,24 @@ public class CodeMappingService {
         var rows = fetchPlatformRows(platform, scope);
         if (rows.isEmpty()) return 0;
 
-        // 2) 캐시/사전 한 번만 로드
+        // 2) 캐시/사전 한 번만 로드 (강제매핑/차량번호는 cz_* 와 무관 → 동기화 전에)
         var plateStd = preloadPlateStd(rows);
         log.debug("preloadPlateStd : {}", plateStd) ;
         var forced = preloadForced(platform);
         var dict = preloadStandardDictionaries(); // maker→groups→models→trims→grades 이름 캐시
 
+        // 2-1) 사전 부분 동기화 (실패해도 현재 사전으로 매핑 진행). 동기화한 게 있으면 사전 다시 로드
+        if (syncBeforeMapping) {
+            try {
+                int synced = "CHACHACHA".equals(platform)
+                        ? codeSync.syncMissingCodes(scope)
+                        : codeSync.syncParents(platform, unmatchedParents(rows, plateStd, forced, dict));
+                if (synced > 0) dict = preloadStandardDictionaries();
+            } catch (Exception e) {
+                log.warn("targeted code sync failed platform={} : {}", platform, e.toString());
+            }
+        }
+
         // 3) 배치 업서트 버퍼
         List<Param> buffer = new ArrayList<>(BATCH_SIZE);
         int total = 0;
@@ -126,6 +144,58 @@ public class CodeMappingService {
         return total;
     }
 
+    /**
+     * 매핑 없이 사전 부분 동기화만 (POST /admin/chacha/sync-unmapped/{platform})
+     * @return 동기화한 대상 노드 수
+     */
+    public int syncUnmapped(String platformName, Scope scope) {
+        final String platform = platformName.toUpperCase();
+        if ("CHACHACHA".equals(platform)) return codeSync.syncMissingCodes(scope);
+        var rows = fetchPlatformRows(platform, scope);
+        if (rows.isEmpty()) return 0;
+        return codeSync.syncParents(platform,
+                unmatchedParents(rows, preloadPlateStd(rows), preloadForced(platform), preloadStandardDictionaries()));
+    }
+
+    /**
+     * 이번 입력 로우 중 "부모까지는 사전 매칭, 자식 이름은 있는데 미매칭" 인 부모 노드
+     * (강제매핑/차량번호로 풀리는 로우는 제외. 판정은 runAutoMapping 의 부모제약 매칭과 같은 기준)
+     */
+    private ChachaCodeSyncService.Targets unmatchedParents(List<Row> rows, Map<String, Std> plateStd,
+                                                           List<Forced> forced, Dict dict) {
+        Set<String> makers = new LinkedHashSet<>();
+        Set<List<String>> groups = new LinkedHashSet<>();
+        Set<List<String>> cars = new LinkedHashSet<>();
+        for (Row r : rows) {
+            if (findForced(forced, r) != null) continue;
+            if (r.plate != null && plateStd.containsKey(r.plate)) continue;
+
+            String pmgN = normalize(r.p_model_group_name, Level.MODEL_GROUP);
+            String pmdN = normalize(r.p_model_name, Level.MODEL);
+            String ptrN = normalize(r.p_trim_name, Level.TRIM);
+            String pgrN = normalize(r.p_grade_name, Level.GRADE);
+
+            DictMaker mk = dict.bestMaker(normalize(r.p_maker_name, Level.MAKER), THRESH_MAKER);
+            if (mk == null) continue;
+            DictGroup mg = dict.bestGroup(mk.code, pmgN, THRESH_GROUP);
+            if (mg == null) {
+                if (notBlank(pmgN)) makers.add(mk.code);
+                continue;
+            }
+            DictModel md = dict.bestModel(mk.code, mg.code, pmdN, THRESH_MODEL);
+            if (md == null) {
+                if (notBlank(pmdN)) groups.add(List.of(mk.code, mg.code));
+                continue;
+            }
+            DictTrim tr = notBlank(ptrN) ? dict.bestTrim(mk.code, mg.code, md.code, ptrN, THRESH_TRIM) : null;
+            boolean trimMiss = notBlank(ptrN) && tr == null;
+            boolean gradeMiss = tr != null && notBlank(pgrN)
+                    && dict.bestGrade(mk.code, mg.code, md.code, tr.code, pgrN, THRESH_GRADE) == null;
+            if (trimMiss || gradeMiss) cars.add(List.of(mk.code, mg.code, md.code));
+        }
+        return new ChachaCodeSyncService.Targets(makers, groups, cars);
+    }
+
     /* ======================= I/O & 캐시 ======================= */
 
     private List<Row> fetchPlatformRows(String platform, Scope scope) {
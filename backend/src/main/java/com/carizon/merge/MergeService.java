@@ -1,11 +1,18 @@
 package com.carizon.merge;
 
-import lombok.RequiredArgsConstructor;
+import com.carizon.batch.CrawlSource;
+import com.carizon.common.SchemaCheck;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.TransactionDefinition;
@@ -13,38 +20,104 @@ import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionTemplate;
 
+import javax.sql.DataSource;
+import java.sql.Connection;
 import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.CompletableFuture;
-import java.util.concurrent.Executors;
-import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * 파이프라인
  *  1) RAW_* → platform_car : 배치별 REQUIRES_NEW + 플랫폼별 Named Lock + ODKU
+ *     (플랫폼별 컬럼 매핑/SQL 은 PlatformMergeRegistry)
  *  2) platform_car → car_master 링크 : 배치별 REQUIRES_NEW, SKIP LOCKED
  *  3) 가격 스냅샷 / 미노출 SOLD : 단계별 REQUIRES_NEW
  *
+ * 전체 merge(mergeAllPlatforms) 는 1) 을 플랫폼별로 병렬 실행 (merge.parallel.enabled)
+ *  - 실행기 스레드 수 = Hikari maximumPoolSize - merge.parallel.reserve-connections (플랫폼 수 이하)
+ *  - 큰 플랫폼(raw_* 추정 row 수)부터 시작 → 전체 시간 ≈ 가장 큰 플랫폼 시간
+ *  - platform_car UNIQUE(platform_name, platform_car_key) 에서 이름이 인접한 플랫폼끼리는 키 구간 경계를
+ *    공유(next-key lock) → 먼저 시작한 이웃보다 stagger-ms 늦게 시작해 첫 배치끼리 겹치지 않게 함
+ *    (그래도 나는 Deadlock 은 runWithRetry 가 재시도)
+ *  - 플랫폼별 소요시간은 로그 + merge.platform.time{platform} 메트릭
+ *  - 플랫폼 안에서는 raw id 구간을 한 번에 계산해 두고 순서대로(또는 range-workers 개로 나눠) 처리
+ *  - 구간마다 row_hash 가 같은(변경 없는) 매물은 last_seen_date 만 갱신, 변경/신규만 ODKU
+ *    (건수는 로그 + merge.rows{platform,path} 메트릭)
+ *
  * 필수 인덱스:
  *  - platform_car UNIQUE (platform_name, platform_car_key)
- *  - platform_car PK (platform_car_id), INDEX (car_id), INDEX (last_seen_date)
+ *  - platform_car PK (platform_car_id), INDEX (car_id), INDEX (last_seen_date), row_hash CHAR(24) (db/migration V4)
  *  - car_master UNIQUE (car_no)
+ *  - platform_car_payload PK (platform_car_id) : 원본 JSON (platform_car.extra 대체, PlatformCarPayloadStore)
  *  - raw_* PK/INDEX (id)
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class MergeService {
 
     private final JdbcTemplate jdbc;
     private final NamedParameterJdbcTemplate npJdbc;
     private final PlatformTransactionManager txManager;
+    private final MeterRegistry meters;
+    private final PlatformMergeRegistry registry;
+    private final PlatformCarPayloadStore payloads;
+    private final ThreadPoolTaskExecutor executor;
+    private final boolean parallel;
+    private final long staggerMs;
+    private final int rangeWorkers;
+    private final DataSource dataSource;
+    private final int lockWaitSeconds;
+    private final SchemaCheck schema;
 
     // 잠금 경합 줄이려면 우선 작게. 상황 봐가며 키워도 됨.
     private static final int UPSERT_BATCH_SIZE = 1_000; // raw_* → platform_car
     private static final int LINK_BATCH_SIZE   = 1_000; // platform_car → car_master
-    private static final boolean PARALLEL_ALL  = false;
+
+    public MergeService(JdbcTemplate jdbc, NamedParameterJdbcTemplate npJdbc, PlatformTransactionManager txManager,
+                        MeterRegistry meters, PlatformMergeRegistry registry, PlatformCarPayloadStore payloads,
+                        DataSource dataSource, SchemaCheck schema,
+                        @Value("${merge.parallel.enabled:true}") boolean parallel,
+                        @Value("${merge.parallel.threads:0}") int threads,
+                        @Value("${merge.parallel.reserve-connections:4}") int reserve,
+                        @Value("${merge.parallel.stagger-ms:2000}") long staggerMs,
+                        @Value("${merge.parallel.range-workers:1}") int rangeWorkers,
+                        @Value("${merge.parallel.lock-wait-seconds:600}") int lockWaitSeconds) {
+        this.jdbc = jdbc;
+        this.npJdbc = npJdbc;
+        this.txManager = txManager;
+        this.meters = meters;
+        this.registry = registry;
+        this.payloads = payloads;
+        this.parallel = parallel;
+        this.staggerMs = staggerMs;
+        this.rangeWorkers = rangeWorkers;
+        this.dataSource = dataSource;
+        this.lockWaitSeconds = lockWaitSeconds;
+        this.schema = schema;
+
+        int poolMax = dataSource instanceof HikariDataSource h ? h.getMaximumPoolSize() : 10;
+        int size = threads > 0 ? threads : Math.max(1, Math.min(registry.sources().size(), poolMax - reserve));
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setThreadNamePrefix("merge-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(600);
+        executor.initialize();
+        log.info("[MERGE] parallel={} threads={} (hikari max={}, reserve={}) stagger={}ms rangeWorkers={}",
+                parallel, size, poolMax, reserve, staggerMs, rangeWorkers);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+    }
 
     /* ====================== 유틸 ====================== */
 
@@ -78,6 +151,60 @@ public class MergeService {
         return tx;
     }
 
+    /** Named Lock 없이 REQUIRES_NEW (플랫폼 락은 호출 측이 PlatformLock 으로 이미 보유) */
+    private <T> T inTx(TxCallable<T> work) {
+        return runWithRetry(3, 200L, () -> requiresNew().execute(status -> work.call()));
+    }
+
+    /**
+     * merge 전체 동안 플랫폼 Named Lock (merge:X) 보유 — range-workers > 1 일 때
+     * GET_LOCK 은 커넥션 단위 → 전용 커넥션 하나를 잡고 있다가 close() 에서 RELEASE_LOCK 후 반납
+     * (워커 트랜잭션은 다른 커넥션이라 같은 이름을 다시 잡지 않음)
+     */
+    private final class PlatformLock implements AutoCloseable {
+        private final Connection con;
+        private final String name;
+
+        PlatformLock(CrawlSource source) {
+            this.name = lockName(source);
+            Connection c = null;
+            try {
+                c = dataSource.getConnection();
+                try (PreparedStatement ps = c.prepareStatement("SELECT GET_LOCK(?, ?)")) {
+                    ps.setString(1, name);
+                    ps.setInt(2, lockWaitSeconds);
+                    try (ResultSet rs = ps.executeQuery()) {
+                        if (!rs.next() || rs.getInt(1) != 1) {
+                            throw new IllegalStateException("could not acquire lock: " + name + " (" + lockWaitSeconds + "s)");
+                        }
+                    }
+                }
+                this.con = c;
+            } catch (SQLException e) {
+                closeQuietly(c);
+                throw new IllegalStateException("could not acquire lock: " + name, e);
+            } catch (RuntimeException e) {
+                closeQuietly(c);
+                throw e;
+            }
+        }
+
+        @Override
+        public void close() {
+            try (con; PreparedStatement ps = con.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+                ps.setString(1, name);
+                ps.execute();
+            } catch (SQLException e) {
+                log.warn("RELEASE_LOCK({}) failed (released on disconnect): {}", name, e.getMessage());
+            }
+        }
+
+        private static void closeQuietly(Connection c) {
+            if (c == null) return;
+            try { c.close(); } catch (SQLException ignore) { }
+        }
+    }
+
     /** 같은 커넥션/트랜잭션에서 Named Lock 획득 후 작업 실행 */
     private <T> T inTxWithNamedLock(String lockName, TxCallable<T> work) {
         return runWithRetry(3, 200L, () ->
@@ -103,343 +230,231 @@ public class MergeService {
 
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public int mergeAllPlatforms(LocalDate bizDate) {
-        if (PARALLEL_ALL) {
-            var ex = Executors.newFixedThreadPool(4);
-            try {
-                CompletableFuture.allOf(
-                        CompletableFuture.runAsync(() -> mergeChachachaDetail(bizDate), ex),
-                        CompletableFuture.runAsync(() -> mergeEncarDetail(bizDate), ex),
-                        CompletableFuture.runAsync(() -> mergeKcarDetail(bizDate), ex),
-                        CompletableFuture.runAsync(() -> mergeChutchaDetail(bizDate), ex),
-                        CompletableFuture.runAsync(() -> mergeCharanchaDetail(bizDate), ex)
-                ).join();
-            } finally { ex.shutdown(); }
-        } else {
-            mergeChachachaDetail(bizDate);
-            mergeEncarDetail(bizDate);
-            mergeKcarDetail(bizDate);
-            mergeChutchaDetail(bizDate);
-            mergeCharanchaDetail(bizDate);
+        Set<CrawlSource> platforms = registry.sources();
+
+        long t0 = System.nanoTime();
+        Map<CrawlSource, Duration> took = parallel ? runParallel(platforms, bizDate) : runSequential(platforms, bizDate);
+        log.info("[MERGE] platforms wall={}ms sum={}ms{}", Duration.ofNanos(System.nanoTime() - t0).toMillis(),
+                took.values().stream().mapToLong(Duration::toMillis).sum(), describe(took));
+
+        long p0 = System.nanoTime();
+        int linked = postProcess(bizDate);
+        Timer.builder("merge.postprocess.time").register(meters).record(Duration.ofNanos(System.nanoTime() - p0));
+        return linked;
+    }
+
+    private Map<CrawlSource, Duration> runSequential(Set<CrawlSource> platforms, LocalDate bizDate) {
+        Map<CrawlSource, Duration> took = new EnumMap<>(CrawlSource.class);
+        platforms.forEach(src -> took.put(src, timed(src, () -> mergeDetail(src, bizDate))));
+        return took;
+    }
+
+    /** 큰 플랫폼부터 실행기에 제출, 이름이 인접한 플랫폼은 stagger. 한 플랫폼 실패 → 나머지 끝난 뒤 예외 전파 */
+    private Map<CrawlSource, Duration> runParallel(Set<CrawlSource> platforms, LocalDate bizDate) {
+        Map<CrawlSource, Long> size = new EnumMap<>(CrawlSource.class);
+        platforms.forEach(s -> size.put(s, estimatedRows(s)));
+        List<CrawlSource> order = new ArrayList<>(platforms);
+        order.sort(Comparator.comparing((CrawlSource s) -> size.get(s)).reversed());
+
+        Map<CrawlSource, Long> delay = startDelays(order);
+        Map<CrawlSource, Duration> took = Collections.synchronizedMap(new EnumMap<>(CrawlSource.class));
+        List<CompletableFuture<Void>> futures = new ArrayList<>(order.size());
+        for (CrawlSource src : order) {
+            long wait = delay.get(src);
+            log.info("[MERGE] {} 제출 rows≈{} delay={}ms", src, size.get(src), wait);
+            futures.add(CompletableFuture.runAsync(() -> {
+                if (wait > 0) {
+                    try {
+                        Thread.sleep(wait);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new IllegalStateException("merge interrupted: " + src, e);
+                    }
+                }
+                took.put(src, timed(src, () -> mergeDetail(src, bizDate)));
+            }, executor));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+        return took;
+    }
+
+    /**
+     * platform_name 정렬 순서에서 바로 옆 플랫폼 = UNIQUE 인덱스 키 구간 경계를 공유.
+     * 제출 순서대로 보면서 이미 배정된 이웃보다 staggerMs 뒤에 시작
+     */
+    private Map<CrawlSource, Long> startDelays(List<CrawlSource> order) {
+        List<String> byName = order.stream().map(Enum::name).sorted().toList();
+        Map<CrawlSource, Long> delay = new EnumMap<>(CrawlSource.class);
+        for (CrawlSource src : order) {
+            int i = byName.indexOf(src.name());
+            long d = 0;
+            for (int j : new int[]{i - 1, i + 1}) {
+                if (j < 0 || j >= byName.size()) continue;
+                Long nd = delay.get(CrawlSource.valueOf(byName.get(j)));
+                if (nd != null) d = Math.max(d, nd + staggerMs);
+            }
+            delay.put(src, d);
         }
-        return postProcess(bizDate);
+        return delay;
+    }
+
+    /** information_schema 추정치 (COUNT(*) 는 큰 InnoDB 테이블에서 느림) */
+    private long estimatedRows(CrawlSource src) {
+        Long n = jdbc.queryForObject("""
+            SELECT COALESCE(MAX(TABLE_ROWS), 0) FROM information_schema.TABLES
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ?
+        """, Long.class, src.rawTable());
+        return n == null ? 0 : n;
+    }
+
+    private Duration timed(CrawlSource src, Runnable merge) {
+        long t0 = System.nanoTime();
+        merge.run();
+        Duration d = Duration.ofNanos(System.nanoTime() - t0);
+        Timer.builder("merge.platform.time").tag("platform", src.name()).register(meters).record(d);
+        log.info("[MERGE] {} platform_car merge {}ms", src, d.toMillis());
+        return d;
     }
 
+    private static String describe(Map<CrawlSource, Duration> took) {
+        StringBuilder sb = new StringBuilder();
+        took.forEach((s, d) -> sb.append(" | ").append(s).append(' ').append(d.toMillis()).append("ms"));
+        return sb.toString();
+    }
+
+    /** 플랫폼 1개 merge + 후처리 (PlatformMergeRegistry 에 정의가 없으면 IllegalArgumentException) */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int merge(CrawlSource source, LocalDate bizDate) { mergeDetail(source, bizDate); return postProcess(bizDate); }
+
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    public int mergeChachacha(LocalDate bizDate) { mergeChachachaDetail(bizDate); return postProcess(bizDate); }
+    public int mergeChachacha(LocalDate bizDate) { return merge(CrawlSource.CHACHACHA, bizDate); }
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    public int mergeCharancha(LocalDate bizDate) { mergeCharanchaDetail(bizDate); return postProcess(bizDate); }
+    public int mergeCharancha(LocalDate bizDate) { return merge(CrawlSource.CHARANCHA, bizDate); }
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    public int mergeEncar(LocalDate bizDate)     { mergeEncarDetail(bizDate);     return postProcess(bizDate); }
+    public int mergeEncar(LocalDate bizDate)     { return merge(CrawlSource.ENCAR, bizDate); }
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    public int mergeKcar(LocalDate bizDate)      { mergeKcarDetail(bizDate);      return postProcess(bizDate); }
+    public int mergeKcar(LocalDate bizDate)      { return merge(CrawlSource.KCAR, bizDate); }
     @Transactional(propagation = Propagation.NOT_SUPPORTED)
-    public int mergeChutcha(LocalDate bizDate)   { mergeChutchaDetail(bizDate);   return postProcess(bizDate); }
+    public int mergeChutcha(LocalDate bizDate)   { return merge(CrawlSource.CHUTCHA, bizDate); }
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public int mergeTcar(LocalDate bizDate)      { return merge(CrawlSource.TCAR, bizDate); }
 
     /* ====================== 공통: 커서 범위 계산 ====================== */
 
-    private Long nextUpperIdFor(String table, long fromId, int size) {
-        // 안전을 위해 하드코딩 테이블명만 허용
-        String sql;
-        switch (table) {
-            case "raw_chachacha" -> sql = """
-                SELECT MAX(id) FROM (
-                  SELECT id FROM raw_chachacha WHERE id > ? ORDER BY id LIMIT ?
-                ) x
-            """;
-            case "raw_encar" -> sql = """
-                SELECT MAX(id) FROM (
-                  SELECT id FROM raw_encar WHERE id > ? ORDER BY id LIMIT ?
-                ) x
-            """;
-            case "raw_kcar" -> sql = """
-                SELECT MAX(id) FROM (
-                  SELECT id FROM raw_kcar WHERE id > ? ORDER BY id LIMIT ?
-                ) x
-            """;
-            case "raw_chutcha" -> sql = """
-                SELECT MAX(id) FROM (
-                  SELECT id FROM raw_chutcha WHERE id > ? ORDER BY id LIMIT ?
-                ) x
-            """;
-            case "raw_charancha" -> sql = """
-                SELECT MAX(id) FROM (
-                  SELECT id FROM raw_charancha WHERE id > ? ORDER BY id LIMIT ?
-                ) x
-            """;
-            default -> throw new IllegalArgumentException("unknown table " + table);
+    record IdRange(long from, long to) {}
+
+    /**
+     * raw_* PK 를 한 번 훑어 UPSERT_BATCH_SIZE 개씩 (from, to] 구간 목록을 만듦
+     * - 배치마다 MAX(id) 를 따로 조회하지 않음
+     * - 조회 시점 이후 적재된 row 는 다음 merge 에서 처리
+     */
+    private List<IdRange> idRanges(CrawlSource source) {
+        List<Long> bounds = jdbc.queryForList(registry.rangeBoundsSql(source), Long.class, UPSERT_BATCH_SIZE);
+        List<IdRange> ranges = new ArrayList<>(bounds.size());
+        long from = 0L;
+        for (Long to : bounds) {
+            ranges.add(new IdRange(from, to));
+            from = to;
         }
-        return jdbc.queryForObject(sql, Long.class, fromId, size);
+        return ranges;
     }
 
     /* ========== 1) RAW → platform_car (플랫폼별 Named Lock + ODKU + 범위 처리) ========== */
 
-    public void mergeChachachaDetail(LocalDate bizDate) {
-        long from = 0L;
-        final String lockName = "merge:CHACHACHA";
-        while (true) {
-            Long to = nextUpperIdFor("raw_chachacha", from, UPSERT_BATCH_SIZE);
-            if (to == null) break;
-            final long cursorFrom = from;
-            final long cursorTo   = to;
-
-            inTxWithNamedLock(lockName, () -> {
-                int affected = jdbc.update("""
-                    INSERT INTO platform_car
-                      (platform_name, platform_car_key, car_no, car_id,
-                       maker_code, model_group_code, model_code, trim_code, grade_code,
-                       maker_name, model_group_name, model_name, trim_name, grade_name,
-                       price, km, displacement, yymm, status, color, fuel, transmission, body_type, region,
-                       m_url, pc_url, first_ad_day, created_at, updated_at, extra, last_seen_date)
-                    SELECT
-                       'CHACHACHA', r.car_seq, r.car_no, NULL,
-                       r.MAKER_CODE, r.CLASS_CODE, r.CAR_CODE, r.MODEL_CODE, r.GRADE_CODE,
-                       r.MAKER_NAME, r.CLASS_NAME, r.CAR_NAME, r.MODEL_NAME, r.GRADE_NAME,
-                       r.SELL_AMT, r.KM, R.displacement, r.YYMM, 'ONSALE', r.COLOR, r.GAS_NAME, r.auto_gbn_name, r.use_code_name, r.REGION,
-                       CONCAT('https://m.kbchachacha.com/public/web/car/detail.kbc?carSeq=', r.CAR_SEQ),
-                       CONCAT('https://www.kbchachacha.com/public/car/detail.kbc?carSeq=', r.car_seq),
-                       r.FIRST_AD_DAY, NOW(), NOW(), r.payload, ?
-                    FROM raw_chachacha r
-                    WHERE r.id > ? AND r.id <= ?
-                    ON DUPLICATE KEY UPDATE
-                       price          = VALUES(price),
-                       status         = VALUES(status),
-                       extra          = VALUES(extra),
-                       last_seen_date = VALUES(last_seen_date),
-                       updated_at     = NOW(),
-                       car_no = COALESCE(platform_car.car_no, VALUES(car_no)),
-                       maker_code = COALESCE(platform_car.maker_code, VALUES(maker_code)),
-                       model_group_code = COALESCE(platform_car.model_group_code, VALUES(model_group_code)),
-                       model_code = COALESCE(platform_car.model_code, VALUES(model_code)),
-                       trim_code = COALESCE(platform_car.trim_code, VALUES(trim_code)),
-                       grade_code = COALESCE(platform_car.grade_code, VALUES(grade_code)),
-                       maker_name = COALESCE(platform_car.maker_name, VALUES(maker_name)),
-                       model_group_name = COALESCE(platform_car.model_group_name, VALUES(model_group_name)),
-                       model_name = COALESCE(platform_car.model_name, VALUES(model_name)),
-                       trim_name = COALESCE(platform_car.trim_name, VALUES(trim_name)),
-                       grade_name = COALESCE(platform_car.grade_name, VALUES(grade_name))
-                """, Date.valueOf(bizDate), cursorFrom, cursorTo);
-                log.debug("CHACHACHA upsert affected={}", affected);
-                return null;
-            });
-
-            from = cursorTo;
+    /**
+     * SQL 은 PlatformMergeRegistry 가 정의에서 생성/캐시
+     * merge.parallel.range-workers > 1 이면 구간 목록을 가상 스레드 여러 개가 나눠 처리
+     *  - 플랫폼 Named Lock (merge:X) 을 merge 전체 동안 한 번 잡음 (PlatformLock) → 같은 플랫폼 merge 는 직렬
+     *    (워커 1개일 때는 기존처럼 구간 트랜잭션마다 merge:X)
+     *  - 구간끼리 raw id 가 겹치지 않으므로 platform_car 키도 겹치지 않음 (경계 잠금 Deadlock 은 runWithRetry)
+     */
+    public void mergeDetail(CrawlSource source, LocalDate bizDate) {
+        requireRowHash(source);
+        final Tally tally = new Tally();
+        try {
+            mergeRanges(source, bizDate, tally);
+        } finally {
+            meters.counter("merge.rows", "platform", source.name(), "path", "unchanged").increment(tally.touched.sum());
+            meters.counter("merge.rows", "platform", source.name(), "path", "upsert").increment(tally.upserted.sum());
+            log.info("[MERGE] {} unchanged(touch)={} changed/new(upsert)={}", source, tally.touched.sum(), tally.upserted.sum());
         }
     }
 
-    public void mergeEncarDetail(LocalDate bizDate) {
-        long from = 0L;
-        final String lockName = "merge:ENCAR";
-        while (true) {
-            Long to = nextUpperIdFor("raw_encar", from, UPSERT_BATCH_SIZE);
-            if (to == null) break;
-            final long cursorFrom = from;
-            final long cursorTo   = to;
-
-            inTxWithNamedLock(lockName, () -> {
-                int affected = jdbc.update("""
-                    INSERT INTO platform_car
-                      (platform_name, platform_car_key, car_no, car_id,
-                       maker_code, model_group_code, model_code, trim_code, grade_code,
-                       maker_name, model_group_name, model_name, trim_name, grade_name,
-                       price, km, displacement, yymm, status, color, fuel, transmission, body_type, region,
-                       m_url, pc_url, first_ad_day, created_at, updated_at, extra, last_seen_date)
-                    SELECT
-                      'ENCAR', r.vehicle_id, r.vehicle_no, NULL,
-                      r.manufacturer_code, r.model_group_code, r.model_code, r.grade_code, r.grade_detail_code,
-                      r.manufacturer_name, r.model_group_name, r.model_name, r.grade_name, r.grade_detail_name,
-                      COALESCE(CAST(REPLACE(JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.advertisement.price')), ',', '') AS UNSIGNED), r.price),
-                      r.mileage, R.displacement , r.form_year,
-                      JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.advertisement.status')),
-                      r.color, r.fuel, r.transmission, r.body_type, r.region,
-                      CONCAT('https://fem.encar.com/cars/detail/', r.vehicle_id),
-                      CONCAT('https://fem.encar.com/cars/detail/', r.vehicle_id),
-                      DATE_FORMAT(r.first_ad_dt, '%Y%m%d'),
-                      NOW(), NOW(), r.payload, ?
-                    FROM raw_encar r
-                    WHERE r.id > ? AND r.id <= ?
-                    ON DUPLICATE KEY UPDATE
-                      price          = VALUES(price),
-                      status         = VALUES(status),
-                      extra          = VALUES(extra),
-                      last_seen_date = VALUES(last_seen_date),
-                      updated_at     = NOW(),
-                      car_no = COALESCE(platform_car.car_no, VALUES(car_no)),
-                      maker_code = COALESCE(platform_car.maker_code, VALUES(maker_code)),
-                      model_group_code = COALESCE(platform_car.model_group_code, VALUES(model_group_code)),
-                      model_code = COALESCE(platform_car.model_code, VALUES(model_code)),
-                      trim_code = COALESCE(platform_car.trim_code, VALUES(trim_code)),
-                      grade_code = COALESCE(platform_car.grade_code, VALUES(grade_code)),
-                      maker_name = COALESCE(platform_car.maker_name, VALUES(maker_name)),
-                      model_group_name = COALESCE(platform_car.model_group_name, VALUES(model_group_name)),
-                      model_name = COALESCE(platform_car.model_name, VALUES(model_name)),
-                      trim_name = COALESCE(platform_car.trim_name, VALUES(trim_name)),
-                      grade_name = COALESCE(platform_car.grade_name, VALUES(grade_name))
-                """, Date.valueOf(bizDate), cursorFrom, cursorTo);
-                log.debug("ENCAR upsert affected={}", affected);
-                return null;
-            });
-
-            from = cursorTo;
-        }
+    /** 구간별 touch / upsert 건수 (upsert 는 ODKU affected 기준: 신규 1, 변경 2) */
+    private static final class Tally {
+        final LongAdder touched = new LongAdder();
+        final LongAdder upserted = new LongAdder();
     }
 
-    public void mergeKcarDetail(LocalDate bizDate) {
-        long from = 0L;
-        final String lockName = "merge:KCAR";
-        while (true) {
-            Long to = nextUpperIdFor("raw_kcar", from, UPSERT_BATCH_SIZE);
-            if (to == null) break;
-            final long cursorFrom = from;
-            final long cursorTo   = to;
-
-            inTxWithNamedLock(lockName, () -> {
-                int affected = jdbc.update("""
-                    INSERT INTO platform_car
-                      (platform_name, platform_car_key, car_no, car_id,
-                       maker_code, model_group_code, model_code, trim_code, grade_code,
-                       maker_name, model_group_name, model_name, trim_name, grade_name,
-                       price, km, displacement, yymm, status, color, fuel, transmission, body_type, region,
-                       m_url, pc_url, first_ad_day, created_at, updated_at, extra, last_seen_date)
-                    SELECT
-                      'KCAR', r.car_cd, r.cno, NULL,
-                      r.maker_code, r.model_group_code, r.model_code, r.grade_code, r.grade_detail_code,
-                      r.maker_name, r.model_group_name, r.model_name, r.grade_name, r.grade_detail_name,
-                      r.price, r.mileage, R.displacement, r.yymm,
-                      'SALE',
-                      r.color, r.fuel, r.transmission, r.body_type, r.region,
-                      CONCAT('https://m.kcar.com/bc/detail/carInfoDtl?i_sCarCd=', r.car_cd),
-                      CONCAT('https://www.kcar.com/bc/detail/carInfoDtl?i_sCarCd=', r.car_cd),
-                      NULL, NOW(), NOW(), r.payload, ?
-                    FROM raw_kcar r
-                    WHERE r.id > ? AND r.id <= ?
-                    ON DUPLICATE KEY UPDATE
-                      price          = VALUES(price),
-                      status         = VALUES(status),
-                      extra          = VALUES(extra),
-                      last_seen_date = VALUES(last_seen_date),
-                      updated_at     = NOW(),
-                      car_no = COALESCE(platform_car.car_no, VALUES(car_no)),
-                      maker_code = COALESCE(platform_car.maker_code, VALUES(maker_code)),
-                      model_group_code = COALESCE(platform_car.model_group_code, VALUES(model_group_code)),
-                      model_code = COALESCE(platform_car.model_code, VALUES(model_code)),
-                      trim_code = COALESCE(platform_car.trim_code, VALUES(trim_code)),
-                      grade_code = COALESCE(platform_car.grade_code, VALUES(grade_code)),
-                      maker_name = COALESCE(platform_car.maker_name, VALUES(maker_name)),
-                      model_group_name = COALESCE(platform_car.model_group_name, VALUES(model_group_name)),
-                      model_name = COALESCE(platform_car.model_name, VALUES(model_name)),
-                      trim_name = COALESCE(platform_car.trim_name, VALUES(trim_name)),
-                      grade_name = COALESCE(platform_car.grade_name, VALUES(grade_name))
-                """, Date.valueOf(bizDate), cursorFrom, cursorTo);
-                log.debug("KCAR upsert affected={}", affected);
-                return null;
-            });
-
-            from = cursorTo;
+    private void mergeRanges(CrawlSource source, LocalDate bizDate, Tally tally) {
+        long t0 = System.nanoTime();
+        List<IdRange> ranges = idRanges(source);
+        int workers = Math.max(1, Math.min(rangeWorkers, ranges.size()));
+        log.info("[MERGE] {} ranges={} workers={} ({}ms)", source, ranges.size(), workers,
+                Duration.ofNanos(System.nanoTime() - t0).toMillis());
+
+        if (workers == 1) {
+            for (IdRange r : ranges) upsertRange(source, lockName(source), r, bizDate, tally);
+            return;
         }
-    }
 
-    public void mergeChutchaDetail(LocalDate bizDate) {
-        long from = 0L;
-        final String lockName = "merge:CHUTCHA";
-        while (true) {
-            Long to = nextUpperIdFor("raw_chutcha", from, UPSERT_BATCH_SIZE);
-            if (to == null) break;
-            final long cursorFrom = from;
-            final long cursorTo   = to;
-
-            inTxWithNamedLock(lockName, () -> {
-                int affected = jdbc.update("""
-                    INSERT INTO platform_car
-                      (platform_name, platform_car_key, car_no, car_id,
-                       maker_name, model_group_name, model_name, trim_name, grade_name,
-                       price, km, displacement, yymm, status, color, fuel, transmission, body_type, region,
-                       m_url, pc_url, first_ad_day, created_at, updated_at, extra, last_seen_date)
-                    SELECT
-                      'CHUTCHA', r.car_id, r.number_plate, NULL,
-                      r.brand_name, r.model_name, r.sub_model_name, r.grade_name, r.sub_grade_name,
-                      r.price, r.mileage, R.displacement, r.first_reg_year, NULL,
-                      r.color, r.fuel_name, r.transmission_name, r.car_type, r.shop_addr_short,
-                      CONCAT('https://www.chutcha.net/share/car/detail/', JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.detail_link_hash'))),
-                      CONCAT('https://web.chutcha.net/bmc/detail/', JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.detail_link_hash'))),
-                      NULL, NOW(), NOW(), r.payload, ?
-                    FROM raw_chutcha r
-                    WHERE r.id > ? AND r.id <= ? AND r.CAR_ID IS NOT NULL
-                    ON DUPLICATE KEY UPDATE
-                      price          = VALUES(price),
-                      extra          = VALUES(extra),
-                      last_seen_date = VALUES(last_seen_date),
-                      updated_at     = NOW(),
-                      car_no = COALESCE(platform_car.car_no, VALUES(car_no)),
-                      maker_name = COALESCE(platform_car.maker_name, VALUES(maker_name)),
-                      model_group_name = COALESCE(platform_car.model_group_name, VALUES(model_group_name)),
-                      model_name = COALESCE(platform_car.model_name, VALUES(model_name)),
-                      trim_name = COALESCE(platform_car.trim_name, VALUES(trim_name)),
-                      grade_name = COALESCE(platform_car.grade_name, VALUES(grade_name))
-                """, Date.valueOf(bizDate), cursorFrom, cursorTo);
-                log.debug("CHUTCHA upsert affected={}", affected);
-                return null;
-            });
-
-            from = cursorTo;
+        Queue<IdRange> todo = new ConcurrentLinkedQueue<>(ranges);
+        try (PlatformLock lock = new PlatformLock(source);
+             ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<?>> futures = new ArrayList<>(workers);
+            for (int w = 0; w < workers; w++) {
+                futures.add(vt.submit(() -> {
+                    try {
+                        IdRange r;
+                        while ((r = todo.poll()) != null) upsertRange(source, null, r, bizDate, tally);
+                    } catch (RuntimeException e) {
+                        todo.clear(); // 나머지 워커도 곧 멈춤
+                        throw e;
+                    }
+                }));
+            }
+            for (Future<?> f : futures) {
+                try {
+                    f.get();
+                } catch (ExecutionException e) {
+                    if (e.getCause() instanceof RuntimeException re) throw re;
+                    throw new IllegalStateException("merge failed: " + source, e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("merge interrupted: " + source, e);
+                }
+            }
         }
     }
 
+    private static String lockName(CrawlSource source) {
+        return "merge:" + source.name();
+    }
 
-    public void mergeCharanchaDetail(LocalDate bizDate) {
-        long from = 0L;
-        final String lockName = "merge:CHARANCHA";
-        while (true) {
-            Long to = nextUpperIdFor("raw_charancha", from, UPSERT_BATCH_SIZE);
-            if (to == null) break;
-            final long cursorFrom = from;
-            final long cursorTo   = to;
-
-            inTxWithNamedLock(lockName, () -> {
-                int affected = jdbc.update("""
-                    INSERT INTO platform_car
-                                          (platform_name, platform_car_key, car_no, car_id,
-                                           maker_code, model_group_code, model_code, trim_code,
-                                           maker_name, model_group_name, model_name, trim_name,
-                                           price, km, displacement, yymm, status,
-                                           color, fuel, transmission, body_type, region,
-                                           m_url, pc_url,
-                                           first_ad_day, created_at, updated_at, extra, last_seen_date)
-                    
-                    SELECT
-                    'CHARANCHA', R.SELL_NO, R.CAR_NO, NULL,
-                    R.maker_code, R.model_code, R.model_detail_code, R.grade_code,
-                    R.maker_name, R.model_name, R.model_detail_name, R.grade_name,
-                    r.sell_price, r.mileage, r.displacement, substr(r.yyyymm,1,4), 'SALE',
-                    R.color_name, R.fuel_name, R.transmission_name, R.car_type, r.region_name,
-                    CONCAT('https://charancha.com/bu/sell/view?sellNo=', r.SELL_NO),
-                    CONCAT('https://charancha.com/bu/sell/view?sellNo=', r.SELL_NO),
-                      NULL, NOW(), NOW(), r.payload, ?
-                    FROM RAW_CHARANCHA r
-                    WHERE r.id > ? AND r.id <= ?
-                    ON DUPLICATE KEY UPDATE
-                      price          = VALUES(price),
-                      status         = VALUES(status),
-                      extra          = VALUES(extra),
-                      last_seen_date = VALUES(last_seen_date),
-                      updated_at     = NOW(),
-                      car_no = COALESCE(platform_car.car_no, VALUES(car_no)),
-                      maker_code = COALESCE(platform_car.maker_code, VALUES(maker_code)),
-                      model_group_code = COALESCE(platform_car.model_group_code, VALUES(model_group_code)),
-                      model_code = COALESCE(platform_car.model_code, VALUES(model_code)),
-                      trim_code = COALESCE(platform_car.trim_code, VALUES(trim_code)),
-                      grade_code = COALESCE(platform_car.grade_code, VALUES(grade_code)),
-                      maker_name = COALESCE(platform_car.maker_name, VALUES(maker_name)),
-                      model_group_name = COALESCE(platform_car.model_group_name, VALUES(model_group_name)),
-                      model_name = COALESCE(platform_car.model_name, VALUES(model_name)),
-                      trim_name = COALESCE(platform_car.trim_name, VALUES(trim_name)),
-                      grade_name = COALESCE(platform_car.grade_name, VALUES(grade_name))
-                """, Date.valueOf(bizDate), cursorFrom, cursorTo);
-                log.debug("CHARANCHA upsert affected={}", affected);
-                return null;
-            });
-
-            from = cursorTo;
-        }
+    /**
+     * 같은 트랜잭션에서 ① 해시 같은 row last_seen_date 갱신 ② 나머지만 ODKU ③ 바뀐 payload 만 platform_car_payload
+     * lockName 이 null 이면 호출 측이 PlatformLock 보유 중
+     */
+    private void upsertRange(CrawlSource source, String lockName, IdRange r, LocalDate bizDate, Tally tally) {
+        Date day = Date.valueOf(bizDate);
+        TxCallable<Void> work = () -> {
+            int touched = jdbc.update(registry.touchSql(source), day, r.from(), r.to(), day);
+            int affected = jdbc.update(registry.upsertSql(source), day, r.from(), r.to());
+            int stored = affected == 0 ? 0 : jdbc.update(registry.payloadSql(source), r.from(), r.to());
+            tally.touched.add(touched);
+            tally.upserted.add(affected);
+            log.debug("{} ({}, {}] touched={} upsert affected={} payload={}", source, r.from(), r.to(), touched, affected, stored);
+            return null;
+        };
+        if (lockName == null) inTx(work);
+        else inTxWithNamedLock(lockName, work);
+    }
+
+    /** platform_car.row_hash / raw_*.payload_hash (db/migration V2, V4) 확인 + platform_car_payload 준비 */
+    private void requireRowHash(CrawlSource source) {
+        schema.requireColumns("platform_car", "row_hash");
+        schema.requireColumns(source.rawTable(), "payload_hash");
+        payloads.ensureReady();
     }
 
     /* ========== 2) master INSERT & car_id 매핑 (청크별 REQUIRES_NEW 커밋) ========== */
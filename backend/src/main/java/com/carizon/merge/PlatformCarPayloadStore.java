@@ -0,0 +1,139 @@
+package com.carizon.merge;
+
+import com.carizon.common.SchemaCheck;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * platform_car 원본 JSON 보관 (platform_car_payload)
+ * - platform_car 는 목록/링크/스냅샷 스캔이 도는 테이블 → payload 를 빼서 좁게 유지 (버퍼 풀에 전부 올라가도록)
+ * - 기록은 MergeService 가 구간별로 raw payload_hash 가 바뀐 row 만 (PlatformMergeRegistry.payloadSql)
+ * - 읽기는 필요한 곳에서 platform_car_id / (플랫폼, 키) 로 한 건씩
+ *
+ * 스키마: platform_car_payload 생성 / platform_car.extra NULL 허용은 db/migration V4 (없으면 IllegalStateException)
+ * 최초 1회 (ensureReady): 기존 platform_car.extra 가 남아 있으면 청크 단위로 복사 (아직 없는 row 만)
+ *
+ * extra 컬럼 삭제는 별도 단계 (dropExtra, POST /api/admin/merge/payload/drop-extra)
+ *  - extra 가 있는데 platform_car_payload 에 없는 row 가 0 건일 때만 DROP, 아니면 IllegalStateException
+ *  - merge.payload.drop-extra=true 면 복사 직후 같은 검증을 거쳐 자동 실행 (기본 false)
+ */
+@Slf4j
+@Component
+public class PlatformCarPayloadStore {
+
+    private static final int MIGRATE_CHUNK = 2_000;
+
+    private final JdbcTemplate jdbc;
+    private final SchemaCheck schema;
+    private final boolean dropExtra;
+    private final AtomicBoolean ready = new AtomicBoolean(false);
+
+    public PlatformCarPayloadStore(JdbcTemplate jdbc, SchemaCheck schema,
+                                  @Value("${merge.payload.drop-extra:false}") boolean dropExtra) {
+        this.jdbc = jdbc;
+        this.schema = schema;
+        this.dropExtra = dropExtra;
+    }
+
+    public Optional<String> find(long platformCarId) {
+        ensureReady();
+        List<String> r = jdbc.queryForList(
+                "SELECT payload FROM platform_car_payload WHERE platform_car_id = ?", String.class, platformCarId);
+        return r.stream().findFirst();
+    }
+
+    public Optional<String> find(String platformName, String platformCarKey) {
+        ensureReady();
+        List<String> r = jdbc.queryForList("""
+            SELECT x.payload
+              FROM platform_car p
+              JOIN platform_car_payload x ON x.platform_car_id = p.platform_car_id
+             WHERE p.platform_name = ? AND p.platform_car_key = ?
+        """, String.class, platformName, platformCarKey);
+        return r.stream().findFirst();
+    }
+
+    /* ======================= 준비 (최초 1회) ======================= */
+
+    public void ensureReady() {
+        if (ready.get()) return;
+        synchronized (ready) {
+            if (ready.get()) return;
+            schema.requireTable("platform_car_payload");
+            migrateExtra();
+            ready.set(true);
+        }
+    }
+
+    /** platform_car.extra → platform_car_payload (payload_hash 는 NULL → 다음 merge 에서 한 번 다시 기록됨) */
+    private void migrateExtra() {
+        Integer hasExtra = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM information_schema.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'platform_car' AND COLUMN_NAME = 'extra'
+        """, Integer.class);
+        if (hasExtra == null || hasExtra == 0) return;
+
+        long t0 = System.currentTimeMillis();
+        long cursor = 0L;
+        long moved = 0L;
+        while (true) {
+            Long to = jdbc.queryForObject("""
+                SELECT MAX(platform_car_id) FROM (
+                  SELECT platform_car_id FROM platform_car WHERE platform_car_id > ? ORDER BY platform_car_id LIMIT ?
+                ) x
+            """, Long.class, cursor, MIGRATE_CHUNK);
+            if (to == null) break;
+            moved += jdbc.update("""
+                INSERT IGNORE INTO platform_car_payload (platform_car_id, payload_hash, payload, updated_at)
+                SELECT platform_car_id, NULL, extra, NOW()
+                  FROM platform_car
+                 WHERE platform_car_id > ? AND platform_car_id <= ? AND extra IS NOT NULL
+            """, cursor, to);
+            cursor = to;
+        }
+        log.warn("[MERGE] platform_car.extra → platform_car_payload {} rows ({}ms)", moved, System.currentTimeMillis() - t0);
+
+        if (dropExtra) {
+            dropExtra();
+        } else {
+            log.warn("[MERGE] platform_car.extra 유지 (더 이상 갱신 안 됨). 확인 후 POST /api/admin/merge/payload/drop-extra");
+        }
+    }
+
+    /** 복사 검증 후 platform_car.extra 삭제. 이미 없으면 dropped=false */
+    public Map<String, Object> dropExtra() {
+        Integer hasExtra = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM information_schema.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'platform_car' AND COLUMN_NAME = 'extra'
+        """, Integer.class);
+        if (hasExtra == null || hasExtra == 0) return Map.of("dropped", false, "reason", "no extra column");
+
+        Long withExtra = jdbc.queryForObject("SELECT COUNT(*) FROM platform_car WHERE extra IS NOT NULL", Long.class);
+        Long missing = jdbc.queryForObject("""
+            SELECT COUNT(*) FROM platform_car p
+             WHERE p.extra IS NOT NULL
+               AND NOT EXISTS (SELECT 1 FROM platform_car_payload x WHERE x.platform_car_id = p.platform_car_id)
+        """, Long.class);
+        Long payloads = jdbc.queryForObject("SELECT COUNT(*) FROM platform_car_payload", Long.class);
+        if (missing == null || missing > 0) {
+            throw new IllegalStateException("platform_car.extra 미복사 " + missing + " rows (extra=" + withExtra
+                    + ", payload=" + payloads + ") → 삭제 안 함");
+        }
+        log.warn("[MERGE] platform_car.extra 컬럼 삭제 (extra={} payload={} 미복사=0)", withExtra, payloads);
+        jdbc.execute("ALTER TABLE platform_car DROP COLUMN extra");
+
+        Map<String, Object> out = new LinkedHashMap<>();
+        out.put("dropped", true);
+        out.put("rowsWithExtra", withExtra);
+        out.put("payloadRows", payloads);
+        return out;
+    }
+}
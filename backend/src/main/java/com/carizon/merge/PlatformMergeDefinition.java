@@ -0,0 +1,106 @@
+package com.carizon.merge;
+
+import com.carizon.batch.CrawlSource;
+
+import java.util.*;
+
+/**
+ * raw_* → platform_car 매핑 (플랫폼 1개)
+ * - columns : platform_car 컬럼 → SELECT 식 (raw 테이블 별칭 r). 없는 컬럼은 NULL 로 INSERT
+ * - status  : 없으면 NULL 로 INSERT 하고 ODKU 에서 기존 값 유지
+ * - filter  : r.id 범위 외 추가 WHERE 조건 (nullable)
+ *
+ * ODKU 규칙은 모든 플랫폼 공통 → PlatformMergeRegistry.upsertSql
+ *  - price / status / last_seen_date 는 덮어씀 (원본 JSON 은 platform_car_payload)
+ *  - car_no, *_code, *_name 은 기존 값이 NULL 일 때만 채움
+ *  - 나머지(km, 연식, URL 등)는 최초 INSERT 값 유지
+ */
+public record PlatformMergeDefinition(CrawlSource source, String key, Map<String, String> columns, String filter) {
+
+    /** platform_car 매핑 대상 컬럼 (INSERT 순서) */
+    static final List<String> COLUMNS = List.of(
+            "car_no",
+            "maker_code", "model_group_code", "model_code", "trim_code", "grade_code",
+            "maker_name", "model_group_name", "model_name", "trim_name", "grade_name",
+            "price", "km", "displacement", "yymm", "status",
+            "color", "fuel", "transmission", "body_type", "region",
+            "m_url", "pc_url", "first_ad_day");
+
+    /** ODKU 에서 기존 값이 없을 때만 채우는 컬럼 */
+    static final List<String> FILL_ONLY = List.of(
+            "car_no",
+            "maker_code", "model_group_code", "model_code", "trim_code", "grade_code",
+            "maker_name", "model_group_name", "model_name", "trim_name", "grade_name");
+
+    private static final List<String> CODES = COLUMNS.subList(1, 6);
+    private static final List<String> NAMES = COLUMNS.subList(6, 11);
+
+    public PlatformMergeDefinition {
+        Objects.requireNonNull(source);
+        Objects.requireNonNull(key);
+        for (String c : columns.keySet()) {
+            if (!COLUMNS.contains(c)) throw new IllegalArgumentException(source + ": unknown platform_car column " + c);
+        }
+        columns = Collections.unmodifiableMap(new LinkedHashMap<>(columns));
+    }
+
+    public boolean maps(String column) {
+        return columns.containsKey(column);
+    }
+
+    public static Builder of(CrawlSource source, String key) {
+        return new Builder(source, key);
+    }
+
+    public static final class Builder {
+        private final CrawlSource source;
+        private final String key;
+        private final Map<String, String> columns = new LinkedHashMap<>();
+        private String filter;
+
+        private Builder(CrawlSource source, String key) {
+            this.source = source;
+            this.key = key;
+        }
+
+        public Builder col(String column, String expr) {
+            if (expr != null) columns.put(column, expr);
+            return this;
+        }
+
+        /** maker, model_group, model, trim, grade 순. 없는 단계는 null */
+        public Builder codes(String... exprs) {
+            return tiers(CODES, exprs);
+        }
+
+        /** codes 와 같은 순서 */
+        public Builder names(String... exprs) {
+            return tiers(NAMES, exprs);
+        }
+
+        public Builder status(String expr) {
+            return col("status", expr);
+        }
+
+        /** m_url / pc_url = 각 prefix + id 식 */
+        public Builder urls(String mobilePrefix, String pcPrefix, String idExpr) {
+            col("m_url", "CONCAT('" + mobilePrefix + "', " + idExpr + ")");
+            return col("pc_url", "CONCAT('" + pcPrefix + "', " + idExpr + ")");
+        }
+
+        public Builder filter(String where) {
+            this.filter = where;
+            return this;
+        }
+
+        public PlatformMergeDefinition build() {
+            return new PlatformMergeDefinition(source, key, columns, filter);
+        }
+
+        private Builder tiers(List<String> targets, String[] exprs) {
+            if (exprs.length > targets.size()) throw new IllegalArgumentException(source + ": too many tiers");
+            for (int i = 0; i < exprs.length; i++) col(targets.get(i), exprs[i]);
+            return this;
+        }
+    }
+}
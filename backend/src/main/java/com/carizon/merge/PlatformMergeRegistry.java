@@ -0,0 +1,253 @@
+package com.carizon.merge;
+
+import com.carizon.batch.CrawlSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+
+/**
+ * 플랫폼별 raw_* → platform_car 매핑 정의 + 생성한 SQL 캐시
+ * - 새 플랫폼 merge = 여기 정의 하나 추가 (MergeService 는 정의만 보고 돎)
+ * - SQL 은 기동 시 한 번 만들어 두고 재사용 (테이블명/식은 전부 코드 상수 → 외부 입력 없음)
+ *
+ * 변경 감지: platform_car.row_hash = raw_*.payload_hash + 매핑 지문(정의로 만든 SQL 의 hashCode)
+ *  - touch   : 해시가 같은 row 는 last_seen_date 만 갱신
+ *  - upsert  : 해시가 다르거나 없는 row 만 INSERT ... ODKU
+ *  - payload : 원본 JSON 은 platform_car_payload 에 raw payload_hash 가 바뀐 경우만 기록 (PlatformCarPayloadStore)
+ *  - 정의(컬럼 식)를 바꾸면 지문이 바뀌어 다음 merge 에서 전 row 가 한 번 다시 upsert 됨
+ */
+@Slf4j
+@Component
+public class PlatformMergeRegistry {
+
+    private static final List<PlatformMergeDefinition> DEFINITIONS = List.of(
+            PlatformMergeDefinition.of(CrawlSource.CHACHACHA, "r.car_seq")
+                    .col("car_no", "r.car_no")
+                    .codes("r.maker_code", "r.class_code", "r.car_code", "r.model_code", "r.grade_code")
+                    .names("r.maker_name", "r.class_name", "r.car_name", "r.model_name", "r.grade_name")
+                    .col("price", "r.sell_amt")
+                    .col("km", "r.km")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "r.yymm")
+                    .status("'ONSALE'")
+                    .col("color", "r.color")
+                    .col("fuel", "r.gas_name")
+                    .col("transmission", "r.auto_gbn_name")
+                    .col("body_type", "r.use_code_name")
+                    .col("region", "r.region")
+                    .urls("https://m.kbchachacha.com/public/web/car/detail.kbc?carSeq=",
+                          "https://www.kbchachacha.com/public/car/detail.kbc?carSeq=", "r.car_seq")
+                    .col("first_ad_day", "r.first_ad_day")
+                    .build(),
+
+            PlatformMergeDefinition.of(CrawlSource.ENCAR, "r.vehicle_id")
+                    .col("car_no", "r.vehicle_no")
+                    .codes("r.manufacturer_code", "r.model_group_code", "r.model_code", "r.grade_code", "r.grade_detail_code")
+                    .names("r.manufacturer_name", "r.model_group_name", "r.model_name", "r.grade_name", "r.grade_detail_name")
+                    .col("price", "COALESCE(CAST(REPLACE(JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.advertisement.price')), ',', '') AS UNSIGNED), r.price)")
+                    .col("km", "r.mileage")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "r.form_year")
+                    .status("JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.advertisement.status'))")
+                    .col("color", "r.color")
+                    .col("fuel", "r.fuel")
+                    .col("transmission", "r.transmission")
+                    .col("body_type", "r.body_type")
+                    .col("region", "r.region")
+                    .urls("https://fem.encar.com/cars/detail/", "https://fem.encar.com/cars/detail/", "r.vehicle_id")
+                    .col("first_ad_day", "DATE_FORMAT(r.first_ad_dt, '%Y%m%d')")
+                    .build(),
+
+            PlatformMergeDefinition.of(CrawlSource.KCAR, "r.car_cd")
+                    .col("car_no", "r.cno")
+                    .codes("r.maker_code", "r.model_group_code", "r.model_code", "r.grade_code", "r.grade_detail_code")
+                    .names("r.maker_name", "r.model_group_name", "r.model_name", "r.grade_name", "r.grade_detail_name")
+                    .col("price", "r.price")
+                    .col("km", "r.mileage")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "r.yymm")
+                    .status("'SALE'")
+                    .col("color", "r.color")
+                    .col("fuel", "r.fuel")
+                    .col("transmission", "r.transmission")
+                    .col("body_type", "r.body_type")
+                    .col("region", "r.region")
+                    .urls("https://m.kcar.com/bc/detail/carInfoDtl?i_sCarCd=",
+                          "https://www.kcar.com/bc/detail/carInfoDtl?i_sCarCd=", "r.car_cd")
+                    .build(),
+
+            // 코드 컬럼 없음, 판매상태는 알 수 없어 갱신하지 않음
+            PlatformMergeDefinition.of(CrawlSource.CHUTCHA, "r.car_id")
+                    .col("car_no", "r.number_plate")
+                    .names("r.brand_name", "r.model_name", "r.sub_model_name", "r.grade_name", "r.sub_grade_name")
+                    .col("price", "r.price")
+                    .col("km", "r.mileage")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "r.first_reg_year")
+                    .col("color", "r.color")
+                    .col("fuel", "r.fuel_name")
+                    .col("transmission", "r.transmission_name")
+                    .col("body_type", "r.car_type")
+                    .col("region", "r.shop_addr_short")
+                    .urls("https://www.chutcha.net/share/car/detail/", "https://web.chutcha.net/bmc/detail/",
+                          "JSON_UNQUOTE(JSON_EXTRACT(r.payload,'$.detail_link_hash'))")
+                    .filter("r.car_id IS NOT NULL")
+                    .build(),
+
+            // 등급 단계 없음 (maker / model / model_detail / grade → maker / model_group / model / trim)
+            PlatformMergeDefinition.of(CrawlSource.CHARANCHA, "r.sell_no")
+                    .col("car_no", "r.car_no")
+                    .codes("r.maker_code", "r.model_code", "r.model_detail_code", "r.grade_code")
+                    .names("r.maker_name", "r.model_name", "r.model_detail_name", "r.grade_name")
+                    .col("price", "r.sell_price")
+                    .col("km", "r.mileage")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "SUBSTR(r.yyyymm, 1, 4)")
+                    .status("'SALE'")
+                    .col("color", "r.color_name")
+                    .col("fuel", "r.fuel_name")
+                    .col("transmission", "r.transmission_name")
+                    .col("body_type", "r.car_type")
+                    .col("region", "r.region_name")
+                    .urls("https://charancha.com/bu/sell/view?sellNo=", "https://charancha.com/bu/sell/view?sellNo=", "r.sell_no")
+                    .build(),
+
+            // 목록 API 만 수집 → 상세 URL 패턴 미확인이라 m_url/pc_url 은 비워 둠
+            PlatformMergeDefinition.of(CrawlSource.TCAR, "r.car_id")
+                    .col("car_no", "r.plate_no")
+                    .codes("r.brand_id", "r.modelgroup_id", "r.model_id", "r.grade_id", "r.subgrade_id")
+                    .names("r.brand_name", "r.modelgroup_name", "r.model_name", "r.grade_name", "r.subgrade_name")
+                    .col("price", "r.price_sell")
+                    .col("km", "r.mileage")
+                    .col("displacement", "r.displacement")
+                    .col("yymm", "r.reg_year")
+                    .status("'SALE'")
+                    .col("color", "r.color_name")
+                    .col("fuel", "r.fuel_name")
+                    .col("transmission", "r.transmission")
+                    .filter("r.car_id IS NOT NULL")
+                    .build()
+    );
+
+    private final Map<CrawlSource, PlatformMergeDefinition> definitions = new EnumMap<>(CrawlSource.class);
+    private final Map<CrawlSource, String> upsertSql = new EnumMap<>(CrawlSource.class);
+    private final Map<CrawlSource, String> touchSql = new EnumMap<>(CrawlSource.class);
+    private final Map<CrawlSource, String> payloadSql = new EnumMap<>(CrawlSource.class);
+    private final Map<CrawlSource, String> rangeBoundsSql = new EnumMap<>(CrawlSource.class);
+
+    public PlatformMergeRegistry() {
+        for (PlatformMergeDefinition d : DEFINITIONS) {
+            if (definitions.put(d.source(), d) != null) throw new IllegalStateException("duplicate merge definition " + d.source());
+            String rowHash = "CONCAT(r.payload_hash, '" + fingerprint(d) + "')";
+            upsertSql.put(d.source(), buildUpsert(d, rowHash));
+            touchSql.put(d.source(), buildTouch(d, rowHash));
+            payloadSql.put(d.source(), buildPayload(d));
+            rangeBoundsSql.put(d.source(), buildRangeBounds(d));
+        }
+        log.info("[MERGE] platform definitions {}", definitions.keySet());
+    }
+
+    /** merge 정의가 있는 플랫폼 */
+    public Set<CrawlSource> sources() {
+        return Collections.unmodifiableSet(definitions.keySet());
+    }
+
+    public PlatformMergeDefinition definition(CrawlSource source) {
+        PlatformMergeDefinition d = definitions.get(source);
+        if (d == null) throw new IllegalArgumentException(source + " merge not supported");
+        return d;
+    }
+
+    /** 변경/신규 row 만. 파라미터: last_seen_date, id 하한(초과), id 상한(이하) */
+    public String upsertSql(CrawlSource source) {
+        definition(source);
+        return upsertSql.get(source);
+    }
+
+    /** 해시가 같은 row 의 last_seen_date 만 갱신. 파라미터: last_seen_date, id 하한(초과), id 상한(이하), last_seen_date */
+    public String touchSql(CrawlSource source) {
+        definition(source);
+        return touchSql.get(source);
+    }
+
+    /** payload_hash 가 바뀐(또는 없는) row 의 원본 JSON 기록. 파라미터: id 하한(초과), id 상한(이하) */
+    public String payloadSql(CrawlSource source) {
+        definition(source);
+        return payloadSql.get(source);
+    }
+
+    /** 파라미터: 배치 크기. 결과: 배치별 id 상한 오름차순 (마지막 = MAX(id)) */
+    public String rangeBoundsSql(CrawlSource source) {
+        definition(source);
+        return rangeBoundsSql.get(source);
+    }
+
+    private static String buildUpsert(PlatformMergeDefinition d, String rowHash) {
+        StringJoiner cols = new StringJoiner(", ");
+        StringJoiner exprs = new StringJoiner(", ");
+        for (String c : PlatformMergeDefinition.COLUMNS) {
+            cols.add(c);
+            exprs.add(d.columns().getOrDefault(c, "NULL"));
+        }
+
+        StringJoiner updates = new StringJoiner(",\n  ");
+        updates.add("price = VALUES(price)");
+        if (d.maps("status")) updates.add("status = VALUES(status)");
+        updates.add("row_hash = VALUES(row_hash)");
+        updates.add("last_seen_date = VALUES(last_seen_date)");
+        updates.add("updated_at = NOW()");
+        for (String c : PlatformMergeDefinition.FILL_ONLY) {
+            if (d.maps(c)) updates.add(c + " = COALESCE(platform_car." + c + ", VALUES(" + c + "))");
+        }
+
+        return "INSERT INTO platform_car\n"
+                + "  (platform_name, platform_car_key, car_id, " + cols + ", created_at, updated_at, row_hash, last_seen_date)\n"
+                + "SELECT '" + d.source().name() + "', " + d.key() + ", NULL, " + exprs + ", NOW(), NOW(), " + rowHash + ", ?\n"
+                + "FROM " + d.source().rawTable() + " r\n"
+                + "WHERE " + rangeWhere(d) + "\n"
+                + "  AND NOT EXISTS (SELECT 1 FROM platform_car p WHERE " + sameRow(d) + " AND p.row_hash = " + rowHash + ")\n"
+                + "ON DUPLICATE KEY UPDATE\n  " + updates;
+    }
+
+    private static String buildTouch(PlatformMergeDefinition d, String rowHash) {
+        return "UPDATE platform_car p\n"
+                + "  JOIN " + d.source().rawTable() + " r ON " + sameRow(d) + "\n"
+                + "   SET p.last_seen_date = ?\n"
+                + " WHERE " + rangeWhere(d) + "\n"
+                + "   AND p.row_hash = " + rowHash + "\n"
+                + "   AND (p.last_seen_date IS NULL OR p.last_seen_date <> ?)";
+    }
+
+    private static String buildPayload(PlatformMergeDefinition d) {
+        return "INSERT INTO platform_car_payload (platform_car_id, payload_hash, payload, updated_at)\n"
+                + "SELECT p.platform_car_id, r.payload_hash, r.payload, NOW()\n"
+                + "  FROM " + d.source().rawTable() + " r\n"
+                + "  JOIN platform_car p ON " + sameRow(d) + "\n"
+                + " WHERE " + rangeWhere(d) + "\n"
+                + "   AND NOT EXISTS (SELECT 1 FROM platform_car_payload x\n"
+                + "                    WHERE x.platform_car_id = p.platform_car_id AND x.payload_hash = r.payload_hash)\n"
+                + "ON DUPLICATE KEY UPDATE payload_hash = VALUES(payload_hash), payload = VALUES(payload), updated_at = NOW()";
+    }
+
+    /** UNIQUE (platform_name, platform_car_key) 로 찾음 */
+    private static String sameRow(PlatformMergeDefinition d) {
+        return "p.platform_name = '" + d.source().name() + "' AND p.platform_car_key = " + d.key();
+    }
+
+    private static String rangeWhere(PlatformMergeDefinition d) {
+        return "r.id > ? AND r.id <= ?" + (d.filter() == null ? "" : " AND " + d.filter());
+    }
+
+    /** 컬럼 매핑 지문 8자리 (String.hashCode 는 JVM 간 동일) */
+    private static String fingerprint(PlatformMergeDefinition d) {
+        return String.format("%08x", buildUpsert(d, "NULL").hashCode());
+    }
+
+    /** PK 한 번 훑어서 배치 크기마다 경계 id (MySQL 8 윈도 함수) */
+    private static String buildRangeBounds(PlatformMergeDefinition d) {
+        return "SELECT id FROM (\n"
+                + "  SELECT id, ROW_NUMBER() OVER (ORDER BY id) rn, COUNT(*) OVER () cnt FROM " + d.source().rawTable() + "\n"
+                + ") b WHERE MOD(rn, ?) = 0 OR rn = cnt ORDER BY id";
+    }
+}
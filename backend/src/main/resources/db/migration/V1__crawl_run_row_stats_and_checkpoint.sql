@@ -0,0 +1,47 @@
+-- 크롤 실행 기록 / 체크포인트 / DELTA 미노출 기록
+-- (예전에는 CrawlRunRecorder / CrawlCheckpointStore / RawPayloadWriter 가 처음 쓸 때 만들던 것)
+-- 기본 테이블(crawl_run, raw_*, platform_car)은 먼저 있어야 함 (schema_from_excel.sql)
+-- MySQL 8 은 ADD COLUMN IF NOT EXISTS 가 없어 information_schema 확인 후 PREPARE 로 실행 → 이미 보정된 DB 에도 그대로 적용 가능
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'crawl_run' AND COLUMN_NAME = 'rows_new'),
+              'DO 0', 'ALTER TABLE crawl_run ADD COLUMN rows_new INT NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'crawl_run' AND COLUMN_NAME = 'rows_changed'),
+              'DO 0', 'ALTER TABLE crawl_run ADD COLUMN rows_changed INT NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'crawl_run' AND COLUMN_NAME = 'rows_unchanged'),
+              'DO 0', 'ALTER TABLE crawl_run ADD COLUMN rows_unchanged INT NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS crawl_checkpoint (
+  run_id      VARCHAR(36)  NOT NULL PRIMARY KEY,
+  source      VARCHAR(20)  NOT NULL,
+  items       INT          NOT NULL DEFAULT 0,
+  state       TEXT         NULL,
+  done        TINYINT(1)   NOT NULL DEFAULT 0,
+  created_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  updated_at  TIMESTAMP    NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  KEY idx_crawl_checkpoint_source (source, updated_at)
+);
+
+CREATE TABLE IF NOT EXISTS crawl_unseen (
+  id                BIGINT AUTO_INCREMENT PRIMARY KEY,
+  run_id            VARCHAR(36) NOT NULL,
+  source            VARCHAR(20) NOT NULL,
+  platform_key      VARCHAR(64) NOT NULL,
+  last_payload_hash CHAR(16)    NULL,
+  recorded_at       TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP,
+  KEY idx_crawl_unseen_key (source, platform_key),
+  KEY idx_crawl_unseen_run (run_id)
+);
@@ -0,0 +1,44 @@
+-- raw_*.payload_hash : PayloadHasher(xxHash64) 16자리 hex. RawPayloadWriter 가 적재 시, MergeService 가 변경분 판단에 사용
+-- (CrawlSource 의 rawTable 목록과 같이 유지)
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_chachacha' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_chachacha ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_encar' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_encar ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_kcar' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_kcar ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_chutcha' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_chutcha ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_charancha' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_charancha ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_tcar' AND COLUMN_NAME = 'payload_hash'),
+              'DO 0', 'ALTER TABLE raw_tcar ADD COLUMN payload_hash CHAR(16) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
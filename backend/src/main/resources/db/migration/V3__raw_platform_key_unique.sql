@@ -0,0 +1,82 @@
+-- raw_*.{플랫폼 키} UNIQUE : DELTA 적재(ON DUPLICATE KEY UPDATE)의 기준. FULL 에서도 같은 스키마로 둠
+-- 인덱스를 걸기 전에 같은 키의 중복 row 는 가장 최근 것(id 최대)만 남김
+-- raw_* 는 다음 크롤에서 다시 채워지는 현재 노출 스냅샷이라 지워도 원본 손실 없음 (날짜별 보관은 RawArchive)
+-- (CrawlSource 의 rawTable / keyColumn 과 같이 유지)
+
+DELETE r FROM raw_chachacha r
+  JOIN (SELECT car_seq, MAX(id) AS keep_id FROM raw_chachacha
+         WHERE car_seq IS NOT NULL GROUP BY car_seq HAVING COUNT(*) > 1) d
+    ON d.car_seq = r.car_seq AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_chachacha' AND COLUMN_NAME = 'car_seq'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_chachacha ADD UNIQUE KEY uk_raw_chachacha_car_seq (car_seq)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELETE r FROM raw_encar r
+  JOIN (SELECT vehicle_id, MAX(id) AS keep_id FROM raw_encar
+         WHERE vehicle_id IS NOT NULL GROUP BY vehicle_id HAVING COUNT(*) > 1) d
+    ON d.vehicle_id = r.vehicle_id AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_encar' AND COLUMN_NAME = 'vehicle_id'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_encar ADD UNIQUE KEY uk_raw_encar_vehicle_id (vehicle_id)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELETE r FROM raw_kcar r
+  JOIN (SELECT car_cd, MAX(id) AS keep_id FROM raw_kcar
+         WHERE car_cd IS NOT NULL GROUP BY car_cd HAVING COUNT(*) > 1) d
+    ON d.car_cd = r.car_cd AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_kcar' AND COLUMN_NAME = 'car_cd'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_kcar ADD UNIQUE KEY uk_raw_kcar_car_cd (car_cd)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELETE r FROM raw_chutcha r
+  JOIN (SELECT car_id, MAX(id) AS keep_id FROM raw_chutcha
+         WHERE car_id IS NOT NULL GROUP BY car_id HAVING COUNT(*) > 1) d
+    ON d.car_id = r.car_id AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_chutcha' AND COLUMN_NAME = 'car_id'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_chutcha ADD UNIQUE KEY uk_raw_chutcha_car_id (car_id)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELETE r FROM raw_charancha r
+  JOIN (SELECT sell_no, MAX(id) AS keep_id FROM raw_charancha
+         WHERE sell_no IS NOT NULL GROUP BY sell_no HAVING COUNT(*) > 1) d
+    ON d.sell_no = r.sell_no AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_charancha' AND COLUMN_NAME = 'sell_no'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_charancha ADD UNIQUE KEY uk_raw_charancha_sell_no (sell_no)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+DELETE r FROM raw_tcar r
+  JOIN (SELECT car_id, MAX(id) AS keep_id FROM raw_tcar
+         WHERE car_id IS NOT NULL GROUP BY car_id HAVING COUNT(*) > 1) d
+    ON d.car_id = r.car_id AND r.id < d.keep_id;
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.STATISTICS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'raw_tcar' AND COLUMN_NAME = 'car_id'
+                        AND NON_UNIQUE = 0 AND SEQ_IN_INDEX = 1),
+              'DO 0', 'ALTER TABLE raw_tcar ADD UNIQUE KEY uk_raw_tcar_car_id (car_id)');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,29 @@
+-- platform_car.row_hash : merge 변경분 판단 (MergeService)
+-- platform_car_payload  : platform_car 원본 JSON 분리 보관 (PlatformCarPayloadStore)
+--   테이블 옵션은 spring.flyway.placeholders.payload-table-options (기본 ROW_FORMAT=COMPRESSED KEY_BLOCK_SIZE=8,
+--   innodb_file_per_table=OFF 등으로 압축 테이블이 안 되는 서버는 빈 값으로)
+-- platform_car.extra    : 남아 있으면 NULL 허용으로만 바꿈 (merge 가 더 이상 채우지 않음)
+--   기존 값 복사는 PlatformCarPayloadStore, 컬럼 삭제는 POST /api/admin/merge/payload/drop-extra
+
+SET @ddl = IF(EXISTS(SELECT 1 FROM information_schema.COLUMNS
+                      WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'platform_car' AND COLUMN_NAME = 'row_hash'),
+              'DO 0', 'ALTER TABLE platform_car ADD COLUMN row_hash CHAR(24) NULL');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
+
+CREATE TABLE IF NOT EXISTS platform_car_payload (
+  platform_car_id BIGINT    NOT NULL PRIMARY KEY,
+  payload_hash    CHAR(16)  NULL,
+  payload         JSON      NULL,
+  updated_at      TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+) ${payload-table-options};
+
+SET @ddl = (SELECT IF(COUNT(*) = 0, 'DO 0',
+                      CONCAT('ALTER TABLE platform_car MODIFY COLUMN extra ', MAX(COLUMN_TYPE), ' NULL'))
+              FROM information_schema.COLUMNS
+             WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = 'platform_car' AND COLUMN_NAME = 'extra'
+               AND IS_NULLABLE = 'NO');
+PREPARE stmt FROM @ddl;
+EXECUTE stmt;
+DEALLOCATE PREPARE stmt;
@@ -0,0 +1,37 @@
+package com.carizon.batch;
+
+import com.carizon.crawler.RawArchive;
+import com.carizon.crawler.RawPayloadWriter;
+import com.carizon.merge.MergeService;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class ArchiveReplayServiceTest {
+
+    /** 크롤이 플랫폼 락을 잡고 있으면 TRUNCATE 전에 거부 */
+    @Test
+    void refusesWhileCrawlHoldsPlatformLock() throws Exception {
+        RawArchive archive = mock(RawArchive.class);
+        RawPayloadWriter raw = mock(RawPayloadWriter.class);
+        CrawlRunRecorder recorder = mock(CrawlRunRecorder.class);
+        CrawlLock lock = mock(CrawlLock.class);
+        LocalDate date = LocalDate.of(2025, 10, 4);
+        when(archive.files(CrawlSource.ENCAR, date)).thenReturn(List.of(Path.of("run-1.jsonl.zst")));
+        when(lock.tryAcquire(CrawlSource.ENCAR)).thenReturn(Optional.empty());
+
+        ArchiveReplayService svc = new ArchiveReplayService(archive, raw, recorder, mock(MergeService.class), lock);
+
+        assertThatThrownBy(() -> svc.replay(CrawlSource.ENCAR, date, null, false))
+                .isInstanceOf(IllegalStateException.class);
+        verify(raw, never()).openReplay(any(), any());
+        verify(recorder, never()).recordStart(any(), any());
+    }
+}
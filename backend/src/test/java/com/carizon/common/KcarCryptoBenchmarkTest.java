@@ -0,0 +1,82 @@
+package com.carizon.common;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 기존 호출마다 Cipher 생성/init 하던 경로 vs KcarCrypto 풀 경로 비교 (간이 벤치마크)
+ * 기본 테스트에서는 건너뜀: mvn test -Dtest=KcarCryptoBenchmarkTest -Dbench=true
+ */
+@EnabledIfSystemProperty(named = "bench", matches = "true")
+class KcarCryptoBenchmarkTest {
+
+    private static final int WARMUP = 50_000;
+    private static final int CALLS = 200_000;
+    private static final int TASKS = 64;
+    private static final String PLAIN = "{\"wr_eq_sell_dcd\":\"ALL\",\"wr_in_multi_columns\":\"cntr_rgn_cd|cntr_cd\"," +
+            "\"wr_eq_cntr_rgn_cd\":\"\",\"pageno\":17,\"limit\":40,\"sort\":\"prc_asc\"}";
+
+    @Test
+    void pooledVersusPerCall() throws Exception {
+        assertThat(KcarCrypto.encrypt(PLAIN)).isEqualTo(perCall(PLAIN));
+
+        for (int i = 0; i < WARMUP; i++) {
+            perCall(PLAIN);
+            KcarCrypto.encrypt(PLAIN);
+        }
+        double perCallSingle = nsPerCall(KcarCryptoBenchmarkTest::perCall, 1);
+        double pooledSingle = nsPerCall(KcarCrypto::encrypt, 1);
+        double perCallVt = nsPerCall(KcarCryptoBenchmarkTest::perCall, TASKS);
+        double pooledVt = nsPerCall(KcarCrypto::encrypt, TASKS);
+
+        System.out.printf("[BENCH] KcarCrypto 1 thread     : per-call %.0f ns/op, pooled %.0f ns/op (x%.2f)%n",
+                perCallSingle, pooledSingle, perCallSingle / pooledSingle);
+        System.out.printf("[BENCH] KcarCrypto %d vthreads : per-call %.0f ns/op, pooled %.0f ns/op (x%.2f)%n",
+                TASKS, perCallVt, pooledVt, perCallVt / pooledVt);
+    }
+
+    /** 풀 도입 전 구현 그대로 (호출마다 키/IV 스펙 + Cipher 생성, init) */
+    private static String perCall(String plainJson) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        SecretKeySpec key = new SecretKeySpec("SKFJ2424DasfaJRI".getBytes(StandardCharsets.UTF_8), "AES");
+        IvParameterSpec iv = new IvParameterSpec("sfq241sf3dscs321".getBytes(StandardCharsets.UTF_8));
+        cipher.init(Cipher.ENCRYPT_MODE, key, iv);
+        return Base64.getEncoder().encodeToString(cipher.doFinal(plainJson.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private interface Encrypt {
+        String apply(String plain) throws Exception;
+    }
+
+    /** tasks 개 가상 스레드가 CALLS 를 나눠 호출, 호출당 평균 벽시계 ns */
+    private static double nsPerCall(Encrypt f, int tasks) throws Exception {
+        LongAdder sink = new LongAdder();   // 결과를 버리지 않게 (JIT 제거 방지)
+        int each = CALLS / tasks;
+        long t0 = System.nanoTime();
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int t = 0; t < tasks; t++) {
+                vt.submit(() -> {
+                    for (int i = 0; i < each; i++) sink.add(f.apply(PLAIN).length());
+                    return null;
+                });
+            }
+            vt.shutdown();
+            assertThat(vt.awaitTermination(5, TimeUnit.MINUTES)).isTrue();
+        }
+        long took = System.nanoTime() - t0;
+        assertThat(sink.sum()).isPositive();
+        return (double) took / ((long) each * tasks);
+    }
+}
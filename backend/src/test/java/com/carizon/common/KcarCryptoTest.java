@@ -0,0 +1,62 @@
+package com.carizon.common;
+
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.IvParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class KcarCryptoTest {
+
+    /** openssl enc -aes-128-cbc -K hex(key) -iv hex(iv) -base64 */
+    @Test
+    void knownCiphertext() throws Exception {
+        assertThat(KcarCrypto.encrypt("{\"pageno\":1,\"limit\":40}")).isEqualTo("gEa/4VFh8fIVdgV57tSPeivQOd60bth28r1QebtGz6w=");
+        assertThat(KcarCrypto.encrypt("")).isEqualTo("ZBuP6oYgty36QxaTPj2gCw==");
+    }
+
+    @Test
+    void roundTrip() throws Exception {
+        String plain = "{\"wr_eq_sell_dcd\":\"ALL\",\"pageno\":7,\"limit\":40,\"name\":\"그랜저\"}";
+        // 같은 풀 Cipher 재사용 (doFinal 후 재초기화 상태) 도 같은 결과
+        assertThat(decrypt(KcarCrypto.encrypt(plain))).isEqualTo(plain);
+        assertThat(decrypt(KcarCrypto.encrypt(plain))).isEqualTo(plain);
+    }
+
+    @Test
+    void outputBufferGrows() throws Exception {
+        String plain = "x".repeat(5_000);
+        assertThat(decrypt(KcarCrypto.encrypt(plain))).isEqualTo(plain);
+        assertThat(KcarCrypto.encrypt("")).isEqualTo("ZBuP6oYgty36QxaTPj2gCw==");
+    }
+
+    @Test
+    void concurrentUse() throws Exception {
+        int tasks = 2_000;
+        List<Future<Boolean>> results = new ArrayList<>(tasks);
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < tasks; i++) {
+                String plain = "{\"pageno\":" + i + ",\"pad\":\"" + "p".repeat(i % 300) + "\"}";
+                results.add(vt.submit(() -> decrypt(KcarCrypto.encrypt(plain)).equals(plain)));
+            }
+        }
+        for (Future<Boolean> f : results) assertThat(f.get()).isTrue();
+    }
+
+    private static String decrypt(String b64) throws Exception {
+        Cipher c = Cipher.getInstance("AES/CBC/PKCS5Padding");
+        c.init(Cipher.DECRYPT_MODE,
+                new SecretKeySpec("SKFJ2424DasfaJRI".getBytes(StandardCharsets.UTF_8), "AES"),
+                new IvParameterSpec("sfq241sf3dscs321".getBytes(StandardCharsets.UTF_8)));
+        return new String(c.doFinal(Base64.getDecoder().decode(b64)), StandardCharsets.UTF_8);
+    }
+}
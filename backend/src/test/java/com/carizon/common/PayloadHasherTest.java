@@ -0,0 +1,49 @@
+package com.carizon.common;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PayloadHasherTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    /** xxHash64 seed=0 참조값 (xxhsum -H64) */
+    @Test
+    void xxHash64ReferenceVectors() {
+        assertThat(PayloadHasher.hash(bytes(""))).isEqualTo("ef46db3751d8e999");
+        assertThat(PayloadHasher.hash(bytes("abc"))).isEqualTo("44bc2cf5ad770999");
+        // 39바이트: 32바이트 stripe + 8/4/1 바이트 꼬리 경로 모두 통과
+        assertThat(PayloadHasher.hash(bytes("Nobody inspects the spammish repetition"))).isEqualTo("fbcea83c8a378bf1");
+    }
+
+    @Test
+    void keyOrderInvariant() throws Exception {
+        String a = PayloadHasher.hash(mapper.readTree("{\"id\":1,\"price\":1500,\"opt\":{\"b\":true,\"a\":[1,2]}}"));
+        String b = PayloadHasher.hash(mapper.readTree("{\"opt\":{\"a\":[1,2],\"b\":true},\"price\":1500,\"id\":1}"));
+        assertThat(a).isEqualTo(b);
+    }
+
+    @Test
+    void valueChangesHash() throws Exception {
+        String a = PayloadHasher.hash(mapper.readTree("{\"id\":1,\"price\":1500}"));
+        String b = PayloadHasher.hash(mapper.readTree("{\"id\":1,\"price\":1490}"));
+        String c = PayloadHasher.hash(mapper.readTree("{\"id\":1,\"price\":[2,1]}"));
+        String d = PayloadHasher.hash(mapper.readTree("{\"id\":1,\"price\":[1,2]}"));
+        assertThat(a).isNotEqualTo(b);
+        assertThat(c).isNotEqualTo(d);   // 배열 순서는 유지
+    }
+
+    @Test
+    void canonicalIsSortedAndCompact() throws Exception {
+        byte[] canon = PayloadHasher.canonical(mapper.readTree("{ \"b\" : 1.0, \"a\" : { \"d\" : null, \"c\" : \"x\" } }"));
+        assertThat(new String(canon, StandardCharsets.UTF_8)).isEqualTo("{\"a\":{\"c\":\"x\",\"d\":null},\"b\":1.0}");
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
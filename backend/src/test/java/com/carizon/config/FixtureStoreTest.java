@@ -0,0 +1,147 @@
+package com.carizon.config;
+
+import com.sun.net.httpserver.HttpServer;
+import okhttp3.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FixtureStoreTest {
+
+    private static final MediaType JSON = MediaType.parse("application/json");
+
+    @TempDir
+    Path dir;
+
+    private HttpServer upstream;
+    private FixtureServer replay;
+
+    @AfterEach
+    void tearDown() {
+        if (upstream != null) upstream.stop(0);
+        if (replay != null) replay.stop();
+    }
+
+    @Test
+    void keyIgnoresJsonBodyField() {
+        FixtureStore store = new FixtureStore(fixtures());
+        HttpUrl url = HttpUrl.get("https://web.chutcha.net/bmc/search/list");
+
+        String a = store.key("POST", url, bytes("{\"cp\":\"\",\"page_size\":\"40\",\"ts\":\"1700000000\"}"));
+        String b = store.key("POST", url, bytes("{\"cp\":\"\",\"page_size\":\"40\",\"ts\":\"1700000999\"}"));
+        String c = store.key("POST", url, bytes("{\"cp\":\"abc\",\"page_size\":\"40\",\"ts\":\"1700000000\"}"));
+
+        assertThat(a).isEqualTo(b);
+        assertThat(a).isNotEqualTo(c);
+    }
+
+    @Test
+    void keyIgnoresFormBodyField() {
+        FixtureStore store = new FixtureStore(fixtures());
+        HttpUrl url = HttpUrl.get("https://api.example.com/list");
+
+        assertThat(store.key("POST", url, bytes("page=2&ts=1")))
+                .isEqualTo(store.key("POST", url, bytes("page=2&ts=2")))
+                .isNotEqualTo(store.key("POST", url, bytes("page=3&ts=1")));
+    }
+
+    @Test
+    void recordThenReplayWithDifferentTimestamp() throws IOException {
+        AtomicInteger hits = new AtomicInteger();
+        upstream = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        upstream.createContext("/bmc/search/list", ex -> {
+            try (ex) {
+                hits.incrementAndGet();
+                ex.getRequestBody().readAllBytes();
+                byte[] b = bytes("{\"list\":[{\"id\":1}]}");
+                ex.getResponseHeaders().set("Content-Type", "application/json");
+                ex.sendResponseHeaders(200, b.length);
+                try (OutputStream out = ex.getResponseBody()) {
+                    out.write(b);
+                }
+            }
+        });
+        upstream.start();
+        HttpUrl listUrl = new HttpUrl.Builder().scheme("http").host("127.0.0.1")
+                .port(upstream.getAddress().getPort()).encodedPath("/bmc/search/list").build();
+
+        HttpClientProperties.Fixtures cfg = fixtures();
+        FixtureStore store = new FixtureStore(cfg);
+
+        // RECORD: ts=1700000000
+        OkHttpClient recorder = new OkHttpClient.Builder()
+                .addInterceptor(new FixtureInterceptor(HttpClientProperties.Fixtures.Mode.RECORD, store, null))
+                .build();
+        try (Response r = recorder.newCall(post(listUrl, "1700000000")).execute()) {
+            assertThat(r.code()).isEqualTo(200);
+        }
+        assertThat(hits.get()).isEqualTo(1);
+
+        // REPLAY: 다른 ts 로도 같은 녹화가 나와야 함
+        replay = new FixtureServer(cfg, store);
+        replay.start();
+        OkHttpClient player = new OkHttpClient.Builder()
+                .addInterceptor(new FixtureInterceptor(HttpClientProperties.Fixtures.Mode.REPLAY, store, replay.baseUrl()))
+                .build();
+        try (Response r = player.newCall(post(listUrl, "1700003600")).execute()) {
+            assertThat(r.code()).isEqualTo(200);
+            assertThat(r.body().string()).isEqualTo("{\"list\":[{\"id\":1}]}");
+        }
+        assertThat(hits.get()).isEqualTo(1);
+    }
+
+    /** 같은 키 동시 녹화: 임시 파일이 겹쳐 실패/깨진 파일이 생기지 않아야 함 */
+    @Test
+    void concurrentSaveOfSameKey() throws Exception {
+        FixtureStore store = new FixtureStore(fixtures());
+        List<Future<?>> saves = new ArrayList<>();
+        try (ExecutorService vt = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 200; i++) {
+                byte[] body = bytes("{\"n\":" + i + ",\"pad\":\"" + "x".repeat(4_000) + "\"}");
+                saves.add(vt.submit(() -> {
+                    store.save("host", "k", new FixtureStore.Fixture("GET", "http://host/k", 200, "application/json", body));
+                    return null;
+                }));
+            }
+        }
+        for (Future<?> f : saves) f.get();
+
+        FixtureStore.Fixture f = store.load("host", "k");
+        assertThat(new String(f.body(), StandardCharsets.UTF_8)).startsWith("{\"n\":").endsWith("\"}");
+        try (Stream<Path> files = Files.list(dir.resolve("host"))) {
+            assertThat(files.map(p -> p.getFileName().toString())).containsExactlyInAnyOrder("k.body", "k.json");
+        }
+    }
+
+    private HttpClientProperties.Fixtures fixtures() {
+        HttpClientProperties.Fixtures cfg = new HttpClientProperties.Fixtures();
+        cfg.setDir(dir.toString());
+        return cfg;
+    }
+
+    private static Request post(HttpUrl url, String ts) {
+        String json = "{\"sort\":\"1\",\"page_size\":\"40\",\"cp\":\"\",\"lp\":\"\",\"ts\":\"" + ts + "\"}";
+        return new Request.Builder().url(url).post(RequestBody.create(json, JSON)).build();
+    }
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+}
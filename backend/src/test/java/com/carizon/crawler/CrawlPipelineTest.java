@@ -0,0 +1,88 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlCheckpointStore;
+import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.*;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class CrawlPipelineTest {
+
+    @Test
+    void completesWhenParserSeesLastPage() {
+        CrawlPipeline<Integer> p = new CrawlPipeline<>("T", new SimpleMeterRegistry(), 2);
+        int saved = p.run(1,
+                page -> new byte[]{ (byte) page },
+                (page, body) -> new CrawlPipeline.Parsed<>(List.of(page, page), page == 3),
+                (page, rows) -> rows.size());
+        assertThat(saved).isEqualTo(6);
+        assertThat(p.completed()).isTrue();
+    }
+
+    @Test
+    void writerFailureIsRethrownWithSavedCount() {
+        CrawlPipeline<Integer> p = new CrawlPipeline<>("T", new SimpleMeterRegistry(), 2);
+        assertThatThrownBy(() -> p.run(1,
+                page -> new byte[]{ (byte) page },
+                (page, body) -> new CrawlPipeline.Parsed<>(List.of(page), false),
+                (page, rows) -> {
+                    if (page == 3) throw new IllegalStateException("db down");
+                    return rows.size();
+                }))
+                .isInstanceOfSatisfying(CrawlPipeline.Failure.class, f -> assertThat(f.saved()).isEqualTo(2))
+                .hasRootCauseMessage("db down");
+        assertThat(p.completed()).isFalse();
+    }
+
+    @Test
+    void fetchEndIsNotAFailure() {
+        CrawlPipeline<Integer> p = new CrawlPipeline<>("T", new SimpleMeterRegistry(), 2);
+        int saved = p.run(1,
+                page -> page > 2 ? null : new byte[]{ (byte) page },
+                (page, body) -> new CrawlPipeline.Parsed<>(List.of(page), false),
+                (page, rows) -> rows.size());
+        assertThat(saved).isEqualTo(2);
+        assertThat(p.completed()).isFalse();
+    }
+
+    /** 저장 단계 실패 → crawl_run 은 FAIL, recordEnd 없음, CrawlFailedException */
+    @Test
+    void crawlerRecordsFailWhenWriterFails() {
+        RawPayloadWriter raw = mock(RawPayloadWriter.class);
+        CrawlRunRecorder recorder = mock(CrawlRunRecorder.class);
+        RawPayloadWriter.Session session = new RawPayloadWriter.Session(CrawlSource.TCAR, "run-1", RawPayloadWriter.Mode.FULL, null);
+        when(recorder.recordStart(eq("TCAR"), any(Instant.class))).thenReturn("run-1");
+        when(raw.open(CrawlSource.TCAR, "run-1")).thenReturn(session);
+        when(raw.write(same(session), anyList())).thenThrow(new IllegalStateException("Data truncation"));
+
+        OkHttpClient http = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(200).message("OK")
+                        .body(ResponseBody.create("{\"result\":{\"data\":[{\"id\":1},{\"id\":2}]}}",
+                                MediaType.parse("application/json")))
+                        .build())
+                .build();
+        TcarCrawler crawler = new TcarCrawler(http, raw, recorder, mock(CrawlCheckpointStore.class),
+                new SimpleMeterRegistry(), mock(CrawlMetrics.class));
+
+        assertThatThrownBy(crawler::runOnceFull)
+                .isInstanceOfSatisfying(CrawlFailedException.class, e -> {
+                    assertThat(e.getSource()).isEqualTo(CrawlSource.TCAR);
+                    assertThat(e.getRunId()).isEqualTo("run-1");
+                });
+        verify(recorder).recordFail(eq("run-1"), eq(0), any(Instant.class), contains("Data truncation"));
+        verify(recorder, never()).recordEnd(anyString(), anyInt(), any());
+        verify(raw, never()).finish(any(), anyBoolean());
+    }
+}
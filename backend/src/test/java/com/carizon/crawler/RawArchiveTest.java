@@ -0,0 +1,45 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlSource;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+
+class RawArchiveTest {
+
+    @TempDir
+    Path dir;
+
+    private final LocalDate date = LocalDate.of(2025, 10, 4);
+
+    @Test
+    void listNameResolvesBackToSameFile() {
+        RawArchive archive = archive();
+        Path file = archive.fileOf(CrawlSource.ENCAR, date, "0f8c2a1e-77b0-4c1e-9a0e-3b1d5f6a7c8d");
+
+        assertThat(file.getFileName().toString()).isEqualTo("0f8c2a1e-77b0-4c1e-9a0e-3b1d5f6a7c8d.jsonl.zst");
+        assertThat(RawArchive.nameOf(file)).isEqualTo("0f8c2a1e-77b0-4c1e-9a0e-3b1d5f6a7c8d");
+        assertThat(archive.fileOf(CrawlSource.ENCAR, date, RawArchive.nameOf(file))).isEqualTo(file);
+    }
+
+    @Test
+    void rejectsNamesOutsideArchiveDir() {
+        RawArchive archive = archive();
+        for (String bad : new String[]{ "../../etc/passwd", "..", "a/b", "run.jsonl.zst", "", " " }) {
+            assertThatThrownBy(() -> archive.fileOf(CrawlSource.ENCAR, date, bad))
+                    .as(bad)
+                    .isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    private RawArchive archive() {
+        return new RawArchive(mock(JdbcTemplate.class), true, dir.toString(), 3);
+    }
+}
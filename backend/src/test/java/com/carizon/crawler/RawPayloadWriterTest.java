@@ -0,0 +1,70 @@
+package com.carizon.crawler;
+
+import com.carizon.batch.CrawlRunRecorder;
+import com.carizon.batch.CrawlSource;
+import com.carizon.common.SchemaCheck;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import java.sql.ResultSet;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.*;
+
+class RawPayloadWriterTest {
+
+    private final JdbcTemplate jdbc = mock(JdbcTemplate.class);
+    private final RawBulkLoader bulk = mock(RawBulkLoader.class);
+    private final RawPayloadWriter writer = new RawPayloadWriter(jdbc, mock(CrawlRunRecorder.class),
+            mock(RawArchive.class), mock(CrawlMetrics.class), bulk, mock(SchemaCheck.class), RawPayloadWriter.Mode.FULL);
+
+    /** FULL 은 키 UNIQUE 가 없음 → 같은 실행에서 다시 나온 키는 적재하지 않음 (키 없는 row 는 그대로) */
+    @Test
+    void fullSkipsKeysAlreadyWrittenInSession() {
+        RawPayloadWriter.Session s = writer.open(CrawlSource.TCAR, "run-1");
+
+        writer.write(s, List.of(row("{\"carId\":1}"), row("{\"carId\":2}")));
+        int received = writer.write(s, List.of(row("{\"carId\":2,\"price\":10}"), row("{\"carId\":3}"),
+                row("{\"carId\":3}"), row("{\"noKey\":true}")));
+
+        assertThat(received).isEqualTo(4);
+        assertThat(upsertedPayloads()).containsExactly(
+                "{\"carId\":1}", "{\"carId\":2}", "{\"carId\":3}", "{\"noKey\":true}");
+    }
+
+    /** FULL 재개: 중단 전 적재된 키(체크포인트 뒤 flush 분 포함)는 다시 받아도 적재하지 않음 */
+    @Test
+    void fullResumeSkipsKeysAlreadyInTable() {
+        doAnswer(inv -> {
+            RowCallbackHandler h = inv.getArgument(1);
+            ResultSet rs = mock(ResultSet.class);
+            for (String k : List.of("1", "2")) {
+                when(rs.getString(1)).thenReturn(k);
+                h.processRow(rs);
+            }
+            return null;
+        }).when(jdbc).query(startsWith("SELECT car_id FROM raw_tcar"), any(RowCallbackHandler.class));
+
+        RawPayloadWriter.Session s = writer.resume(CrawlSource.TCAR, "run-1");
+        writer.write(s, List.of(row("{\"carId\":1}"), row("{\"carId\":2}"), row("{\"carId\":3}")));
+
+        assertThat(upsertedPayloads()).containsExactly("{\"carId\":3}");
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<String> upsertedPayloads() {
+        ArgumentCaptor<List<Object[]>> params = ArgumentCaptor.forClass(List.class);
+        verify(bulk, atLeastOnce()).batchUpsert(anyString(), params.capture());
+        return params.getAllValues().stream().flatMap(List::stream).map(r -> (String) r[0]).toList();
+    }
+
+    private static Object[] row(String payload) {
+        return new Object[]{ payload };
+    }
+}